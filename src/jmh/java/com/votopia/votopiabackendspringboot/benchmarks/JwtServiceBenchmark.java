@@ -0,0 +1,118 @@
+package com.votopia.votopiabackendspringboot.benchmarks;
+
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.services.impl.auth.JwtServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtServiceImpl}: firma di un token e verifica con e senza la cache dei token già verificati.
+ * <p>
+ * Con {@code cache=hit} si verifica sempre lo stesso token (percorso di ogni richiesta dopo la prima);
+ * con {@code cache=miss} si ruota su più token di quanti ne contenga la cache, quindi ogni verifica
+ * paga HMAC e decodifica dei claims.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "votopia-benchmark-secret-key-of-at-least-32-bytes";
+    private static final int TOKENS = 4096;
+
+    @Param({"hit", "miss"})
+    public String cache;
+
+    private JwtServiceImpl jwtService;
+    private User user;
+    private String[] tokens;
+    private String tampered;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl();
+        set("secretKey", SECRET);
+        set("jwtExpiration", 86_400_000L);
+        set("cacheMaximumSize", "hit".equals(cache) ? 10_000L : 16L);
+        set("meterRegistry", new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        Method init = ReflectionUtils.findMethod(JwtServiceImpl.class, "init");
+        ReflectionUtils.makeAccessible(init);
+        ReflectionUtils.invokeMethod(init, jwtService);
+
+        Organization org = new Organization();
+        org.setId(1L);
+        user = user(1L, org);
+
+        // Token diversi per utente: con cache=miss nessuno resta in cache fino al giro successivo
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtService.generateToken(user(i + 1L, org));
+        }
+        String valid = tokens[0];
+        tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("A") ? "BB" : "AA");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtService.extractEmail(nextToken());
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(nextToken());
+    }
+
+    /**
+     * Firma non valida: mai in cache, quindi verificata per intero a ogni chiamata.
+     */
+    @Benchmark
+    public boolean isTamperedTokenValid() {
+        return jwtService.isTokenValid(tampered);
+    }
+
+    private String nextToken() {
+        if ("hit".equals(cache)) return tokens[0];
+        next = (next + 1) & (TOKENS - 1);
+        return tokens[next];
+    }
+
+    private void set(String field, Object value) {
+        var declared = ReflectionUtils.findField(JwtServiceImpl.class, field);
+        ReflectionUtils.makeAccessible(declared);
+        ReflectionUtils.setField(declared, jwtService, value);
+    }
+
+    private static User user(Long id, Organization org) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@votopia.it");
+        user.setOrg(org);
+        return user;
+    }
+}
@@ -0,0 +1,140 @@
+package com.votopia.votopiabackendspringboot.benchmarks;
+
+import com.votopia.votopiabackendspringboot.config.MetricsConfig;
+import com.votopia.votopiabackendspringboot.config.OrgSizeBuckets;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo per richiesta delle metriche HTTP: tag dell'osservazione (compresa la fascia {@code org.size}),
+ * ricerca del timer e registrazione della durata nell'istogramma dei percentili, come fa Spring Boot alla fine
+ * di ogni richiesta.
+ * <p>
+ * Con {@code registry=noop} il registro non ha backend (metriche disattivate); con {@code registry=prometheus}
+ * l'istogramma è configurato come in {@code application.properties}. Il costo dei contatori dei permessi
+ * è misurato in {@link PermissionServiceBenchmark} ({@code metrics=noop|prometheus}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"noop", "prometheus"})
+    public String registry;
+
+    private MeterRegistry meterRegistry;
+    private OrgSizeBuckets orgSizeBuckets;
+    private ServerRequestObservationConvention convention;
+    private ServerRequestObservationContext context;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        meterRegistry = "prometheus".equals(registry) ? prometheusRegistry() : new CompositeMeterRegistry();
+
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "countByOrgIdAndDeletedFalse" -> 420L;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        orgSizeBuckets = new OrgSizeBuckets(userRepository, new long[]{50, 200, 1000, 5000}, Duration.ofMinutes(10));
+        // Conteggio già in cache, come per ogni richiesta dopo la prima dell'organizzazione
+        while (OrgSizeBuckets.UNKNOWN.equals(orgSizeBuckets.bucketOf(1L))) Thread.sleep(1);
+
+        convention = new MetricsConfig().orgSizeServerRequestObservationConvention(orgSizeBuckets);
+        context = new ServerRequestObservationContext(request(), response());
+        context.setPathPattern("/api/users/init-screen/");
+    }
+
+    @Benchmark
+    public String orgSizeBucket() {
+        return orgSizeBuckets.bucketOf(1L);
+    }
+
+    /**
+     * Tag dell'osservazione, timer e registrazione: il lavoro aggiunto a ogni richiesta HTTP.
+     */
+    @Benchmark
+    public Timer recordHttpRequest() {
+        Tags tags = Tags.empty();
+        for (KeyValue keyValue : convention.getLowCardinalityKeyValues(context)) {
+            tags = tags.and(keyValue.getKey(), keyValue.getValue());
+        }
+        Timer timer = Timer.builder(convention.getName()).tags(tags).register(meterRegistry);
+        timer.record(12_345_678L, TimeUnit.NANOSECONDS);
+        return timer;
+    }
+
+    private static PrometheusMeterRegistry prometheusRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // Equivalente di management.metrics.distribution.* per http.server.requests
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith("http.server.requests")) return config;
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+        return registry;
+    }
+
+    private static HttpServletRequest request() {
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getMethod" -> "GET";
+                    case "getRequestURI" -> "/api/users/init-screen/";
+                    case "getAttribute" -> OrgSizeBuckets.ORG_ID_ATTRIBUTE.equals(args[0]) ? 1L : null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    private static HttpServletResponse response() {
+        return (HttpServletResponse) Proxy.newProxyInstance(HttpServletResponse.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getStatus" -> 200;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,136 @@
+package com.votopia.votopiabackendspringboot.benchmarks;
+
+import com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto;
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionSnapshot;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controllo di un permesso: confronto tra la scansione storica dei ruoli con stream annidati
+ * e il test di bit sulla {@link PermissionSnapshot} compilata dal {@link PermissionRegistry}.
+ * <p>
+ * Un utente con {@code roles} ruoli (metà di organizzazione, metà di lista), ognuno con 8 dei
+ * 40 permessi dell'applicazione; si cerca un permesso concesso solo dall'ultimo ruolo.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    private static final int PERMISSIONS = 40;
+    private static final int PER_ROLE = 8;
+
+    @Param({"2", "8", "32"})
+    public int roles;
+
+    private Set<Role> userRoles;
+    private PermissionRegistry registry;
+    private PermissionSnapshot snapshot;
+    private String target;
+    private int targetIndex;
+    private Long targetListId;
+
+    @Setup
+    public void setUp() {
+        java.util.List<Permission> permissions = new ArrayList<>();
+        for (int i = 0; i < PERMISSIONS; i++) {
+            Permission permission = new Permission();
+            permission.setId((long) i + 1);
+            permission.setName("permission_" + i);
+            permissions.add(permission);
+        }
+
+        registry = new PermissionRegistry(null);
+        permissions.forEach(registry::register);
+
+        userRoles = new HashSet<>();
+        java.util.List<PermissionGrantDto> grants = new ArrayList<>();
+        for (int r = 0; r < roles; r++) {
+            Role role = new Role();
+            role.setId((long) r + 1);
+            if (r % 2 == 1) {
+                List list = new List();
+                list.setId((long) r + 100);
+                role.setList(list);
+            }
+            for (int p = 0; p < PER_ROLE; p++) {
+                role.getPermissions().add(permissions.get((r * 3 + p) % (PERMISSIONS - 1)));
+            }
+            userRoles.add(role);
+        }
+
+        // Il permesso cercato è concesso da un solo ruolo di lista
+        Role last = userRoles.stream().filter(r -> r.getList() != null).findFirst().orElseThrow();
+        last.getPermissions().add(permissions.get(PERMISSIONS - 1));
+        target = permissions.get(PERMISSIONS - 1).getName();
+        targetListId = last.getList().getId();
+
+        for (Role role : userRoles) {
+            Long listId = role.getList() == null ? null : role.getList().getId();
+            role.getPermissions().forEach(p -> grants.add(new PermissionGrantDto(listId, p.getName())));
+        }
+        snapshot = PermissionSnapshot.of(1L, grants, registry::intern);
+        targetIndex = registry.indexOf(target);
+    }
+
+    @Benchmark
+    public boolean streamHasPermission() {
+        return userRoles.stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .anyMatch(p -> p.getName().equals(target));
+    }
+
+    @Benchmark
+    public boolean streamHasPermissionOnList() {
+        return userRoles.stream()
+                .filter(role -> role.getList() != null && role.getList().getId().equals(targetListId))
+                .flatMap(role -> role.getPermissions().stream())
+                .anyMatch(p -> p.getName().equals(target));
+    }
+
+    @Benchmark
+    public boolean bitsHasPermission() {
+        return snapshot.hasPermission(targetIndex);
+    }
+
+    @Benchmark
+    public boolean bitsHasPermissionByName() {
+        return snapshot.hasPermission(registry.indexOf(target));
+    }
+
+    @Benchmark
+    public boolean bitsHasPermissionOnListByName() {
+        return snapshot.hasPermissionOnList(targetListId, registry.indexOf(target));
+    }
+
+    /**
+     * Percorso senza fotografia (ruoli già caricati come entità): paga la scansione completa dei ruoli
+     * per compilare la maschera, quindi non è più veloce della ricerca con stream. Misurato per confronto.
+     */
+    @Benchmark
+    public boolean compileRolesThenCheck() {
+        return registry.compile(userRoles).has(registry.indexOf(target));
+    }
+}
@@ -0,0 +1,255 @@
+package com.votopia.votopiabackendspringboot.benchmarks;
+
+import com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto;
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionSnapshot;
+import com.votopia.votopiabackendspringboot.services.impl.auth.EffectivePermissionMaterializer;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionCache;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionCheckMetrics;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionRegistry;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionServiceImpl;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionSnapshotHolder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controlli di {@link PermissionServiceImpl} su grafi di ruoli sintetici, senza database.
+ * <p>
+ * Un utente con {@code roles} ruoli (metà di organizzazione, metà di lista, 8 dei 40 permessi ciascuno);
+ * il permesso cercato è concesso solo da un ruolo di lista. Con {@code path=snapshot} la fotografia dei
+ * permessi è legata alla richiesta corrente (percorso delle richieste HTTP); con {@code path=decision-cache}
+ * non c'è richiesta e le risposte arrivano dalla cache condivisa delle decisioni, già calda. I repository
+ * sono sostituiti da stub che rispondono dalla stessa fotografia. Con {@code metrics=prometheus} ogni controllo
+ * incrementa anche i contatori {@code votopia.permissions.checks}; con {@code noop} i contatori non hanno backend.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionServiceBenchmark {
+
+    private static final int PERMISSIONS = 40;
+    private static final int PER_ROLE = 8;
+    private static final Long USER_ID = 1L;
+
+    @Param({"2", "8", "32"})
+    public int roles;
+
+    @Param({"snapshot", "decision-cache"})
+    public String path;
+
+    @Param({"noop", "prometheus"})
+    public String metrics;
+
+    private PermissionServiceImpl permissionService;
+    private User user;
+    private String orgOnlyPermission;
+    private String target;
+    private Long targetListId;
+    private Set<Long> requiredIds;
+
+    @Setup
+    public void setUp() {
+        java.util.List<Permission> permissions = new ArrayList<>();
+        for (int i = 0; i < PERMISSIONS; i++) {
+            Permission permission = new Permission();
+            permission.setId((long) i + 1);
+            permission.setName("permission_" + i);
+            permissions.add(permission);
+        }
+        PermissionRegistry registry = new PermissionRegistry(null);
+        permissions.forEach(registry::register);
+
+        Organization org = new Organization();
+        org.setId(1L);
+        user = new User();
+        user.setId(USER_ID);
+        user.setOrg(org);
+        for (int r = 0; r < roles; r++) {
+            Role role = new Role();
+            role.setId((long) r + 1);
+            if (r % 2 == 1) {
+                List list = new List();
+                list.setId((long) r + 100);
+                role.setList(list);
+                user.getLists().add(list);
+            }
+            for (int p = 0; p < PER_ROLE; p++) {
+                role.getPermissions().add(permissions.get((r * 3 + p) % (PERMISSIONS - 1)));
+            }
+            user.getRoles().add(role);
+        }
+        Role last = user.getRoles().stream().filter(r -> r.getList() != null).findFirst().orElseThrow();
+        last.getPermissions().add(permissions.get(PERMISSIONS - 1));
+        target = permissions.get(PERMISSIONS - 1).getName();
+        targetListId = last.getList().getId();
+        orgOnlyPermission = permissions.get(0).getName();
+        requiredIds = Set.of(1L, 2L, 3L);
+
+        java.util.List<PermissionGrantDto> grants = new ArrayList<>();
+        for (Role role : user.getRoles()) {
+            Long listId = role.getList() == null ? null : role.getList().getId();
+            role.getPermissions().forEach(p -> grants.add(new PermissionGrantDto(listId, p.getName())));
+        }
+        PermissionSnapshot snapshot = PermissionSnapshot.of(USER_ID, grants, registry::intern);
+
+        permissionService = new PermissionServiceImpl();
+        set("userRepository", userRepository(snapshot, grants, registry));
+        set("snapshotHolder", new PermissionSnapshotHolder());
+        set("permissionCache", new PermissionCache(null, 50_000, Duration.ofMinutes(10)));
+        set("permissionRegistry", registry);
+        set("materializer", new EffectivePermissionMaterializer(null, null, false, 1000));
+        set("metrics", new PermissionCheckMetrics("prometheus".equals(metrics)
+                ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)
+                : new CompositeMeterRegistry()));
+
+        if ("snapshot".equals(path)) {
+            RequestContextHolder.setRequestAttributes(new MapRequestAttributes());
+            permissionService.loadSnapshot(USER_ID);
+        } else {
+            RequestContextHolder.resetRequestAttributes();
+            // Cache delle decisioni già calda, come dopo la prima richiesta dell'utente
+            hasPermission();
+            hasPermissionOnList();
+            validatePermission();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public boolean hasPermission() {
+        return permissionService.hasPermission(USER_ID, target);
+    }
+
+    @Benchmark
+    public boolean hasPermissionOnList() {
+        return permissionService.hasPermissionOnList(USER_ID, targetListId, target);
+    }
+
+    /**
+     * Permesso di organizzazione assente, permesso di lista presente: esegue entrambi i controlli.
+     */
+    @Benchmark
+    public boolean validatePermission() {
+        permissionService.validatePermission(USER_ID, targetListId, target + "_org", target, "Accesso negato");
+        return true;
+    }
+
+    @Benchmark
+    public boolean hasAllPermissions() {
+        return permissionService.hasAllPermissions(USER_ID, requiredIds);
+    }
+
+    /**
+     * Permesso non globale: restituisce le liste dell'utente dopo il controllo sui ruoli.
+     */
+    @Benchmark
+    public Set<List> getListsUserHasPermission() {
+        return permissionService.getListsUserHasPermission(user, orgOnlyPermission + "_missing");
+    }
+
+    private void set(String field, Object value) {
+        var declared = ReflectionUtils.findField(PermissionServiceImpl.class, field);
+        ReflectionUtils.makeAccessible(declared);
+        ReflectionUtils.setField(declared, permissionService, value);
+    }
+
+    /**
+     * Stub del repository degli utenti: le query sui permessi rispondono dalla fotografia.
+     */
+    private static UserRepository userRepository(PermissionSnapshot snapshot, java.util.List<PermissionGrantDto> grants,
+                                                 PermissionRegistry registry) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hasPermission" -> snapshot.hasPermission(registry.indexOf((String) args[1]));
+                    case "hasPermissionOnList" -> snapshot.hasPermissionOnList((Long) args[1], registry.indexOf((String) args[2]));
+                    case "findPermissionGrantsByUserId" -> grants;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "UserRepositoryStub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Attributi di una richiesta fittizia, sufficienti per {@link PermissionSnapshotHolder}.
+     */
+    private static final class MapRequestAttributes implements RequestAttributes {
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public Object getAttribute(String name, int scope) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value, int scope) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name, int scope) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public String[] getAttributeNames(int scope) {
+            return attributes.keySet().toArray(String[]::new);
+        }
+
+        @Override
+        public void registerDestructionCallback(String name, Runnable callback, int scope) {
+        }
+
+        @Override
+        public Object resolveReference(String key) {
+            return null;
+        }
+
+        @Override
+        public String getSessionId() {
+            return "benchmark";
+        }
+
+        @Override
+        public Object getSessionMutex() {
+            return this;
+        }
+    }
+}
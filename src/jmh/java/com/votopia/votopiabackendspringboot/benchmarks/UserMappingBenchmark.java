@@ -0,0 +1,114 @@
+package com.votopia.votopiabackendspringboot.benchmarks;
+
+import com.votopia.votopiabackendspringboot.config.CustomUserDetails;
+import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserDetailDto;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.campaigns.Campaign;
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.services.auth.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costruzione del principal ({@link CustomUserDetails}) e dei DTO più usati a partire da entità già caricate.
+ * <p>
+ * {@code UserDetailDto} mappa tutti i ruoli (con la loro lista) e tutte le liste dell'utente: il costo cresce
+ * con {@code roles}; metà dei ruoli è legata a una lista.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int roles;
+
+    private User user;
+    private VerifiedToken token;
+    private Campaign campaign;
+
+    @Setup
+    public void setUp() {
+        Organization org = new Organization();
+        org.setId(1L);
+
+        user = new User();
+        user.setId(42L);
+        user.setName("Mario");
+        user.setSurname("Rossi");
+        user.setEmail("mario.rossi@votopia.it");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ3B2sZ8m5xYc3Jr1Zz0Pj1yq2Qe7uW");
+        user.setOrg(org);
+        user.setDeleted(false);
+        user.setMustChangePassword(false);
+        for (int r = 0; r < roles; r++) {
+            Role role = new Role();
+            role.setId((long) r + 1);
+            role.setName("Ruolo " + r);
+            role.setColor("#00aaff");
+            if (r % 2 == 1) {
+                List list = list((long) r + 100);
+                role.setList(list);
+                user.getLists().add(list);
+            }
+            user.getRoles().add(role);
+        }
+
+        token = new VerifiedToken(user.getEmail(), user.getId(), org.getId(), Instant.now().plusSeconds(3600));
+
+        campaign = new Campaign();
+        campaign.setId(7L);
+        campaign.setName("Elezioni d'istituto");
+        campaign.setDescription("Campagna elettorale per il consiglio d'istituto");
+        campaign.setStartDate(LocalDate.of(2026, 10, 1));
+        campaign.setEndDate(LocalDate.of(2026, 10, 31));
+        campaign.setList(list(100L));
+    }
+
+    @Benchmark
+    public CustomUserDetails customUserDetailsFromUser() {
+        return new CustomUserDetails(user);
+    }
+
+    @Benchmark
+    public CustomUserDetails customUserDetailsFromToken() {
+        return new CustomUserDetails(token);
+    }
+
+    @Benchmark
+    public UserDetailDto userDetailDto() {
+        return new UserDetailDto(user);
+    }
+
+    @Benchmark
+    public CampaignSummaryDto campaignSummaryDto() {
+        return new CampaignSummaryDto(campaign);
+    }
+
+    private static List list(Long id) {
+        List list = new List();
+        list.setId(id);
+        list.setName("Lista " + id);
+        return list;
+    }
+}
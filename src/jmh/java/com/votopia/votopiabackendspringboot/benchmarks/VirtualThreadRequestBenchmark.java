@@ -0,0 +1,99 @@
+package com.votopia.votopiabackendspringboot.benchmarks;
+
+import com.votopia.votopiabackendspringboot.config.ConcurrencyLimitedDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gestione delle richieste con thread di piattaforma (pool da 200, come Tomcat) e con virtual thread.
+ * <p>
+ * 400 client chiamano in parallelo; ogni richiesta fa I/O bloccante fuori dal database (disco, storage,
+ * servizi esterni: {@code ioMillis}) e una query ({@code queryMillis}) su una connessione ottenuta tramite
+ * {@link ConcurrencyLimitedDataSource}. Con {@code -bm thrpt} si confronta il throughput, con {@code -bm sample}
+ * la distribuzione delle latenze (p99 incluso): con i thread di piattaforma metà dei client resta in coda
+ * in attesa di un thread, con i virtual thread l'unico limite è quello delle connessioni.
+ * </p>
+ * Isola solo il modello di thread: il confronto sull'applicazione reale (Tomcat, Hibernate, sicurezza) è
+ * {@code loadtest/VirtualThreadLoadComparison} ({@code mvn test -Ploadtest -Dloadtest.test=VirtualThreadLoadComparison}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Threads(400)
+@Fork(1)
+public class VirtualThreadRequestBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"20"})
+    public int ioMillis;
+
+    @Param({"1"})
+    public int queryMillis;
+
+    @Param({"20"})
+    public int maxConnections;
+
+    private ExecutorService executor;
+    private DataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        dataSource = new ConcurrencyLimitedDataSource(simulatedPool(), maxConnections, Duration.ofSeconds(30));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object request() throws Exception {
+        return executor.submit(() -> {
+            Thread.sleep(ioMillis);
+            try (Connection connection = dataSource.getConnection()) {
+                Thread.sleep(queryMillis);
+                return connection;
+            }
+        }).get();
+    }
+
+    /**
+     * Pool fittizio: restituisce connessioni la cui chiusura non fa nulla. Il tempo della query è simulato
+     * dal chiamante, qui conta solo il limite del semaforo.
+     */
+    private static DataSource simulatedPool() {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> "getConnection".equals(method.getName()) ? connection : null);
+    }
+}
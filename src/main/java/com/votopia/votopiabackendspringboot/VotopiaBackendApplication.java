@@ -2,6 +2,7 @@ package com.votopia.votopiabackendspringboot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 // Aggiungi queste esclusioni specifiche
@@ -9,6 +10,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
         org.springdoc.core.configuration.SpringDocDataRestConfiguration.class,
         org.springdoc.core.configuration.SpringDocHateoasConfiguration.class
 })
+@EnableScheduling
 public class VotopiaBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(VotopiaBackendApplication.class, args);
@@ -0,0 +1,133 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource che limita le connessioni usate contemporaneamente con un semaforo equo davanti al pool.
+ * <p>
+ * Con i virtual thread il numero di richieste in corso non è più limitato dai thread di Tomcat: migliaia di
+ * thread possono chiedere una connessione nello stesso istante. Il semaforo li mette in coda in ordine di
+ * arrivo (un virtual thread in attesa non occupa un thread di sistema) e fallisce con un errore esplicito
+ * dopo {@code acquireTimeout}, invece di scaricare tutta la concorrenza sul pool e su MySQL.
+ * Il permesso viene restituito alla chiusura della connessione, una sola volta.
+ * </p>
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public ConcurrencyLimitedDataSource(DataSource target, int maxConcurrent, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return limited(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return limited(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * Permessi liberi in questo momento (per diagnostica e metriche).
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Stima dei thread in attesa di un permesso.
+     */
+    public int waitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Troppe richieste concorrenti al database: nessuna connessione entro "
+                        + Duration.ofNanos(acquireTimeoutNanos).toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attesa di una connessione interrotta", e);
+        }
+    }
+
+    private Connection limited(ConnectionSupplier supplier) throws SQLException {
+        Connection target;
+        try {
+            target = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new ReleasingHandler(target, permits));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Inoltra ogni chiamata alla connessione reale e restituisce il permesso alla prima {@code close()}.
+     */
+    private static final class ReleasingHandler implements InvocationHandler {
+        private final Connection target;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingHandler(Connection target, Semaphore permits) {
+            this.target = target;
+            this.permits = permits;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getTargetConnection":
+                    return target;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) permits.release();
+                    }
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+    }
+}
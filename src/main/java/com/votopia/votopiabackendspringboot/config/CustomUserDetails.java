@@ -1,6 +1,7 @@
 package com.votopia.votopiabackendspringboot.config;
 
 import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.services.auth.VerifiedToken;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,6 +24,17 @@ public class CustomUserDetails implements UserDetails {
         this.orgId = user.getOrg() != null ? user.getOrg().getId() : null;
     }
 
+    /**
+     * Principal costruito dai claims di un JWT già verificato, senza accesso al database.
+     * La password non è disponibile (e non serve: l'autenticazione è già avvenuta).
+     */
+    public CustomUserDetails(VerifiedToken token) {
+        this.id = token.userId();
+        this.email = token.email();
+        this.password = null;
+        this.orgId = token.orgId();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(); // Per ora vuoto, lo riempiremo con i ruoli se serve
@@ -1,11 +1,15 @@
 package com.votopia.votopiabackendspringboot.config;
 
 import com.votopia.votopiabackendspringboot.services.auth.JwtService;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.auth.VerifiedToken;
+import com.votopia.votopiabackendspringboot.services.impl.auth.DeletedUserRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +19,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -22,6 +27,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final PermissionService permissionService;
+    private final DeletedUserRegistry deletedUserRegistry;
+
+    // "claims": principal dai claims del token; "database": caricamento dell'utente a ogni richiesta
+    @Value("${application.security.jwt.principal-source:claims}")
+    private String principalSource;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -34,17 +45,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        final String userEmail = jwtService.extractEmail(jwt);
+        // Un solo parsing (o un hit in cache) per firma, scadenza e claims
+        final Optional<VerifiedToken> verified = jwtService.verify(jwt);
+
+        if (verified.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            VerifiedToken token = verified.get();
+
+            // Token ancora valido ma utente eliminato: la richiesta prosegue come non autenticata
+            if (deletedUserRegistry.isDeleted(token.userId())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            UserDetails userDetails = "database".equals(principalSource)
+                    ? this.userDetailsService.loadUserByUsername(token.email())
+                    : new CustomUserDetails(token);
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
 
-            if (jwtService.isTokenValid(jwt)) { // Nota: aggiungi logica di controllo email se necessario
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            // Un'unica query per tutti i permessi: i service li leggeranno dalla richiesta
+            if (userDetails instanceof CustomUserDetails customUserDetails) {
+                permissionService.loadSnapshot(customUserDetails.getId());
+                // Letto a fine richiesta per il tag org.size delle metriche HTTP
+                request.setAttribute(OrgSizeBuckets.ORG_ID_ATTRIBUTE, customUserDetails.getOrgId());
             }
         }
         filterChain.doFilter(request, response);
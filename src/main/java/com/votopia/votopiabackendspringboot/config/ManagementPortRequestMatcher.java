@@ -0,0 +1,35 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Richieste arrivate sulla porta di gestione separata ({@code management.server.port}).
+ * <p>
+ * La porta viene letta all'avvio del server di gestione, quindi vale anche con porte casuali (test).
+ * Se gli endpoint di gestione condividono la porta dell'applicazione nessuna richiesta corrisponde:
+ * ciò che è aperto solo sulla rete interna resta protetto sulla porta pubblica.
+ * </p>
+ */
+@Component
+public class ManagementPortRequestMatcher implements RequestMatcher, ApplicationListener<WebServerInitializedEvent> {
+
+    private static final String MANAGEMENT_NAMESPACE = "management";
+
+    private volatile int managementPort = -1;
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        if (MANAGEMENT_NAMESPACE.equals(event.getApplicationContext().getServerNamespace())) {
+            managementPort = event.getWebServer().getPort();
+        }
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort;
+    }
+}
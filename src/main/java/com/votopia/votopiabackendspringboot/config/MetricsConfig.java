@@ -0,0 +1,54 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+import javax.sql.DataSource;
+
+/**
+ * Metriche esposte su {@code /actuator/prometheus}, oltre a quelle già fornite da Spring Boot
+ * (pool Hikari, JVM, Tomcat, metodi dei repository Spring Data in {@code spring.data.repository.invocations}).
+ * <ul>
+ *     <li>{@code http.server.requests}: tag {@code org.size} con la fascia dell'organizzazione dell'utente
+ *     ({@link OrgSizeBuckets}); istogrammi dei percentili attivati in {@code application.properties}.</li>
+ *     <li>{@code votopia.jdbc.concurrency.*}: permessi liberi e thread in attesa del limite JDBC
+ *     ({@link ConcurrencyLimitedDataSource}), se attivo.</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ServerRequestObservationConvention orgSizeServerRequestObservationConvention(OrgSizeBuckets orgSizeBuckets) {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object orgId = context.getCarrier().getAttribute(OrgSizeBuckets.ORG_ID_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context)
+                        .and("org.size", orgSizeBuckets.bucketOf(orgId instanceof Long id ? id : null));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder jdbcConcurrencyLimiterMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.forEach(dataSource -> {
+            ConcurrencyLimitedDataSource limiter = DataSourceUnwrapper.unwrap(dataSource, ConcurrencyLimitedDataSource.class);
+            if (limiter == null) return;
+            Gauge.builder("votopia.jdbc.concurrency.available", limiter, ConcurrencyLimitedDataSource::availablePermits)
+                    .description("Connessioni JDBC ancora ottenibili prima del limite")
+                    .register(registry);
+            Gauge.builder("votopia.jdbc.concurrency.waiting", limiter, ConcurrencyLimitedDataSource::waitingThreads)
+                    .description("Thread in attesa di una connessione JDBC")
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,240 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rilevatore di query N+1: conta le istruzioni SQL preparate da Hibernate in un'unità di lavoro (una richiesta
+ * HTTP, aperta da {@link QueryDiagnosticsConfig}, oppure un {@link #open(String)} esplicito) e segnala quelle
+ * ripetute identiche almeno {@code threshold} volte.
+ * <p>
+ * L'impronta di un'istruzione è il testo SQL senza letterali e con gli spazi normalizzati: Hibernate usa
+ * parametri, quindi le query emesse riga per riga producono sempre la stessa impronta. Al superamento della
+ * soglia viene registrato il punto di chiamata nel codice dell'applicazione (il primo frame fuori da
+ * Hibernate, Spring e proxy).
+ * </p>
+ * <ul>
+ *     <li>{@link Mode#FAIL} (test): {@link NPlusOneException} appena la soglia viene raggiunta.</li>
+ *     <li>{@link Mode#WARN} (produzione): alla chiusura dell'unità di lavoro un warning con numero di esecuzioni,
+ *     punto di chiamata e SQL, al massimo uno per coppia impronta/punto di chiamata ogni {@code warnInterval}.</li>
+ * </ul>
+ * Le istruzioni eseguite fuori da un'unità di lavoro (job, avvio) non vengono contate. Un task passato a un altro
+ * thread (corpo in streaming, {@code @Async}) resta collegato alla richiesta che lo ha avviato tramite
+ * {@link #propagate(Runnable)}.
+ */
+@Slf4j
+public class NPlusOneDetector implements StatementInspector {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    private static final String APPLICATION_PACKAGE = "com.votopia.votopiabackendspringboot.";
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+    private final Mode mode;
+    private final int threshold;
+    private final long warnIntervalNanos;
+    private final Map<String, Long> lastWarned = new ConcurrentHashMap<>();
+    private final Counter detected;
+
+    public NPlusOneDetector(Mode mode, int threshold, Duration warnInterval, MeterRegistry registry) {
+        this.mode = mode;
+        this.threshold = Math.max(2, threshold);
+        this.warnIntervalNanos = warnInterval.toNanos();
+        this.detected = Counter.builder("votopia.queries.n-plus-one")
+                .description("Query ripetute sopra la soglia in una singola unità di lavoro")
+                .register(registry);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Apre un'unità di lavoro sul thread corrente; da chiudere con try-with-resources.
+     * Se ne esiste già una, le istruzioni continuano a essere contate in quella esterna.
+     */
+    public Scope open(String name) {
+        Scope outer = current.get();
+        Scope scope = new Scope(name, outer);
+        if (outer == null && mode != Mode.OFF) current.set(scope);
+        return scope;
+    }
+
+    /**
+     * Apre un'unità di lavoro separata anche dentro un'altra, per i cicli che ripetono la stessa query per
+     * costruzione (lettura a blocchi keyset): ogni giro viene contato da solo. Il nome viene aggiunto a quello
+     * dell'unità corrente, che torna attiva alla chiusura.
+     */
+    public Scope split(String name) {
+        Scope previous = current.get();
+        Scope scope = new Scope(previous != null ? previous.name + " " + name : name, null, previous);
+        if (mode != Mode.OFF) current.set(scope);
+        return scope;
+    }
+
+    /**
+     * Avvolge un task che verrà eseguito su un altro thread in un'unità di lavoro con il nome di quella corrente
+     * e il suffisso {@code [async]}; senza unità di lavoro corrente il task resta invariato.
+     * Usato come {@code TaskDecorator} dell'esecutore dei task asincroni ({@link QueryDiagnosticsConfig}).
+     */
+    public Runnable propagate(Runnable task) {
+        Scope scope = current.get();
+        if (scope == null) return task;
+        String name = scope.name + " [async]";
+        return () -> {
+            try (Scope ignored = open(name)) {
+                task.run();
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = current.get();
+        if (scope == null) return sql;
+
+        String fingerprint = fingerprint(sql);
+        Repetition repetition = scope.repetitions.computeIfAbsent(fingerprint, f -> new Repetition());
+        if (++repetition.count == threshold) {
+            repetition.callSite = callSite();
+            if (mode == Mode.FAIL) {
+                throw new NPlusOneException("Query N+1 in " + scope.name + ": eseguita " + threshold
+                        + " volte da " + repetition.callSite + ": " + fingerprint);
+            }
+        }
+        return sql;
+    }
+
+    private void close(Scope scope) {
+        if (current.get() != scope) return;
+        if (scope.previous != null) current.set(scope.previous);
+        else current.remove();
+        for (Map.Entry<String, Repetition> entry : scope.repetitions.entrySet()) {
+            Repetition repetition = entry.getValue();
+            if (repetition.count < threshold) continue;
+            detected.increment();
+            String key = repetition.callSite + '\n' + entry.getKey();
+            long now = System.nanoTime();
+            Long last = lastWarned.get(key);
+            if (last != null && now - last < warnIntervalNanos) continue;
+            lastWarned.put(key, now);
+            log.warn("Possibile N+1 in {}: stessa query eseguita {} volte da {}: {}",
+                    scope.name, repetition.count, repetition.callSite, entry.getKey());
+        }
+    }
+
+    /**
+     * Testo SQL con i letterali sostituiti da {@code ?} e gli spazi consecutivi ridotti a uno.
+     */
+    static String fingerprint(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // Letterale stringa: gli apici raddoppiati sono un escape
+                i++;
+                while (i < sql.length()) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                if (space) out.append(' ');
+                out.append('?');
+                space = false;
+            } else if (Character.isDigit(c) && !partOfIdentifier(out)) {
+                while (i + 1 < sql.length() && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) i++;
+                if (space) out.append(' ');
+                out.append('?');
+                space = false;
+            } else if (Character.isWhitespace(c)) {
+                space = out.length() > 0;
+            } else {
+                if (space) out.append(' ');
+                out.append(c);
+                space = false;
+            }
+        }
+        return out.toString();
+    }
+
+    // Cifre dentro un nome (alias come u1_0): fanno parte dell'identificatore
+    private static boolean partOfIdentifier(StringBuilder out) {
+        if (out.isEmpty()) return false;
+        char previous = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+    }
+
+    private static String callSite() {
+        Optional<StackWalker.StackFrame> frame = StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(f -> !f.getClassName().equals(NPlusOneDetector.class.getName()))
+                .filter(f -> !f.getClassName().contains("$$"))
+                .findFirst());
+        return frame.map(f -> f.getClassName().substring(APPLICATION_PACKAGE.length()) + "." + f.getMethodName()
+                + "(" + f.getFileName() + ":" + f.getLineNumber() + ")").orElse("sconosciuto");
+    }
+
+    /**
+     * Unità di lavoro: contatori per impronta, usati da un solo thread.
+     */
+    public final class Scope implements AutoCloseable {
+        private final String name;
+        private final Scope outer;
+        private final Scope previous;
+        private final Map<String, Repetition> repetitions = new LinkedHashMap<>();
+
+        private Scope(String name, Scope outer) {
+            this(name, outer, null);
+        }
+
+        private Scope(String name, Scope outer, Scope previous) {
+            this.name = name;
+            this.outer = outer;
+            this.previous = previous;
+        }
+
+        /**
+         * Esecuzioni per impronta finora (per test e diagnostica).
+         */
+        public Map<String, Integer> counts() {
+            Scope target = outer != null ? outer : this;
+            Map<String, Integer> counts = new HashMap<>();
+            target.repetitions.forEach((fingerprint, repetition) -> counts.put(fingerprint, repetition.count));
+            return counts;
+        }
+
+        @Override
+        public void close() {
+            if (outer == null) NPlusOneDetector.this.close(this);
+        }
+    }
+
+    private static final class Repetition {
+        int count;
+        String callSite;
+    }
+
+    /**
+     * Query N+1 rilevata in modalità {@link Mode#FAIL}.
+     */
+    public static class NPlusOneException extends IllegalStateException {
+        public NPlusOneException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fascia di dimensione (utenti attivi) di un'organizzazione, usata come tag a bassa cardinalità nelle metriche.
+ * <p>
+ * Il conteggio viene letto in background e tenuto in cache: sul percorso della richiesta si legge solo la cache
+ * e, finché il primo conteggio non è pronto, l'organizzazione ricade in {@link #UNKNOWN}.
+ * </p>
+ */
+@Component
+public class OrgSizeBuckets {
+
+    /**
+     * Attributo della richiesta con l'ID dell'organizzazione dell'utente autenticato.
+     */
+    public static final String ORG_ID_ATTRIBUTE = OrgSizeBuckets.class.getName() + ".orgId";
+
+    public static final String NONE = "none";
+    public static final String UNKNOWN = "unknown";
+
+    private final long[] bounds;
+    private final String[] labels;
+    private final AsyncLoadingCache<Long, String> buckets;
+
+    public OrgSizeBuckets(
+            UserRepository userRepository,
+            @Value("${votopia.metrics.org-size.buckets:50,200,1000,5000}") long[] bounds,
+            @Value("${votopia.metrics.org-size.refresh-interval:10m}") Duration refreshInterval) {
+        this.bounds = Arrays.stream(bounds).sorted().toArray();
+        this.labels = labels(this.bounds);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .refreshAfterWrite(refreshInterval)
+                .buildAsync(orgId -> bucketForUsers(userRepository.countByOrgIdAndDeletedFalse(orgId)));
+    }
+
+    /**
+     * Fascia dell'organizzazione, senza mai interrogare il database nel thread chiamante.
+     */
+    public String bucketOf(Long orgId) {
+        if (orgId == null) return NONE;
+        // Un solo conteggio per organizzazione anche con molte richieste contemporanee
+        CompletableFuture<String> bucket = buckets.get(orgId);
+        return bucket.isDone() && !bucket.isCompletedExceptionally() ? bucket.join() : UNKNOWN;
+    }
+
+    String bucketForUsers(long users) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (users <= bounds[i]) return labels[i];
+        }
+        return labels[bounds.length];
+    }
+
+    // Es. 50,200 -> "0-50", "51-200", "201+": fasce disgiunte, ogni valore del tag ha un solo significato
+    private static String[] labels(long[] bounds) {
+        String[] labels = new String[bounds.length + 1];
+        long lower = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            labels[i] = lower + "-" + bounds[i];
+            lower = bounds[i] + 1;
+        }
+        labels[bounds.length] = bounds.length == 0 ? "all" : (bounds[bounds.length - 1] + 1) + "+";
+        return labels;
+    }
+}
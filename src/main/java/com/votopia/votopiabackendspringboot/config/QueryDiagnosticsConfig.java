@@ -0,0 +1,76 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Rilevatore di query N+1 ({@link NPlusOneDetector}) registrato come {@code StatementInspector} di Hibernate,
+ * con un'unità di lavoro per ogni richiesta HTTP (filtro in testa alla catena, prima della sicurezza).
+ * I task dell'esecutore asincrono di Spring (corpi {@code StreamingResponseBody}, {@code @Async}) ereditano
+ * l'unità di lavoro della richiesta che li ha avviati tramite il {@link TaskDecorator}.
+ * <p>
+ * {@code votopia.diagnostics.n-plus-one.mode}: {@code warn} in produzione, {@code fail} nei test
+ * ({@code src/test/resources/config/application.properties}), {@code off} per disattivarlo del tutto.
+ * </p>
+ */
+@Configuration
+public class QueryDiagnosticsConfig {
+
+    @Bean
+    public NPlusOneDetector nPlusOneDetector(
+            @Value("${votopia.diagnostics.n-plus-one.mode:warn}") String mode,
+            @Value("${votopia.diagnostics.n-plus-one.threshold:10}") int threshold,
+            @Value("${votopia.diagnostics.n-plus-one.warn-interval:1m}") Duration warnInterval,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new NPlusOneDetector(NPlusOneDetector.Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT)), threshold,
+                warnInterval, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer nPlusOneStatementInspector(NPlusOneDetector detector) {
+        return properties -> {
+            if (detector.mode() != NPlusOneDetector.Mode.OFF) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR, detector);
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> nPlusOneScopeFilter(NPlusOneDetector detector) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                try (NPlusOneDetector.Scope ignored = detector.open(request.getMethod() + " " + request.getRequestURI())) {
+                    chain.doFilter(request, response);
+                }
+            }
+        });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(detector.mode() != NPlusOneDetector.Mode.OFF);
+        return registration;
+    }
+
+    @Bean
+    public TaskDecorator nPlusOneScopePropagation(NPlusOneDetector detector) {
+        return detector.mode() == NPlusOneDetector.Mode.OFF ? task -> task : detector::propagate;
+    }
+}
@@ -0,0 +1,50 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Modalità virtual thread ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * Spring Boot esegue già su virtual thread le richieste Tomcat, l'executor applicativo (task asincroni e
+ * {@code StreamingResponseBody}) e lo scheduler. Qui si aggiunge il limite alla concorrenza JDBC
+ * ({@link ConcurrencyLimitedDataSource}), attivo di default solo in questa modalità: con i thread di piattaforma
+ * il tetto è già il numero di thread di Tomcat.
+ * </p>
+ * Gli executor per lavoro CPU-bound (cifratura delle password, miniature) restano su thread di piattaforma
+ * dimensionati sulle CPU; quelli per I/O bloccante (upload S3) usano virtual thread in questa modalità.
+ */
+@Slf4j
+@Configuration
+public class VirtualThreadConfig {
+
+    private static final String PREFIX = "votopia.jdbc.concurrency-limit.";
+
+    @Bean
+    static BeanPostProcessor jdbcConcurrencyLimiter(Environment environment) {
+        Binder binder = Binder.get(environment);
+        boolean virtualThreads = binder.bind("spring.threads.virtual.enabled", Boolean.class).orElse(false);
+        boolean enabled = binder.bind(PREFIX + "enabled", Boolean.class).orElse(virtualThreads);
+        int maxConcurrent = binder.bind(PREFIX + "max-concurrent", Integer.class)
+                .orElse(binder.bind("spring.datasource.hikari.maximum-pool-size", Integer.class).orElse(10));
+        Duration acquireTimeout = binder.bind(PREFIX + "acquire-timeout", Duration.class).orElse(Duration.ofSeconds(30));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                log.info("Connessioni JDBC contemporanee limitate a {} (bean {})", maxConcurrent, beanName);
+                return new ConcurrencyLimitedDataSource(dataSource, maxConcurrent, acquireTimeout);
+            }
+        };
+    }
+}
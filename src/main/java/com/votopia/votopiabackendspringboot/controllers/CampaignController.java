@@ -1,6 +1,7 @@
 package com.votopia.votopiabackendspringboot.controllers;
 
 import com.votopia.votopiabackendspringboot.config.CustomUserDetails;
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.SuccessResponse;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignAddCandidateDto;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignCreateDto;
@@ -17,9 +18,11 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
 
@@ -93,6 +96,42 @@ public class CampaignController {
         );
     }
 
+    @Operation(
+            summary = "Elenco campagne a pagine",
+            description = "Come /all/, ma a pagine ordinate per ID. Passare 'cursor' restituito dalla pagina precedente per proseguire."
+    )
+    @GetMapping("/all/page")
+    public ResponseEntity<SuccessResponse<CursorPage<CampaignSummaryDto>>> getAllPage(
+            @RequestParam(value = "target_list_id", required = false) Long targetListId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            Authentication authentication){
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+
+        CursorPage<CampaignSummaryDto> page = campaignService.getPage(targetListId, userDetails.getId(), cursor, limit);
+        return ResponseEntity.ok(
+                new SuccessResponse<>(
+                        true,
+                        HttpStatus.OK.value(),
+                        page,
+                        "Campagne ottenute con successo",
+                        System.currentTimeMillis()
+                )
+        );
+    }
+
+    @Operation(
+            summary = "Elenco campagne in streaming",
+            description = "Come /all/, ma scritto in NDJSON (una campagna per riga) man mano che viene letto dal database."
+    )
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllStream(@RequestParam(value = "target_list_id", required = false) Long targetListId, Authentication authentication){
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(campaignService.stream(targetListId, userDetails.getId()));
+    }
+
     @Operation(
             summary = "Ottieni dettagli campagna",
             description = "Recupera le informazioni dettagliate di una singola campagna. " +
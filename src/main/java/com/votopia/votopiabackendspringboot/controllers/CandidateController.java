@@ -1,6 +1,7 @@
 package com.votopia.votopiabackendspringboot.controllers;
 
 import com.votopia.votopiabackendspringboot.config.CustomUserDetails;
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.SuccessResponse;
 import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateCreateDto;
 import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateSummaryDto;
@@ -13,9 +14,11 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
 
@@ -97,4 +100,47 @@ public class CandidateController {
                 ), HttpStatus.CREATED
         );
     }
+
+    @Operation(
+            summary = "Recupera i candidati di una lista a pagine",
+            description = "Come /all-by-list/, ma a pagine ordinate per ID. Passare 'cursor' restituito dalla pagina precedente per proseguire."
+    )
+    @GetMapping("/all-by-list/page")
+    public ResponseEntity<SuccessResponse<CursorPage<CandidateSummaryDto>>> getAllByListPage(
+            @Parameter(description = "ID della lista da visualizzare tutti i candidati", required = true)
+            @RequestParam(value = "target_list_id") Long listId,
+            @Parameter(description = "Cursore opaco della pagina successiva (vuoto per la prima pagina).")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Numero di elementi per pagina (default 100, massimo 500).")
+            @RequestParam(value = "limit", required = false) Integer limit,
+            Authentication authentication
+    ) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+
+        return ResponseEntity.ok(
+                new SuccessResponse<>(
+                        true,
+                        HttpStatus.OK.value(),
+                        candidateService.getPageByList(listId, userDetails.getId(), cursor, limit),
+                        "Candidati ottenuti con successo",
+                        System.currentTimeMillis()
+                )
+        );
+    }
+
+    @Operation(
+            summary = "Recupera i candidati di una lista in streaming",
+            description = "Come /all-by-list/, ma scritto in NDJSON (un candidato per riga) man mano che viene letto dal database."
+    )
+    @GetMapping(value = "/all-by-list/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllByListStream(
+            @Parameter(description = "ID della lista da visualizzare tutti i candidati", required = true)
+            @RequestParam(value = "target_list_id") Long listId,
+            Authentication authentication
+    ) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(candidateService.streamByList(listId, userDetails.getId()));
+    }
 }
@@ -3,12 +3,16 @@ package com.votopia.votopiabackendspringboot.controllers;
 import com.votopia.votopiabackendspringboot.config.CustomUserDetails;
 import com.votopia.votopiabackendspringboot.dtos.SuccessResponse;
 import com.votopia.votopiabackendspringboot.dtos.file.FileSummaryDto;
+import com.votopia.votopiabackendspringboot.services.files.FileDownload;
 import com.votopia.votopiabackendspringboot.services.files.FileService;
+import com.votopia.votopiabackendspringboot.services.impl.files.FileDownloadWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +23,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/files")
 @Slf4j
@@ -28,6 +34,9 @@ public class FileController {
     @Autowired
     FileService fileService;
 
+    @Autowired
+    FileDownloadWriter fileDownloadWriter;
+
     @Operation(
             summary = "Carica un nuovo file",
             description = "Esegue l'upload di un file fisico. Può essere un file generico dell'organizzazione o legato a una lista/categoria specifica."
@@ -46,8 +55,8 @@ public class FileController {
             @Parameter(description = "ID della Lista opzionale a cui associare il file")
             @RequestParam(value = "list_id", required = false) Long listId,
 
-            @Parameter(description = "ID della Categoria opzionale (es. Documenti, Foto)")
-            @RequestParam(value = "category_id", required = false) Long categoryId,
+            @Parameter(description = "ID della Categoria del file (es. Documenti, Foto)", required = true)
+            @RequestParam(value = "category_id") Long categoryId,
 
             Authentication authentication
     ) {
@@ -93,4 +102,35 @@ public class FileController {
                 )
         );
     }
-}
\ No newline at end of file
+
+    @Operation(
+            summary = "Scarica un file",
+            description = "Restituisce il contenuto del file. Supporta richieste Range (risposta 206) e If-None-Match " +
+                    "(risposta 304 senza leggere lo storage); i file salvati per contenuto sono marcati come immutabili. " +
+                    "Per le immagini il parametro size restituisce una miniatura generata in background."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Contenuto completo del file"),
+            @ApiResponse(responseCode = "206", description = "Intervallo di byte richiesto"),
+            @ApiResponse(responseCode = "304", description = "Il client ha già la versione corrente"),
+            @ApiResponse(responseCode = "403", description = "Non hai i permessi per scaricare questo file"),
+            @ApiResponse(responseCode = "404", description = "File non trovato"),
+            @ApiResponse(responseCode = "416", description = "Intervallo richiesto non valido")
+    })
+    @GetMapping("/download/")
+    public void download(
+            @Parameter(description = "ID del file da scaricare", required = true)
+            @RequestParam(value = "target_file_id") Long targetId,
+
+            @Parameter(description = "Lato massimo in pixel per ricevere una miniatura (solo immagini, es. 64, 256, 1024); se nessuna miniatura è abbastanza grande viene restituito l'originale")
+            @RequestParam(value = "size", required = false) Integer size,
+
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        FileDownload download = fileService.prepareDownload(targetId, size, userDetails.getId());
+        fileDownloadWriter.write(download, request, response);
+    }
+}
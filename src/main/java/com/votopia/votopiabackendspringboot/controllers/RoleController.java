@@ -1,9 +1,11 @@
 package com.votopia.votopiabackendspringboot.controllers;
 
 import com.votopia.votopiabackendspringboot.config.CustomUserDetails;
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.SuccessResponse;
 import com.votopia.votopiabackendspringboot.dtos.role.*;
 import com.votopia.votopiabackendspringboot.services.auth.RoleService;
+import com.votopia.votopiabackendspringboot.services.impl.OrgDataVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,10 +14,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
 
@@ -28,19 +34,27 @@ public class RoleController {
     @Autowired
     private RoleService roleService;
 
+    @Autowired
+    private OrgDataVersions orgDataVersions;
+
     @Operation(
             summary = "Screen init ruoli",
-            description = "Restituisce i dati iniziali per la schermata ruoli: ruoli di organizzazione, ruoli di lista, statistiche e permessi dell'utente."
+            description = "Restituisce i dati iniziali per la schermata ruoli: ruoli di organizzazione, ruoli di lista, statistiche e permessi dell'utente. " +
+                    "Supporta If-None-Match: se dati dell'organizzazione e permessi non sono cambiati risponde 304 senza ricalcolare nulla."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Dati ruoli ottenuti con successo"),
+            @ApiResponse(responseCode = "304", description = "Dati invariati rispetto all'ETag inviato"),
             @ApiResponse(responseCode = "403", description = "Permessi insufficienti")
     })
     @GetMapping("/init-screen/")
-    public ResponseEntity<SuccessResponse<RolesScreenInitDto>> initRolesScreen(Authentication authentication) {
+    public ResponseEntity<SuccessResponse<RolesScreenInitDto>> initRolesScreen(Authentication authentication, WebRequest webRequest) {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        String etag = orgDataVersions.screenETag(userDetails.getId(), userDetails.getOrgId());
+        if (etag != null && webRequest.checkNotModified(etag)) return null;
+
         RolesScreenInitDto data = roleService.getRolesScreenInitialization(userDetails.getId());
-        return ResponseEntity.ok(new SuccessResponse<>(
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(new SuccessResponse<>(
                 true, 200, data, "Dati ruoli ottenuti con successo", System.currentTimeMillis()
         ));
     }
@@ -107,6 +121,42 @@ public class RoleController {
         ));
     }
 
+    @Operation(
+            summary = "Recupera i ruoli visibili a pagine",
+            description = "Come /all/, ma a pagine ordinate per ID. Passare 'cursor' restituito dalla pagina precedente per proseguire."
+    )
+    @GetMapping("/all/page")
+    public ResponseEntity<SuccessResponse<CursorPage<RoleSummaryDto>>> getAllPage(
+            @Parameter(description = "Filtra i ruoli per una lista specifica.")
+            @RequestParam(required = false, value = "target_list_id") Long targetListId,
+            @Parameter(description = "Cursore opaco della pagina successiva (vuoto per la prima pagina).")
+            @RequestParam(required = false, value = "cursor") String cursor,
+            @Parameter(description = "Numero di elementi per pagina (default 100, massimo 500).")
+            @RequestParam(required = false, value = "limit") Integer limit,
+            Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        CursorPage<RoleSummaryDto> page = roleService.getVisiblePage(userDetails.getId(), targetListId, cursor, limit);
+
+        return ResponseEntity.ok(new SuccessResponse<>(
+                true, 200, page, "Ruoli ottenuti con successo", System.currentTimeMillis()
+        ));
+    }
+
+    @Operation(
+            summary = "Recupera i ruoli visibili in streaming",
+            description = "Come /all/, ma scritta in NDJSON (un ruolo per riga) man mano che viene letta dal database."
+    )
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllStream(
+            @Parameter(description = "Filtra i ruoli per una lista specifica.")
+            @RequestParam(required = false, value = "target_list_id") Long targetListId,
+            Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(roleService.streamVisible(userDetails.getId(), targetListId));
+    }
+
     @Operation(
             summary = "Ottieni dettagli completi di un ruolo",
             description = "Restituisce le informazioni di un ruolo, inclusa la lista completa dei permessi associati."
@@ -1,11 +1,13 @@
 package com.votopia.votopiabackendspringboot.controllers;
 
 import com.votopia.votopiabackendspringboot.config.CustomUserDetails;
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.SuccessResponse;
 import com.votopia.votopiabackendspringboot.dtos.list.ListOptionDto;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleOptionDto;
 import com.votopia.votopiabackendspringboot.dtos.user.*;
 import com.votopia.votopiabackendspringboot.services.auth.UserService;
+import com.votopia.votopiabackendspringboot.services.impl.OrgDataVersions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,15 +16,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.util.Set;
 
 @RestController
@@ -34,6 +38,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private OrgDataVersions orgDataVersions;
+
     @Operation(
             summary = "Inizializza la schermata di creazione utente",
             description = "Restituisce tutti i dati necessari per inizializzare il form di creazione utente nel frontend: liste disponibili e ruoli disponibili."
@@ -55,19 +62,25 @@ public class UserController {
 
     @Operation(
             summary = "Inizializza la schermata Users completa",
-            description = "Restituisce TUTTI i dati necessari per inizializzare la schermata Users: liste, ruoli (org e list), statistiche (totale utenti, ruoli, liste) e scope di filtro disponibile."
+            description = "Restituisce TUTTI i dati necessari per inizializzare la schermata Users: liste, ruoli (org e list), statistiche (totale utenti, ruoli, liste) e scope di filtro disponibile. " +
+                    "Supporta If-None-Match: se dati dell'organizzazione e permessi non sono cambiati risponde 304 senza ricalcolare nulla."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Dati schermata Users ottenuti con successo"),
+            @ApiResponse(responseCode = "304", description = "Dati invariati rispetto all'ETag inviato"),
             @ApiResponse(responseCode = "403", description = "Permessi insufficienti"),
             @ApiResponse(responseCode = "404", description = "Utente non trovato")
     })
     @GetMapping("/init-screen/")
-    public ResponseEntity<SuccessResponse<UsersScreenInitDto>> initializeUsersScreen(Authentication authentication) {
+    public ResponseEntity<SuccessResponse<UsersScreenInitDto>> initializeUsersScreen(Authentication authentication, WebRequest webRequest) {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        // ETag letto prima dei dati: una lettura per chiave primaria e permessi già caricati dal filtro JWT
+        String etag = orgDataVersions.screenETag(userDetails.getId(), userDetails.getOrgId());
+        if (etag != null && webRequest.checkNotModified(etag)) return null;
+
         UsersScreenInitDto screenData = userService.getUsersScreenInitialization(userDetails.getId());
 
-        return ResponseEntity.ok(new SuccessResponse<>(
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(new SuccessResponse<>(
                 true, 200, screenData, "Dati schermata Users ottenuti con successo", System.currentTimeMillis()
         ));
     }
@@ -128,6 +141,42 @@ public class UserController {
         ));
     }
 
+    @Operation(
+            summary = "Lista paginata degli utenti visibili",
+            description = "Come /all/, ma a pagine ordinate per ID. Passare 'cursor' restituito dalla pagina precedente per proseguire."
+    )
+    @GetMapping("/all/page")
+    public ResponseEntity<SuccessResponse<CursorPage<UserDetailDto>>> allPage(
+            @Parameter(description = "Filtra gli utenti associati a una determinata Lista.")
+            @RequestParam(value = "target_list_id", required = false) Long targetListId,
+            @Parameter(description = "Cursore opaco della pagina successiva (vuoto per la prima pagina).")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Numero di elementi per pagina (default 100, massimo 500).")
+            @RequestParam(value = "limit", required = false) Integer limit,
+            Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        CursorPage<UserDetailDto> page = userService.getVisibleUsersPage(userDetails.getId(), targetListId, cursor, limit);
+
+        return ResponseEntity.ok(new SuccessResponse<>(
+                true, 200, page, "Utenti trovati con successo", System.currentTimeMillis()
+        ));
+    }
+
+    @Operation(
+            summary = "Lista in streaming degli utenti visibili",
+            description = "Come /all/, ma scritta in NDJSON (un utente per riga) man mano che viene letta dal database."
+    )
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> allStream(
+            @Parameter(description = "Filtra gli utenti associati a una determinata Lista.")
+            @RequestParam(value = "target_list_id", required = false) Long targetListId,
+            Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.streamVisibleUsers(userDetails.getId(), targetListId));
+    }
+
     @Operation(
             summary = "Elimina un utente",
             description = "Esegue la cancellazione di un utente. Richiede permessi di alto livello o che l'utente stia cancellando se stesso."
@@ -222,18 +271,44 @@ public class UserController {
         ), HttpStatus.CREATED);
     }
 
+    @Operation(
+            summary = "Importa utenti da file Excel o CSV",
+            description = "Registra gli utenti elencati in un file .xlsx o .csv (intestazione NOME, COGNOME, EMAIL, PASSWORD). " +
+                    "Il file viene letto in streaming; le righe non valide vengono scartate e riportate nel report con il motivo."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import completato, vedi il report per le righe scartate"),
+            @ApiResponse(responseCode = "400", description = "Formato o intestazione del file non validi"),
+            @ApiResponse(responseCode = "403", description = "Permessi insufficienti")
+    })
+    @PostMapping(value = "/register/import/", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<SuccessResponse<UserImportReportDto>> importUsers(
+            @Parameter(description = "File .xlsx o .csv con gli utenti da registrare", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Liste a cui associare tutti gli utenti del file")
+            @RequestParam(value = "lists_id", required = false) Set<Long> listsId,
+            @Parameter(description = "Ruoli da assegnare a tutti gli utenti del file")
+            @RequestParam(value = "roles_id", required = false) Set<Long> rolesId,
+            Authentication authentication) {
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        UserImportReportDto report = userService.importUsersFromFile(file, listsId, rolesId, userDetails.getId());
+        return ResponseEntity.ok(new SuccessResponse<>(
+                true, HttpStatus.OK.value(), report, "Import utenti completato", System.currentTimeMillis()
+        ));
+    }
+
     @Operation(
             summary = "Crea un file excel con una lista di utenti",
             description = "Crea un file di una lista di utenti all'interno dell'organizzazione dell'utente autenticato. Richiede permessi di amministrazione."
     )
     @GetMapping("/all/excel")
-    public ResponseEntity<InputStreamResource> getExcelAllUsers(
+    public ResponseEntity<StreamingResponseBody> getExcelAllUsers(
             @Parameter(description = "Filtra gli utenti associati a una determinata Lista.")
             @RequestParam(value = "target_list_id", required = false) Long targetListId,
             Authentication authentication) {
 
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        ByteArrayInputStream in = userService.createExcelAllVisibleUsers(userDetails.getId(), targetListId);
+        StreamingResponseBody body = userService.createExcelAllVisibleUsers(userDetails.getId(), targetListId);
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=users.xlsx");
@@ -241,7 +316,7 @@ public class UserController {
         return ResponseEntity.ok()
                 .headers(headers)
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+                .body(body);
     }
 
     @Operation(
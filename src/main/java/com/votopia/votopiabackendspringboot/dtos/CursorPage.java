@@ -0,0 +1,66 @@
+package com.votopia.votopiabackendspringboot.dtos;
+
+import com.votopia.votopiabackendspringboot.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Pagina di un elenco con paginazione keyset: gli elementi sono ordinati per ID crescente e
+ * {@code nextCursor} (opaco per il client) riparte dall'ultimo ID restituito.
+ *
+ * @param items      Elementi della pagina, in ordine di ID.
+ * @param nextCursor Cursore da passare per la pagina successiva, {@code null} se non ce ne sono altre.
+ * @param hasMore    {@code true} se esistono altri elementi dopo questa pagina.
+ */
+public record CursorPage<T>(
+        java.util.List<T> items,
+        String nextCursor,
+        boolean hasMore
+) {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    /**
+     * Costruisce la pagina a partire da {@code limit + 1} righe lette: l'eventuale riga in più
+     * indica solo che esiste una pagina successiva e non viene restituita.
+     */
+    public static <T> CursorPage<T> of(java.util.List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, false);
+        }
+        java.util.List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(java.util.List.copyOf(items), encode(idOf.apply(items.get(limit - 1))), true);
+    }
+
+    /**
+     * Riporta il limite richiesto nell'intervallo consentito (default se assente).
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return L'ID dopo cui riprendere, {@code 0} per la prima pagina.
+     * @throws BadRequestException Se il cursore non è stato emesso da questo server.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(CURSOR_PREFIX)) throw new IllegalArgumentException(raw);
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursore di paginazione non valido");
+        }
+    }
+}
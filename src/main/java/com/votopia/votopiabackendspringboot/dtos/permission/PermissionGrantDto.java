@@ -0,0 +1,10 @@
+package com.votopia.votopiabackendspringboot.dtos.permission;
+
+/**
+ * Proiezione minimale di un permesso concesso a un utente tramite uno dei suoi ruoli.
+ * Il {@code listId} è {@code null} quando il ruolo è a livello organizzazione.
+ */
+public record PermissionGrantDto(
+        Long listId,
+        String permissionName
+) {}
@@ -0,0 +1,10 @@
+package com.votopia.votopiabackendspringboot.dtos.user;
+
+/**
+ * Riga dell'export Excel degli utenti: solo le colonne stampate, senza ruoli né liste.
+ */
+public record UserExportRowDto(
+        String surname,
+        String name,
+        String email
+) {}
@@ -0,0 +1,18 @@
+package com.votopia.votopiabackendspringboot.dtos.user;
+
+import java.util.List;
+
+/**
+ * Esito dell'import di utenti da file.
+ * <p>
+ * {@code errors} elenca le righe scartate fino a un massimo configurato;
+ * oltre quel limite {@code errorsTruncated} è {@code true} e restano solo i conteggi.
+ * </p>
+ */
+public record UserImportReportDto(
+        int totalRows,
+        int importedRows,
+        int rejectedRows,
+        List<UserImportRowErrorDto> errors,
+        boolean errorsTruncated
+) {}
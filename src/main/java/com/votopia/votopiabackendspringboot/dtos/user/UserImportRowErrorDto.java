@@ -0,0 +1,10 @@
+package com.votopia.votopiabackendspringboot.dtos.user;
+
+/**
+ * Riga del file di import scartata: numero di riga (1 = intestazione), email letta e motivo.
+ */
+public record UserImportRowErrorDto(
+        int row,
+        String email,
+        String message
+) {}
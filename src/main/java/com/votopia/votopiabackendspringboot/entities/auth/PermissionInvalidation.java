@@ -0,0 +1,41 @@
+package com.votopia.votopiabackendspringboot.entities.auth;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Invalidazione dei permessi di un utente pubblicata da un nodo sul canale {@code database}.
+ * <p>
+ * Le righe vengono scritte e lette solo via JDBC dal canale e cancellate dopo il periodo di conservazione:
+ * l'entità serve a descrivere la tabella, le colonne sono semplici ID senza associazioni JPA.
+ * </p>
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "permission_invalidations",
+        indexes = @Index(name = "idx_permission_invalidations_created_at", columnList = "created_at")
+)
+public class PermissionInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Nodo che ha pubblicato l'invalidazione: non la rilegge, l'ha già applicata alla propria cache
+    @Column(name = "node_id", length = 32, nullable = false)
+    private String nodeId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
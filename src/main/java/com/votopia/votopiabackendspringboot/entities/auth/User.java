@@ -57,6 +57,10 @@ public class User {
 
     private Boolean deleted = false;
 
+    // Istante del soft-delete: consente l'aggiornamento incrementale del registro degli utenti eliminati
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @Column(name = "must_change_password")
     private Boolean mustChangePassword = true;
 
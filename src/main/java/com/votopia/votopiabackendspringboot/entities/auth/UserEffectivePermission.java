@@ -0,0 +1,43 @@
+package com.votopia.votopiabackendspringboot.entities.auth;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Permesso effettivo di un utente, materializzato dal join utenti → ruoli → permessi.
+ * <p>
+ * {@code listId} è {@code null} per i permessi ottenuti da ruoli di organizzazione.
+ * Le righe vengono riscritte per utente (mai modificate singolarmente), quindi le colonne sono
+ * semplici ID senza associazioni JPA.
+ * </p>
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "user_effective_permissions",
+        indexes = {
+                // Indice di copertura per i controlli: (utente, permesso[, lista])
+                @Index(name = "idx_uep_user_permission_list", columnList = "user_id, permission_id, list_id"),
+                @Index(name = "idx_uep_permission", columnList = "permission_id")
+        }
+)
+public class UserEffectivePermission {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "list_id")
+    private Long listId;
+
+    @Column(name = "permission_id", nullable = false)
+    private Long permissionId;
+}
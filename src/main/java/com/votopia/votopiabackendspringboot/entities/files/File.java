@@ -47,6 +47,13 @@ public class File {
     @Column(name = "mime_type", length = 100, nullable = false)
     private String mimeType;
 
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    // SHA-256 del contenuto (esadecimale), calcolato durante il salvataggio
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
     @Column(name = "uploaded_at")
     private LocalDateTime uploadedAt;
 
@@ -0,0 +1,47 @@
+package com.votopia.votopiabackendspringboot.entities.files;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contenuto fisico di uno o più {@link File}, identificato dal suo SHA-256.
+ * <p>
+ * {@code refCount} è il numero di righe {@code files} che puntano al blob: caricare lo stesso
+ * contenuto più volte incrementa il contatore senza nuove scritture, e il contenuto viene rimosso
+ * dallo storage solo quando il contatore torna a zero. La riga resta anche a zero, come segnaposto su
+ * cui caricamenti e rimozioni successivi dello stesso contenuto prendono il lock.
+ * </p>
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "file_blobs")
+@Getter
+@Setter
+public class FileBlob {
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,63 @@
+package com.votopia.votopiabackendspringboot.entities.files;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versione ridotta di un'immagine caricata, generata in background dopo l'upload.
+ * <p>
+ * È legata al contenuto originale (SHA-256) e non alla riga {@code files}: immagini identiche caricate
+ * più volte condividono le stesse derivate, eliminate insieme al blob originale.
+ * Una riga con {@code max_size = 0} è un segnaposto senza contenuto ({@code storage_path} vuoto): l'originale
+ * non richiede derivate e viene servito così com'è.
+ * </p>
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "file_derivatives",
+        uniqueConstraints = @UniqueConstraint(name = "uk_file_derivatives_source_size", columnNames = {"source_sha256", "max_size"})
+)
+@Getter
+@Setter
+public class FileDerivative {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_sha256", length = 64, nullable = false)
+    private String sourceSha256;
+
+    // Lato massimo richiesto (es. 64, 256, 1024): l'immagine generata non lo supera
+    @Column(name = "max_size", nullable = false)
+    private Integer maxSize;
+
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "height", nullable = false)
+    private Integer height;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Column(name = "mime_type", length = 100, nullable = false)
+    private String mimeType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -3,12 +3,16 @@ package com.votopia.votopiabackendspringboot.entities.log;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 
 @NoArgsConstructor
 @AllArgsConstructor
+@Getter
+@Setter
 @Entity
 @Table(name = "logs")
 public class Log {
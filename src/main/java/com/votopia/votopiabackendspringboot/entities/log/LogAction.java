@@ -2,12 +2,16 @@ package com.votopia.votopiabackendspringboot.entities.log;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @Entity
 @Table(name = "log_actions")
 @NoArgsConstructor
 @AllArgsConstructor
+@Getter
+@Setter
 public class LogAction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
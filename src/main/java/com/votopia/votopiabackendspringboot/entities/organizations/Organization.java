@@ -38,6 +38,10 @@ public class Organization {
     @Column(name = "max_lists", nullable = false)
     private Integer maxLists = 1;
 
+    // Incrementata solo da OrganizationRepository.incrementDataVersion, nella transazione della modifica
+    @Column(name = "data_version", nullable = false, updatable = false)
+    private Long dataVersion = 0L;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -1,11 +1,13 @@
 package com.votopia.votopiabackendspringboot.repositories.auth;
 
 import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Set;
 
 @Repository
@@ -30,4 +32,29 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
     Set<Role> findAllByOrganizationId(Long organizationId);
 
     Set<Role> findAllByListId(Long listId);
+
+    // Read model dell'elenco ruoli: nessun caricamento dei permessi EAGER né delle entità collegate
+    interface RoleRowView {
+        Long getId();
+        String getName();
+        String getColor();
+        Long getListId();
+        String getListName();
+    }
+
+    @Query("SELECT r.id AS id, r.name AS name, r.color AS color, l.id AS listId, l.name AS listName " +
+            "FROM Role r LEFT JOIN r.list l WHERE r.organization.id = :orgId")
+    List<RoleRowView> findRoleRowsByOrganizationId(@Param("orgId") Long orgId);
+
+    @Query("SELECT r.id AS id, r.name AS name, r.color AS color, l.id AS listId, l.name AS listName " +
+            "FROM Role r JOIN r.list l WHERE l.id = :listId")
+    List<RoleRowView> findRoleRowsByListId(@Param("listId") Long listId);
+
+    @Query("SELECT r.id AS id, r.name AS name, r.color AS color, l.id AS listId, l.name AS listName " +
+            "FROM Role r LEFT JOIN r.list l WHERE r.organization.id = :orgId AND r.id > :afterId ORDER BY r.id")
+    List<RoleRowView> findRoleRowsByOrganizationIdAfter(@Param("orgId") Long orgId, @Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT r.id AS id, r.name AS name, r.color AS color, l.id AS listId, l.name AS listName " +
+            "FROM Role r JOIN r.list l WHERE l.id = :listId AND r.id > :afterId ORDER BY r.id")
+    List<RoleRowView> findRoleRowsByListIdAfter(@Param("listId") Long listId, @Param("afterId") long afterId, Limit limit);
 }
\ No newline at end of file
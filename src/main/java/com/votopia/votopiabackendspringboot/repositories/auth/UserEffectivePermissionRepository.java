@@ -0,0 +1,38 @@
+package com.votopia.votopiabackendspringboot.repositories.auth;
+
+import com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto;
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
+import com.votopia.votopiabackendspringboot.entities.auth.UserEffectivePermission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Letture sulla tabella materializzata dei permessi effettivi: stessa semantica delle query di
+ * {@link UserRepository} sul join completo, ma su un solo indice (utente, permesso, lista).
+ */
+@Repository
+public interface UserEffectivePermissionRepository extends JpaRepository<UserEffectivePermission, Long> {
+
+    @Query("SELECT COUNT(e) > 0 FROM UserEffectivePermission e, Permission p " +
+            "WHERE p.id = e.permissionId AND e.userId = :userId AND p.name = :permissionName")
+    boolean hasPermission(@Param("userId") Long userId, @Param("permissionName") String permissionName);
+
+    @Query("SELECT COUNT(e) > 0 FROM UserEffectivePermission e, Permission p " +
+            "WHERE p.id = e.permissionId AND e.userId = :userId AND e.listId = :listId AND p.name = :permissionName")
+    boolean hasPermissionOnList(@Param("userId") Long userId,
+                                @Param("listId") Long listId,
+                                @Param("permissionName") String permissionName);
+
+    @Query("SELECT p FROM Permission p WHERE p.id IN " +
+            "(SELECT e.permissionId FROM UserEffectivePermission e WHERE e.userId = :userId)")
+    List<Permission> findAllPermissionsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT DISTINCT new com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto(e.listId, p.name) " +
+            "FROM UserEffectivePermission e, Permission p " +
+            "WHERE p.id = e.permissionId AND e.userId = :userId")
+    List<PermissionGrantDto> findPermissionGrantsByUserId(@Param("userId") Long userId);
+}
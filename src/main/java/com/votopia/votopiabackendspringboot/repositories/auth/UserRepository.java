@@ -1,17 +1,27 @@
 package com.votopia.votopiabackendspringboot.repositories.auth;
 
+import com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserExportRowDto;
 import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
 import com.votopia.votopiabackendspringboot.entities.auth.Permission;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> { ;
@@ -23,6 +33,14 @@ public interface UserRepository extends JpaRepository<User, Long> { ;
             "WHERE u.id = :userId AND p.name = :permissionName AND u.deleted = false")
     boolean hasPermission(@Param("userId") Long userId, @Param("permissionName") String permissionName);
 
+    @Query("SELECT COUNT(p) > 0 FROM User u " +
+            "JOIN u.roles r " +
+            "JOIN r.permissions p " +
+            "WHERE u.id = :userId AND r.list.id = :listId AND p.name = :permissionName")
+    boolean hasPermissionOnList(@Param("userId") Long userId,
+                                @Param("listId") Long listId,
+                                @Param("permissionName") String permissionName);
+
     // Recupera tutti i permessi (Sostituisce get_user_permissions)
     @Query("SELECT DISTINCT p FROM User u " +
             "JOIN u.roles r " +
@@ -30,6 +48,148 @@ public interface UserRepository extends JpaRepository<User, Long> { ;
             "WHERE u.id = :userId AND u.deleted = false")
     List<Permission> findAllPermissionsByUserId(@Param("userId") Long userId);
 
+    // Tutte le coppie (lista, permesso) dell'utente in una sola query: alimenta la PermissionSnapshot
+    @Query("SELECT DISTINCT new com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto(l.id, p.name) " +
+            "FROM User u " +
+            "JOIN u.roles r " +
+            "LEFT JOIN r.list l " +
+            "JOIN r.permissions p " +
+            "WHERE u.id = :userId AND u.deleted = false")
+    List<PermissionGrantDto> findPermissionGrantsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.id = :roleId")
+    Set<Long> findIdsByRolesId(@Param("roleId") Long roleId);
+
+    @Query("SELECT l.id FROM User u JOIN u.lists l WHERE u.id = :userId")
+    List<Long> findListIdsByUserId(@Param("userId") Long userId);
+
+    // Alimentano il registro in memoria degli utenti eliminati (caricamento completo e incrementale)
+    @Query("SELECT u.id FROM User u WHERE u.deleted = true")
+    List<Long> findDeletedIds();
+
+    @Query("SELECT u.id FROM User u WHERE u.deleted = true AND u.deletedAt >= :since")
+    List<Long> findDeletedIdsSince(@Param("since") LocalDateTime since);
+
+    // Export Excel: proiezione in streaming, letta a blocchi dal cursore lato server (useCursorFetch nell'URL)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.votopia.votopiabackendspringboot.dtos.user.UserExportRowDto(u.surname, u.name, u.email) " +
+            "FROM User u WHERE u.org.id = :orgId ORDER BY u.surname, u.name")
+    Stream<UserExportRowDto> streamExportRowsByOrgId(@Param("orgId") Long orgId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.votopia.votopiabackendspringboot.dtos.user.UserExportRowDto(u.surname, u.name, u.email) " +
+            "FROM User u JOIN u.lists l WHERE l.id = :listId ORDER BY u.surname, u.name")
+    Stream<UserExportRowDto> streamExportRowsByListId(@Param("listId") Long listId);
+
+    // --- Import massivo: controlli e riletture per blocchi di email, una query per blocco ---
+
+    interface UserEmailIdView {
+        Long getId();
+        String getEmail();
+    }
+
+    // Include anche gli utenti eliminati: il vincolo (email, org_id) vale pure per loro
+    @Query("SELECT u.email FROM User u WHERE u.org.id = :orgId AND u.email IN :emails")
+    Set<String> findEmailsByOrgIdAndEmailIn(@Param("orgId") Long orgId, @Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.id AS id, u.email AS email FROM User u WHERE u.org.id = :orgId AND u.email IN :emails")
+    List<UserEmailIdView> findIdsByOrgIdAndEmailIn(@Param("orgId") Long orgId, @Param("emails") Collection<String> emails);
+
+    // --- Read model degli elenchi: proiezioni piatte, un numero fisso di query per qualsiasi numero di righe ---
+
+    interface UserRowView {
+        Long getId();
+        String getName();
+        String getSurname();
+        String getEmail();
+        Boolean getDeleted();
+        Boolean getMustChangePassword();
+    }
+
+    interface UserRoleLinkView {
+        Long getUserId();
+        Long getRoleId();
+        String getRoleName();
+        String getRoleColor();
+        Long getListId();
+        String getListName();
+    }
+
+    interface UserListLinkView {
+        Long getUserId();
+        Long getListId();
+        String getListName();
+    }
+
+    @Query("SELECT u.id AS id, u.name AS name, u.surname AS surname, u.email AS email, " +
+            "u.deleted AS deleted, u.mustChangePassword AS mustChangePassword " +
+            "FROM User u WHERE u.org.id = :orgId")
+    List<UserRowView> findUserRowsByOrgId(@Param("orgId") Long orgId);
+
+    @Query("SELECT u.id AS id, u.name AS name, u.surname AS surname, u.email AS email, " +
+            "u.deleted AS deleted, u.mustChangePassword AS mustChangePassword " +
+            "FROM User u JOIN u.lists fl WHERE fl.id = :listId")
+    List<UserRowView> findUserRowsByListId(@Param("listId") Long listId);
+
+    @Query("SELECT u.id AS userId, r.id AS roleId, r.name AS roleName, r.color AS roleColor, " +
+            "l.id AS listId, l.name AS listName " +
+            "FROM User u JOIN u.roles r LEFT JOIN r.list l WHERE u.org.id = :orgId")
+    List<UserRoleLinkView> findRoleLinksByOrgId(@Param("orgId") Long orgId);
+
+    @Query("SELECT u.id AS userId, r.id AS roleId, r.name AS roleName, r.color AS roleColor, " +
+            "l.id AS listId, l.name AS listName " +
+            "FROM User u JOIN u.roles r LEFT JOIN r.list l " +
+            "WHERE u.id IN (SELECT lu.id FROM User lu JOIN lu.lists fl WHERE fl.id = :listId)")
+    List<UserRoleLinkView> findRoleLinksByListMembers(@Param("listId") Long listId);
+
+    @Query("SELECT u.id AS userId, r.id AS roleId, r.name AS roleName, r.color AS roleColor, " +
+            "l.id AS listId, l.name AS listName " +
+            "FROM User u JOIN u.roles r LEFT JOIN r.list l " +
+            "WHERE u.id IN (SELECT c.user.id FROM Candidate c WHERE c.list.id = :listId)")
+    List<UserRoleLinkView> findRoleLinksByListCandidates(@Param("listId") Long listId);
+
+    @Query("SELECT u.id AS userId, l.id AS listId, l.name AS listName " +
+            "FROM User u JOIN u.lists l WHERE u.org.id = :orgId")
+    List<UserListLinkView> findListLinksByOrgId(@Param("orgId") Long orgId);
+
+    @Query("SELECT u.id AS userId, l.id AS listId, l.name AS listName " +
+            "FROM User u JOIN u.lists l " +
+            "WHERE u.id IN (SELECT lu.id FROM User lu JOIN lu.lists fl WHERE fl.id = :listId)")
+    List<UserListLinkView> findListLinksByListMembers(@Param("listId") Long listId);
+
+    // Paginazione keyset: righe ordinate per ID dopo l'ultimo ID già restituito
+    @Query("SELECT u.id AS id, u.name AS name, u.surname AS surname, u.email AS email, " +
+            "u.deleted AS deleted, u.mustChangePassword AS mustChangePassword " +
+            "FROM User u WHERE u.org.id = :orgId AND u.id > :afterId ORDER BY u.id")
+    List<UserRowView> findUserRowsByOrgIdAfter(@Param("orgId") Long orgId, @Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT u.id AS id, u.name AS name, u.surname AS surname, u.email AS email, " +
+            "u.deleted AS deleted, u.mustChangePassword AS mustChangePassword " +
+            "FROM User u JOIN u.lists fl WHERE fl.id = :listId AND u.id > :afterId ORDER BY u.id")
+    List<UserRowView> findUserRowsByListIdAfter(@Param("listId") Long listId, @Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT u.id AS userId, r.id AS roleId, r.name AS roleName, r.color AS roleColor, " +
+            "l.id AS listId, l.name AS listName " +
+            "FROM User u JOIN u.roles r LEFT JOIN r.list l WHERE u.id IN :userIds")
+    List<UserRoleLinkView> findRoleLinksByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT u.id AS userId, l.id AS listId, l.name AS listName " +
+            "FROM User u JOIN u.lists l WHERE u.id IN :userIds")
+    List<UserListLinkView> findListLinksByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Utente con organizzazione, ruoli e liste in un'unica query: il contesto dell'utente autenticato.
+     */
+    @EntityGraph(attributePaths = {"org", "roles", "lists"})
+    @Query("SELECT u FROM User u WHERE u.id = :userId")
+    Optional<User> findWithContextById(@Param("userId") Long userId);
+
     Optional<Object> findUsersByEmailAndOrg(String email, Organization org);
 
     <Optional>User findUsersByEmail(String email);
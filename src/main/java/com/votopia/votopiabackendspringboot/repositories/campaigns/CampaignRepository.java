@@ -1,9 +1,14 @@
 package com.votopia.votopiabackendspringboot.repositories.campaigns;
 
+import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto;
 import com.votopia.votopiabackendspringboot.entities.campaigns.Campaign;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Set;
 
 @Repository
@@ -11,4 +16,25 @@ public interface CampaignRepository extends JpaRepository<Campaign, Long> {
     Set<Campaign> findAllByListOrgId(Long listOrgId);
 
     Set<Campaign> findAllByListId(Long listId);
+
+    // Read model dell'elenco campagne: DTO costruito direttamente dalla query, una sola istruzione SQL
+    @Query("SELECT new com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto(" +
+            "c.id, c.name, c.description, c.startDate, c.endDate, l.id, l.name) " +
+            "FROM Campaign c JOIN c.list l WHERE l.org.id = :orgId")
+    Set<CampaignSummaryDto> findSummariesByOrgId(@Param("orgId") Long orgId);
+
+    @Query("SELECT new com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto(" +
+            "c.id, c.name, c.description, c.startDate, c.endDate, l.id, l.name) " +
+            "FROM Campaign c JOIN c.list l WHERE l.id = :listId")
+    Set<CampaignSummaryDto> findSummariesByListId(@Param("listId") Long listId);
+
+    @Query("SELECT new com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto(" +
+            "c.id, c.name, c.description, c.startDate, c.endDate, l.id, l.name) " +
+            "FROM Campaign c JOIN c.list l WHERE l.org.id = :orgId AND c.id > :afterId ORDER BY c.id")
+    List<CampaignSummaryDto> findSummariesByOrgIdAfter(@Param("orgId") Long orgId, @Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT new com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto(" +
+            "c.id, c.name, c.description, c.startDate, c.endDate, l.id, l.name) " +
+            "FROM Campaign c JOIN c.list l WHERE l.id = :listId AND c.id > :afterId ORDER BY c.id")
+    List<CampaignSummaryDto> findSummariesByListIdAfter(@Param("listId") Long listId, @Param("afterId") long afterId, Limit limit);
 }
@@ -2,8 +2,15 @@ package com.votopia.votopiabackendspringboot.repositories.campaigns;
 
 import com.votopia.votopiabackendspringboot.entities.campaigns.CandidateCampaign;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CandidateCampaignRepository extends JpaRepository<CandidateCampaign, Long> {
+
+    @Modifying
+    @Query("DELETE FROM CandidateCampaign cc WHERE cc.campaign.id = :campaignId")
+    int deleteAllByCampaignId(@Param("campaignId") Long campaignId);
 }
@@ -2,6 +2,9 @@ package com.votopia.votopiabackendspringboot.repositories.campaigns;
 
 import com.votopia.votopiabackendspringboot.entities.campaigns.CandidatePositionCampaign;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Set;
@@ -9,4 +12,9 @@ import java.util.Set;
 @Repository
 public interface CandidatePositionCampaignRepository extends JpaRepository<CandidatePositionCampaign, Long> {
     Set<CandidatePositionCampaign> findAllByCandidateCampaignId(Long id);
+
+    @Modifying
+    @Query("DELETE FROM CandidatePositionCampaign cpc WHERE cpc.candidateCampaign.id IN " +
+            "(SELECT cc.id FROM CandidateCampaign cc WHERE cc.campaign.id = :campaignId)")
+    int deleteAllByCampaignId(@Param("campaignId") Long campaignId);
 }
@@ -1,9 +1,13 @@
 package com.votopia.votopiabackendspringboot.repositories.campaigns;
 
 import com.votopia.votopiabackendspringboot.entities.campaigns.Candidate;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Set;
 
 @Repository
@@ -11,4 +15,31 @@ public interface CandidateRepository extends JpaRepository<Candidate, Long> {
     boolean existsByUserIdAndListId(Long userId, Long listId);
 
     Set<Candidate> findAllByListId(Long listId);
+
+    // Read model dell'elenco candidati: utente e foto in join, i ruoli vengono letti a parte in blocco
+    interface CandidateRowView {
+        Long getId();
+        String getSchoolClass();
+        Long getUserId();
+        String getUserName();
+        String getUserSurname();
+        String getUserEmail();
+        Long getPhotoId();
+        String getPhotoName();
+        String getPhotoFilePath();
+        String getPhotoMimeType();
+    }
+
+    @Query("SELECT c.id AS id, c.schoolClass AS schoolClass, " +
+            "u.id AS userId, u.name AS userName, u.surname AS userSurname, u.email AS userEmail, " +
+            "p.id AS photoId, p.name AS photoName, p.filePath AS photoFilePath, p.mimeType AS photoMimeType " +
+            "FROM Candidate c JOIN c.user u LEFT JOIN c.photoFileId p WHERE c.list.id = :listId")
+    List<CandidateRowView> findCandidateRowsByListId(@Param("listId") Long listId);
+
+    @Query("SELECT c.id AS id, c.schoolClass AS schoolClass, " +
+            "u.id AS userId, u.name AS userName, u.surname AS userSurname, u.email AS userEmail, " +
+            "p.id AS photoId, p.name AS photoName, p.filePath AS photoFilePath, p.mimeType AS photoMimeType " +
+            "FROM Candidate c JOIN c.user u LEFT JOIN c.photoFileId p " +
+            "WHERE c.list.id = :listId AND c.id > :afterId ORDER BY c.id")
+    List<CandidateRowView> findCandidateRowsByListIdAfter(@Param("listId") Long listId, @Param("afterId") long afterId, Limit limit);
 }
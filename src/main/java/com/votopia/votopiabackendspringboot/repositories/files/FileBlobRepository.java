@@ -0,0 +1,29 @@
+package com.votopia.votopiabackendspringboot.repositories.files;
+
+import com.votopia.votopiabackendspringboot.entities.files.FileBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    /**
+     * Blob con lock di scrittura sulla riga: incrementi e decrementi del contatore dello stesso
+     * contenuto vengono serializzati.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM FileBlob b WHERE b.sha256 = :sha256")
+    Optional<FileBlob> findForUpdate(@Param("sha256") String sha256);
+
+    /**
+     * Blob con almeno un file che lo referenzia: le righe con contatore a zero restano solo come segnaposto.
+     */
+    @Query("SELECT COUNT(b) > 0 FROM FileBlob b WHERE b.sha256 = :sha256 AND b.refCount > 0")
+    boolean isReferenced(@Param("sha256") String sha256);
+}
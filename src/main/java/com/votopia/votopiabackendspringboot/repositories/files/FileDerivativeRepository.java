@@ -0,0 +1,22 @@
+package com.votopia.votopiabackendspringboot.repositories.files;
+
+import com.votopia.votopiabackendspringboot.entities.files.FileDerivative;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FileDerivativeRepository extends JpaRepository<FileDerivative, Long> {
+
+    List<FileDerivative> findAllBySourceSha256OrderByMaxSizeAsc(String sourceSha256);
+
+    boolean existsBySourceSha256(String sourceSha256);
+
+    @Modifying
+    @Query("DELETE FROM FileDerivative d WHERE d.sourceSha256 = :sourceSha256")
+    int deleteAllBySourceSha256(@Param("sourceSha256") String sourceSha256);
+}
@@ -5,6 +5,7 @@ import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
 
@@ -22,4 +23,6 @@ public interface ListRepository extends JpaRepository<List, Long> {
     Set<List> findAllByOrgId(Long orgId);
 
     Set<List> findAllByUsersIdAndOrgId(Long authUserId, Long orgId);
+
+    Set<List> findAllByIdInAndOrgId(Collection<Long> ids, Long orgId);
 }
@@ -2,7 +2,11 @@ package com.votopia.votopiabackendspringboot.repositories.organizations;
 
 import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -11,4 +15,13 @@ public interface OrganizationRepository extends JpaRepository<Organization, Long
     Optional<Organization> findOrganizationByCode(String code);
 
     Organization findOrganizationById(Long id);
+
+    @Query("SELECT o.dataVersion FROM Organization o WHERE o.id = :orgId")
+    Optional<Long> findDataVersionById(@Param("orgId") Long orgId);
+
+    // Aggiornamento atomico sul database: le modifiche concorrenti di più nodi non si perdono
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE organizations SET data_version = data_version + 1 WHERE id = :orgId", nativeQuery = true)
+    int incrementDataVersion(@Param("orgId") Long orgId);
 }
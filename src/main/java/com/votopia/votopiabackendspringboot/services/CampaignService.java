@@ -1,5 +1,6 @@
 package com.votopia.votopiabackendspringboot.services;
 
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignAddCandidateDto;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignCreateDto;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto;
@@ -13,6 +14,7 @@ import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import io.micrometer.common.lang.Nullable;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
 
@@ -62,6 +64,20 @@ public interface CampaignService {
      */
     Set<CampaignSummaryDto> getAll(@Nullable Long listId, Long authUserId);
 
+    /**
+     * Variante paginata (keyset) di {@link #getAll(Long, Long)}: stesse regole sui permessi,
+     * campagne ordinate per ID.
+     *
+     * @param cursor Cursore restituito dalla pagina precedente ({@code null} per la prima pagina).
+     * @param limit  Dimensione della pagina (default {@value CursorPage#DEFAULT_LIMIT}, massimo {@value CursorPage#MAX_LIMIT}).
+     */
+    CursorPage<CampaignSummaryDto> getPage(@Nullable Long listId, Long authUserId, @Nullable String cursor, @Nullable Integer limit);
+
+    /**
+     * Variante NDJSON di {@link #getAll(Long, Long)}: permessi verificati subito, righe scritte a blocchi.
+     */
+    StreamingResponseBody stream(@Nullable Long listId, Long authUserId);
+
     /**
      * Recupera i dettagli sintetici di una singola campagna previa verifica dei permessi di accesso.
      * <p>
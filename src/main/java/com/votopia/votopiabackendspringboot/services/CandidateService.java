@@ -1,10 +1,13 @@
 package com.votopia.votopiabackendspringboot.services;
 
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateCreateDto;
 import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateSummaryDto;
 import com.votopia.votopiabackendspringboot.exceptions.BadRequestException;
 import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
+import jakarta.annotation.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
 
@@ -45,4 +48,18 @@ public interface CandidateService {
      * @throws ForbiddenException Se l'utente non ha i permessi di visualizzazione necessari.
      */
     Set<CandidateSummaryDto> getAllByList(Long listId, Long authUserId);
+
+    /**
+     * Variante paginata (keyset) di {@link #getAllByList(Long, Long)}: stesse regole sui permessi,
+     * candidati ordinati per ID.
+     *
+     * @param cursor Cursore restituito dalla pagina precedente ({@code null} per la prima pagina).
+     * @param limit  Dimensione della pagina (default {@value CursorPage#DEFAULT_LIMIT}, massimo {@value CursorPage#MAX_LIMIT}).
+     */
+    CursorPage<CandidateSummaryDto> getPageByList(Long listId, Long authUserId, @Nullable String cursor, @Nullable Integer limit);
+
+    /**
+     * Variante NDJSON di {@link #getAllByList(Long, Long)}: permessi verificati subito, righe scritte a blocchi.
+     */
+    StreamingResponseBody streamByList(Long listId, Long authUserId);
 }
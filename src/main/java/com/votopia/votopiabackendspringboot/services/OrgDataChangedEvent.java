@@ -0,0 +1,11 @@
+package com.votopia.votopiabackendspringboot.services;
+
+/**
+ * Evento applicativo pubblicato dai metodi che modificano utenti, ruoli, liste o campagne di
+ * un'organizzazione. Dopo il commit la versione dei dati dell'organizzazione viene incrementata e
+ * gli ETag delle schermate di inizializzazione smettono di corrispondere.
+ *
+ * @param orgId ID dell'organizzazione i cui dati sono cambiati.
+ */
+public record OrgDataChangedEvent(Long orgId) {
+}
@@ -2,10 +2,22 @@ package com.votopia.votopiabackendspringboot.services.auth;
 
 import com.votopia.votopiabackendspringboot.entities.auth.User;
 
+import java.util.Optional;
+
 public interface JwtService {
     String generateToken(User user);
     String extractEmail(String token);
     Long extractUserId(String token);
     Long extractOrgId(String token);
     boolean isTokenValid(String token);
+
+    /**
+     * Verifica firma e scadenza del token con un unico parsing e restituisce i suoi claims.
+     * I token verificati di recente vengono serviti da una cache limitata (chiave: digest SHA-256 del token)
+     * che rispetta la scadenza, evitando HMAC e decodifica JSON per i client più attivi.
+     *
+     * @param token JWT compatto ricevuto nell'header {@code Authorization}.
+     * @return I claims verificati, oppure vuoto se il token è manomesso, scaduto o malformato.
+     */
+    Optional<VerifiedToken> verify(String token);
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.votopia.votopiabackendspringboot.services.auth;
+
+import java.util.Arrays;
+
+/**
+ * Insieme immutabile di permessi rappresentato come bitset: il bit {@code i} corrisponde
+ * al permesso con indice denso {@code i} assegnato dal registro dei permessi.
+ * <p>
+ * L'unione di più ruoli è un OR parola per parola e il controllo di un permesso è un singolo test di bit.
+ * Un indice negativo (permesso sconosciuto al registro) non è mai contenuto.
+ * </p>
+ */
+public final class PermissionBits {
+
+    public static final PermissionBits EMPTY = new PermissionBits(new long[0]);
+
+    private final long[] words;
+
+    private PermissionBits(long[] words) {
+        this.words = words;
+    }
+
+    public static PermissionBits of(int... indices) {
+        Builder builder = new Builder();
+        for (int index : indices) builder.set(index);
+        return builder.build();
+    }
+
+    public boolean has(int index) {
+        if (index < 0) return false;
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return {@code true} se ogni permesso di {@code other} è presente anche qui.
+     */
+    public boolean containsAll(PermissionBits other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long mine = i < words.length ? words[i] : 0L;
+            if ((other.words[i] & ~mine) != 0) return false;
+        }
+        return true;
+    }
+
+    public PermissionBits or(PermissionBits other) {
+        if (other.words.length == 0) return this;
+        if (words.length == 0) return other;
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] result = longer.clone();
+        for (int i = 0; i < shorter.length; i++) result[i] |= shorter[i];
+        return new PermissionBits(result);
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) count += Long.bitCount(word);
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PermissionBits other && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PermissionBits{");
+        for (int i = 0; i < words.length * 64; i++) {
+            if (has(i)) sb.append(sb.length() > 15 ? "," : "").append(i);
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Accumulatore mutabile, da usare durante la costruzione (es. caricamento della fotografia di un utente).
+     */
+    public static final class Builder {
+        private long[] words = new long[1];
+
+        public Builder set(int index) {
+            if (index < 0) return this;
+            int word = index >>> 6;
+            if (word >= words.length) words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            words[word] |= 1L << index;
+            return this;
+        }
+
+        public Builder or(PermissionBits bits) {
+            if (bits.words.length > words.length) words = Arrays.copyOf(words, bits.words.length);
+            for (int i = 0; i < bits.words.length; i++) words[i] |= bits.words[i];
+            return this;
+        }
+
+        /**
+         * Le parole a zero in coda vengono rimosse, così insiemi uguali hanno la stessa rappresentazione.
+         */
+        public PermissionBits build() {
+            int length = words.length;
+            while (length > 0 && words[length - 1] == 0) length--;
+            return length == 0 ? EMPTY : new PermissionBits(Arrays.copyOf(words, length));
+        }
+    }
+}
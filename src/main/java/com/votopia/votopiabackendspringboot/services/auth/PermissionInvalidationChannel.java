@@ -0,0 +1,27 @@
+package com.votopia.votopiabackendspringboot.services.auth;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Canale di diffusione delle invalidazioni dei permessi tra i nodi del backend.
+ * <p>
+ * Ogni nodo si iscrive al canale e, alla ricezione di un messaggio, rimuove dalla propria cache
+ * gli utenti indicati. Il messaggio viene consegnato anche al nodo che lo ha pubblicato.
+ * {@code votopia.permissions.cache.channel} sceglie l'implementazione: {@code in-process} (predefinita, un solo
+ * nodo e test) oppure {@code database}, obbligatoria con più nodi: le invalidazioni passano dalla tabella
+ * {@code permission_invalidations} del database condiviso.
+ * </p>
+ */
+public interface PermissionInvalidationChannel {
+
+    /**
+     * Diffonde a tutti i nodi iscritti gli ID degli utenti da invalidare.
+     */
+    void publish(Set<Long> userIds);
+
+    /**
+     * Registra un ascoltatore che riceverà ogni invalidazione pubblicata sul canale.
+     */
+    void subscribe(Consumer<Set<Long>> listener);
+}
@@ -40,4 +40,18 @@ public interface PermissionService {
     boolean checkSharedLists(Long authUserId, Long targetUserId, String permissionCode);
 
     void validatePermission(Long authUserId, Long listId, String orgPerm, String listPerm, String errorMsg);
+
+    /**
+     * Carica con una sola query tutti i permessi (di organizzazione e di lista) dell'utente
+     * e li rende disponibili per il resto della richiesta HTTP corrente.
+     * Da quel momento {@link #hasPermission}, {@link #hasPermissionOnList}, {@link #checkSharedLists}
+     * e {@link #validatePermission} rispondono in memoria per quell'utente.
+     */
+    PermissionSnapshot loadSnapshot(Long userId);
+
+    /**
+     * Verifica che l'utente possieda, tramite un qualsiasi ruolo, tutti i permessi con gli ID indicati.
+     * Un ID inesistente non è mai posseduto.
+     */
+    boolean hasAllPermissions(Long userId, Set<Long> permissionIds);
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.votopia.votopiabackendspringboot.services.auth;
+
+import com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fotografia immutabile dei permessi di un utente, caricata una sola volta per richiesta.
+ * <p>
+ * Contiene sia i permessi ottenuti dai ruoli di organizzazione sia quelli dei ruoli di lista,
+ * così che {@link PermissionService} possa rispondere ai controlli senza interrogare il database.
+ * I permessi sono maschere di bit sugli indici densi del registro dei permessi: ogni controllo
+ * è un singolo test di bit.
+ * </p>
+ *
+ * @param userId          ID dell'utente a cui si riferisce la fotografia.
+ * @param permissions     Tutti i permessi dell'utente, indipendentemente dal contesto del ruolo.
+ * @param orgPermissions  Permessi derivanti dai ruoli a livello organizzazione.
+ * @param listPermissions Permessi derivanti dai ruoli di lista, indicizzati per ID lista.
+ */
+public record PermissionSnapshot(
+        Long userId,
+        PermissionBits permissions,
+        PermissionBits orgPermissions,
+        Map<Long, PermissionBits> listPermissions
+) {
+    public PermissionSnapshot {
+        listPermissions = Map.copyOf(listPermissions);
+    }
+
+    /**
+     * Costruisce la fotografia a partire dalle coppie (lista, permesso) restituite dal repository.
+     *
+     * @param indexOf Indice denso di un permesso dato il nome (tipicamente il registro dei permessi).
+     */
+    public static PermissionSnapshot of(Long userId, Collection<PermissionGrantDto> grants, ToIntFunction<String> indexOf) {
+        PermissionBits.Builder all = new PermissionBits.Builder();
+        PermissionBits.Builder org = new PermissionBits.Builder();
+        Map<Long, PermissionBits.Builder> byList = new HashMap<>();
+
+        for (PermissionGrantDto grant : grants) {
+            int index = indexOf.applyAsInt(grant.permissionName());
+            all.set(index);
+            if (grant.listId() == null) {
+                org.set(index);
+            } else {
+                byList.computeIfAbsent(grant.listId(), id -> new PermissionBits.Builder()).set(index);
+            }
+        }
+
+        Map<Long, PermissionBits> frozen = new HashMap<>();
+        byList.forEach((listId, bits) -> frozen.put(listId, bits.build()));
+        return new PermissionSnapshot(userId, all.build(), org.build(), frozen);
+    }
+
+    /**
+     * Stessa semantica di {@code UserRepository.hasPermission}: basta che un qualsiasi ruolo conceda il permesso.
+     */
+    public boolean hasPermission(int permissionIndex) {
+        return permissions.has(permissionIndex);
+    }
+
+    /**
+     * Stessa semantica del controllo storico: solo i ruoli legati alla lista indicata vengono considerati.
+     */
+    public boolean hasPermissionOnList(Long listId, int permissionIndex) {
+        PermissionBits bits = listPermissions.get(listId);
+        return bits != null && bits.has(permissionIndex);
+    }
+}
@@ -0,0 +1,16 @@
+package com.votopia.votopiabackendspringboot.services.auth;
+
+import java.util.Set;
+
+/**
+ * Evento applicativo pubblicato quando ruoli, permessi dei ruoli o appartenenze alle liste
+ * cambiano per un insieme di utenti. Le cache dei permessi invalidano solo questi utenti
+ * dopo il commit della transazione.
+ *
+ * @param userIds ID degli utenti i cui permessi effettivi potrebbero essere cambiati.
+ */
+public record PermissionsChangedEvent(Set<Long> userIds) {
+    public PermissionsChangedEvent {
+        userIds = Set.copyOf(userIds);
+    }
+}
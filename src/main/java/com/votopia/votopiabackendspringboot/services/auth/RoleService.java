@@ -1,5 +1,6 @@
 package com.votopia.votopiabackendspringboot.services.auth;
 
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleInfoResponse;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleCreateDto;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleOptionDto;
@@ -9,6 +10,7 @@ import com.votopia.votopiabackendspringboot.dtos.role.RolesScreenInitDto;
 import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import io.micrometer.common.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
 
@@ -92,6 +94,20 @@ public interface RoleService {
      */
     Set<RoleSummaryDto> getAllVisible(Long authUserId, @Nullable Long listId);
 
+    /**
+     * Variante paginata (keyset) di {@link #getAllVisible(Long, Long)}: stesse regole sui permessi,
+     * ruoli ordinati per ID.
+     *
+     * @param cursor Cursore restituito dalla pagina precedente ({@code null} per la prima pagina).
+     * @param limit  Dimensione della pagina (default {@value CursorPage#DEFAULT_LIMIT}, massimo {@value CursorPage#MAX_LIMIT}).
+     */
+    CursorPage<RoleSummaryDto> getVisiblePage(Long authUserId, @Nullable Long listId, @Nullable String cursor, @Nullable Integer limit);
+
+    /**
+     * Variante NDJSON di {@link #getAllVisible(Long, Long)}: permessi verificati subito, righe scritte a blocchi.
+     */
+    StreamingResponseBody streamVisible(Long authUserId, @Nullable Long listId);
+
     /**
      * Fornisce informazioni dettagliate su un ruolo specifico o sui ruoli dell'utente corrente.
      * <p>
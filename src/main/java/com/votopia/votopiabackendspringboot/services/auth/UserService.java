@@ -1,14 +1,17 @@
 package com.votopia.votopiabackendspringboot.services.auth;
 
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.list.ListOptionDto;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleOptionDto;
 import com.votopia.votopiabackendspringboot.dtos.user.*;
+import com.votopia.votopiabackendspringboot.exceptions.BadRequestException;
 import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import com.votopia.votopiabackendspringboot.exceptions.ConflictException;
 import jakarta.annotation.Nullable;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.util.Set;
 
 public interface UserService {
@@ -76,6 +79,22 @@ public interface UserService {
      */
     Set<UserDetailDto> getAllVisibleUsers(Long authUserId, @Nullable Long listId);
 
+    /**
+     * Variante paginata (keyset) di {@link #getAllVisibleUsers(Long, Long)}: stesse regole sui permessi,
+     * utenti ordinati per ID.
+     *
+     * @param cursor Cursore restituito dalla pagina precedente ({@code null} per la prima pagina).
+     * @param limit  Dimensione della pagina (default {@value CursorPage#DEFAULT_LIMIT}, massimo {@value CursorPage#MAX_LIMIT}).
+     * @throws BadRequestException Se il cursore non è valido.
+     */
+    CursorPage<UserDetailDto> getVisibleUsersPage(Long authUserId, @Nullable Long listId, @Nullable String cursor, @Nullable Integer limit);
+
+    /**
+     * Variante NDJSON di {@link #getAllVisibleUsers(Long, Long)}: i permessi vengono verificati subito,
+     * le righe vengono scritte sulla risposta man mano che vengono lette, a blocchi.
+     */
+    StreamingResponseBody streamVisibleUsers(Long authUserId, @Nullable Long listId);
+
     /**
      * Esegue la cancellazione logica (soft delete) di un utente nel sistema.
      * <p>
@@ -116,11 +135,43 @@ public interface UserService {
 
     Set<UserSummaryDto> registerListUsers(Set<UserCreateDto> users, Long authUserId);
 
+    /**
+     * Importa utenti da un file XLSX o CSV (colonne NOME, COGNOME, EMAIL, PASSWORD nella prima riga).
+     * <p>
+     * Il file viene letto in streaming, riga per riga; le righe valide vengono registrate a blocchi,
+     * ciascuno nella propria transazione, e quelle scartate finiscono nel report con il motivo.
+     * Liste e ruoli indicati valgono per tutti gli utenti del file.
+     * </p>
+     *
+     * @param file       File caricato (.xlsx o .csv).
+     * @param listsId    Liste a cui associare gli utenti (esattamente una senza permesso a livello organizzazione).
+     * @param rolesId    Ruoli da assegnare agli utenti.
+     * @param authUserId ID dell'utente autenticato.
+     * @return Report con i conteggi e gli errori per riga.
+     * @throws ForbiddenException  Se l'utente non può creare utenti nelle liste indicate (HTTP 403).
+     * @throws BadRequestException Se il formato o l'intestazione del file non sono validi (HTTP 400).
+     */
+    UserImportReportDto importUsersFromFile(MultipartFile file, @Nullable Set<Long> listsId,
+                                            @Nullable Set<Long> rolesId, Long authUserId);
+
     Set<UserSummaryDto> updateListUsers(Set<UserUpdateDto> users, Long authUserId);
 
     void deleteList(Set<Long> targetUsers, Long authUserId);
 
-    ByteArrayInputStream createExcelAllVisibleUsers(Long authUserId, @Nullable Long targetListId);
+    /**
+     * Prepara l'export Excel degli utenti visibili (cognome, nome, email) scritto in streaming sulla risposta.
+     * <p>
+     * I permessi vengono verificati subito, sul thread della richiesta. Il corpo restituito apre una
+     * transazione in sola lettura, legge le righe con un cursore e le scrive con SXSSF (finestra di righe
+     * fissa, larghezze colonne predefinite): la memoria usata non dipende dal numero di utenti.
+     * </p>
+     *
+     * @param authUserId   ID dell'utente autenticato.
+     * @param targetListId Lista da esportare se l'utente non ha il permesso a livello organizzazione.
+     * @return Corpo della risposta da scrivere sull'{@code OutputStream} HTTP.
+     * @throws ForbiddenException Se l'utente non può visualizzare gli utenti richiesti (HTTP 403).
+     */
+    StreamingResponseBody createExcelAllVisibleUsers(Long authUserId, @Nullable Long targetListId);
 
     /**
      * Restituisce le liste assegnabili all'utente durante la creazione, in base ai permessi.
@@ -0,0 +1,16 @@
+package com.votopia.votopiabackendspringboot.services.auth;
+
+import java.util.Set;
+
+/**
+ * Evento applicativo pubblicato quando uno o più utenti vengono eliminati (soft-delete).
+ * Dopo il commit il registro locale degli utenti eliminati li segna subito come revocati,
+ * senza attendere il successivo aggiornamento periodico.
+ *
+ * @param userIds ID degli utenti eliminati.
+ */
+public record UsersDeletedEvent(Set<Long> userIds) {
+    public UsersDeletedEvent {
+        userIds = Set.copyOf(userIds);
+    }
+}
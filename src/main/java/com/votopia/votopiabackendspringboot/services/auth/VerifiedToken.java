@@ -0,0 +1,23 @@
+package com.votopia.votopiabackendspringboot.services.auth;
+
+import java.time.Instant;
+
+/**
+ * Claims immutabili di un JWT già verificato (firma HMAC e scadenza).
+ * Viene prodotto una sola volta per richiesta da {@link JwtService#verify(String)}.
+ *
+ * @param email     Subject del token.
+ * @param userId    Claim {@code userId}.
+ * @param orgId     Claim {@code orgId}.
+ * @param expiresAt Istante di scadenza del token.
+ */
+public record VerifiedToken(
+        String email,
+        Long userId,
+        Long orgId,
+        Instant expiresAt
+) {
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
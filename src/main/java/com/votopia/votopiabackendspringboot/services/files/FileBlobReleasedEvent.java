@@ -0,0 +1,11 @@
+package com.votopia.votopiabackendspringboot.services.files;
+
+/**
+ * Evento pubblicato quando l'ultimo file che referenziava un blob viene eliminato:
+ * il contenuto fisico viene rimosso solo dopo il commit della transazione.
+ *
+ * @param sha256      Impronta del blob rilasciato.
+ * @param storagePath Percorso del blob nello storage.
+ */
+public record FileBlobReleasedEvent(String sha256, String storagePath) {
+}
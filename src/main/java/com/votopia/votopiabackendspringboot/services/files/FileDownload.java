@@ -0,0 +1,20 @@
+package com.votopia.votopiabackendspringboot.services.files;
+
+/**
+ * Metadati necessari per servire un file autorizzato, letti dal database senza accedere allo storage:
+ * il confronto con {@code If-None-Match} può quindi rispondere 304 senza toccare il disco.
+ *
+ * @param name        Nome originale del file.
+ * @param mimeType    Tipo MIME registrato all'upload.
+ * @param storagePath Percorso logico nello storage.
+ * @param etag        ETag forte (tra virgolette): lo SHA-256 del contenuto quando noto.
+ * @param immutable   {@code true} per i blob indirizzati per contenuto, che non cambiano mai.
+ */
+public record FileDownload(
+        String name,
+        String mimeType,
+        String storagePath,
+        String etag,
+        boolean immutable
+) {
+}
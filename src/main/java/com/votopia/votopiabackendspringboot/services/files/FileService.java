@@ -18,7 +18,7 @@ public interface FileService {
      * - Per caricamenti a livello Org: richiede {@code add_file_organization}.
      * - Per caricamenti su una Lista: richiede {@code add_file_organization} o il permesso locale {@code add_file_list}.
      * </li>
-     * <li><b>Storage:</b> Genera un nome file univoco tramite {@link java.util.UUID} per prevenire sovrascritture.</li>
+     * <li><b>Storage:</b> Il contenuto è salvato per impronta SHA-256: file identici condividono un solo blob.</li>
      * <li><b>Organizzazione:</b> Garantisce che il file sia isolato nel percorso dell'organizzazione dell'utente.</li>
      * </ul>
      * </p>
@@ -55,4 +55,23 @@ public interface FileService {
      * @throws ForbiddenException Se l'utente non ha i permessi o tenta di accedere a file di altre Org.
      */
     void deleteFile(Long fileId, Long authUserId);
+
+    /**
+     * Verifica che l'utente possa scaricare il file e ne restituisce i metadati per il download.
+     * <p>
+     * Stessi controlli di {@link #deleteFile(Long, Long)} per l'organizzazione; per la lettura basta essere
+     * membri della lista del file (o poterlo gestire). I file di organizzazione sono visibili a tutti i membri.
+     * <p>
+     * Per le immagini si può chiedere una miniatura con {@code size}: viene scelta la più piccola derivata
+     * con lato massimo almeno pari, altrimenti (derivate non ancora pronte) l'originale.
+     * </p>
+     *
+     * @param fileId     ID del file da scaricare.
+     * @param size       (Opzionale) Lato massimo desiderato in pixel, solo per le immagini.
+     * @param authUserId ID dell'utente che richiede il download.
+     * @return           Un {@link FileDownload} con percorso, tipo ed ETag del file.
+     * @throws NotFoundException  Se il file non esiste.
+     * @throws ForbiddenException Se il file appartiene a un'altra Org o a una lista di cui l'utente non fa parte.
+     */
+    FileDownload prepareDownload(Long fileId, @Nullable Integer size, Long authUserId);
 }
@@ -0,0 +1,13 @@
+package com.votopia.votopiabackendspringboot.services.files;
+
+/**
+ * Evento pubblicato quando un file è stato caricato; gli elaborati in background (es. miniature
+ * delle immagini) partono solo dopo il commit della transazione.
+ *
+ * @param fileId      ID della riga {@code files}.
+ * @param sha256      Impronta del contenuto.
+ * @param storagePath Percorso del contenuto nello storage.
+ * @param mimeType    Tipo MIME dichiarato all'upload.
+ */
+public record FileUploadedEvent(Long fileId, String sha256, String storagePath, String mimeType) {
+}
@@ -0,0 +1,61 @@
+package com.votopia.votopiabackendspringboot.services.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Backend fisico dello storage: un archivio chiave → oggetto (filesystem locale, S3 o compatibili).
+ * <p>
+ * Le chiavi sono i percorsi logici usati a DB (es. {@code blobs/ab/cd/abcd...}). Letture e scritture sono
+ * sempre in streaming; il backend viene scelto con {@code storage.backend}. Hashing, staging e indirizzamento
+ * per contenuto restano in {@link StorageService}, indipendenti dal backend.
+ * </p>
+ */
+public interface ObjectStore {
+
+    /**
+     * Metadati di un oggetto.
+     *
+     * @param key          Chiave (percorso logico).
+     * @param size         Dimensione in byte.
+     * @param lastModified Istante dell'ultima scrittura.
+     */
+    record ObjectInfo(String key, long size, Instant lastModified) {}
+
+    /**
+     * Scrive l'oggetto leggendo il file locale indicato, che il backend può consumare (es. spostarlo):
+     * il chiamante non deve più usarlo dopo la chiamata. L'oggetto diventa visibile solo a scrittura completa.
+     */
+    void put(String key, Path source, long size) throws IOException;
+
+    /**
+     * Stream del contenuto tra {@code start} e {@code end} inclusi ({@code end < 0}: fino alla fine).
+     */
+    InputStream get(String key, long start, long end) throws IOException;
+
+    Optional<ObjectInfo> head(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Oggetti con chiave che inizia per {@code prefix}, in ordine di chiave.
+     */
+    List<ObjectInfo> list(String prefix) throws IOException;
+
+    /**
+     * "Sottocartelle" immediate di {@code prefix} (con "/" finale), in ordine. Le chiavi che iniziano per
+     * "." al primo livello sono interne (es. staging) e non vengono restituite.
+     */
+    List<String> listPrefixes(String prefix) throws IOException;
+
+    /**
+     * Percorso su disco dell'oggetto, solo per i backend locali (es. per servirlo con sendfile).
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,16 @@
+package com.votopia.votopiabackendspringboot.services.files;
+
+/**
+ * Contenuto già scritto nell'area di staging dello storage ma non ancora pubblicato:
+ * dimensione e impronta sono note prima di decidere dove (e se) salvarlo.
+ *
+ * @param stagingId Identificativo opaco del file in staging, valido solo per lo storage che lo ha creato.
+ * @param size      Dimensione in byte.
+ * @param sha256    Impronta SHA-256 del contenuto, in esadecimale minuscolo.
+ */
+public record StagedObject(
+        String stagingId,
+        long size,
+        String sha256
+) {
+}
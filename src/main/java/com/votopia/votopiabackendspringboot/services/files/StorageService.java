@@ -1,13 +1,83 @@
 package com.votopia.votopiabackendspringboot.services.files;
 
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
 public interface StorageService {
     /**
      * Salva i byte di un file nel percorso specificato.
      */
     void save(byte[] content, String filePath);
 
+    /**
+     * Salva il contenuto letto dallo stream nel percorso specificato, a blocchi e senza mai tenerlo
+     * interamente in memoria. Il file compare nel percorso finale solo a scrittura completata.
+     *
+     * @return Percorso, dimensione e SHA-256 calcolati durante la copia.
+     */
+    StoredObject save(InputStream content, String filePath) throws IOException;
+
+    /**
+     * Salva un file caricato in multipart: il file temporaneo già scritto dal container viene spostato
+     * (rinominato se sullo stesso filesystem) invece di essere copiato in memoria.
+     *
+     * @return Percorso, dimensione e SHA-256 del file salvato.
+     */
+    StoredObject save(MultipartFile file, String filePath) throws IOException;
+
+    /**
+     * Scrive il contenuto nell'area di staging calcolandone dimensione e SHA-256, senza pubblicarlo.
+     * Il risultato va poi passato a {@link #publishBlob(StagedObject)} oppure a {@link #discard(StagedObject)}.
+     */
+    StagedObject stage(InputStream content) throws IOException;
+
+    /**
+     * Come {@link #stage(InputStream)}, spostando il file temporaneo del multipart invece di copiarlo.
+     */
+    StagedObject stage(MultipartFile file) throws IOException;
+
+    /**
+     * Pubblica il contenuto in staging nello spazio indirizzato per contenuto ({@link #blobPath(String)}).
+     * Il contenuto viene sempre scritto: decidere se un blob è già presente spetta al chiamante, che conosce
+     * i riferimenti (vedi {@code FileBlobStore}).
+     *
+     * @return Percorso del blob, dimensione e SHA-256.
+     */
+    StoredObject publishBlob(StagedObject staged) throws IOException;
+
+    /**
+     * Scarta un contenuto in staging non più necessario; non fa nulla se è già stato pubblicato.
+     */
+    void discard(StagedObject staged);
+
+    /**
+     * Percorso logico del blob con l'impronta indicata.
+     */
+    String blobPath(String sha256);
+
+    /**
+     * Percorso su disco del file, per servirlo direttamente dal filesystem (es. sendfile).
+     * Vuoto se il backend non è locale.
+     */
+    Optional<Path> localPath(String filePath);
+
+    /**
+     * Stream del contenuto tra {@code start} e {@code end} inclusi ({@code end < 0}: fino alla fine),
+     * qualunque sia il backend.
+     */
+    InputStream open(String filePath, long start, long end) throws IOException;
+
+    /**
+     * Dimensione e data di modifica del file, vuoto se non esiste.
+     */
+    Optional<ObjectStore.ObjectInfo> stat(String filePath) throws IOException;
+
     /**
      * Elimina un file fisicamente dal supporto.
      */
     void delete(String filePath);
-}
\ No newline at end of file
+}
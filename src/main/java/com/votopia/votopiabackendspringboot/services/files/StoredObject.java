@@ -0,0 +1,15 @@
+package com.votopia.votopiabackendspringboot.services.files;
+
+/**
+ * Esito di un salvataggio sullo storage, calcolato durante la scrittura senza rileggere il file.
+ *
+ * @param path   Percorso logico con cui il file è stato salvato.
+ * @param size   Dimensione in byte.
+ * @param sha256 Impronta SHA-256 del contenuto, in esadecimale minuscolo.
+ */
+public record StoredObject(
+        String path,
+        long size,
+        String sha256
+) {
+}
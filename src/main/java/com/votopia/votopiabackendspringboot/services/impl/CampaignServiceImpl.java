@@ -1,5 +1,6 @@
 package com.votopia.votopiabackendspringboot.services.impl;
 
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignAddCandidateDto;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignCreateDto;
 import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto;
@@ -17,18 +18,22 @@ import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import com.votopia.votopiabackendspringboot.repositories.campaigns.*;
 import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
 import com.votopia.votopiabackendspringboot.services.CampaignService;
+import com.votopia.votopiabackendspringboot.services.OrgDataChangedEvent;
 import com.votopia.votopiabackendspringboot.services.auth.AuthService;
 import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.log.AuditAction;
+import com.votopia.votopiabackendspringboot.services.log.AuditService;
 import io.micrometer.common.lang.Nullable;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Implementazione del servizio CampaignService.
@@ -46,6 +51,10 @@ public class CampaignServiceImpl implements CampaignService {
     @Autowired private PositionRepository positionRepository;
     @Autowired private CandidateCampaignRepository candidateCampaignRepository;
     @Autowired private AuthService authService;
+    @Autowired private AuditService auditService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private ListingReadModel listingReadModel;
+    @Autowired private NdjsonStreamer ndjsonStreamer;
 
     @Override
     @Transactional
@@ -75,6 +84,8 @@ public class CampaignServiceImpl implements CampaignService {
         try {
             Campaign saved = campaignRepository.save(campaign);
             log.info("Campagna creata: {} per la lista: {}", saved.getName(), listTarget.getName());
+            auditService.record(AuditAction.CAMPAIGN_CREATE, authUserId, "Campagna creata: ID " + saved.getId());
+            eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
             return new CampaignSummaryDto(saved);
         } catch (DataIntegrityViolationException e) {
             throw new ConflictException("Errore di integrità: una campagna con questo nome potrebbe già esistere.");
@@ -84,26 +95,23 @@ public class CampaignServiceImpl implements CampaignService {
     @Override
     @Transactional(readOnly = true)
     public Set<CampaignSummaryDto> getAll(@Nullable Long listId, Long authUserId) {
-        User authUser = authService.getAuthenticatedUser(authUserId);
-        Long orgId = authUser.getOrg().getId();
-
-        boolean canOrg = permissionService.hasPermission(authUserId, "view_all_campaign_organization");
-
-        if (listId == null) {
-            if (!canOrg) throw new ForbiddenException("Devi specificare una lista o avere permessi globali.");
-            return campaignRepository.findAllByListOrgId(orgId).stream()
-                    .map(CampaignSummaryDto::new).collect(Collectors.toSet());
-        }
-
-        listRepository.findByIdAndOrgId(listId, orgId)
-                .orElseThrow(() -> new NotFoundException("Lista non trovata nella tua Organizzazione"));
+        ListingReadModel.Scope scope = resolveVisibleScope(listId, authUserId);
+        return scope.isList() ? listingReadModel.campaignsOfList(scope.listId()) : listingReadModel.campaignsOfOrg(scope.orgId());
+    }
 
-        if (canOrg || permissionService.hasPermissionOnList(authUserId, listId, "view_all_campaign_list")) {
-            return campaignRepository.findAllByListId(listId).stream()
-                    .map(CampaignSummaryDto::new).collect(Collectors.toSet());
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CampaignSummaryDto> getPage(@Nullable Long listId, Long authUserId, @Nullable String cursor, @Nullable Integer limit) {
+        ListingReadModel.Scope scope = resolveVisibleScope(listId, authUserId);
+        int pageSize = CursorPage.clampLimit(limit);
+        return CursorPage.of(listingReadModel.campaignsAfter(scope, CursorPage.decode(cursor), pageSize + 1), pageSize, CampaignSummaryDto::id);
+    }
 
-        throw new ForbiddenException("Non hai i permessi per vedere le campagne di questa lista.");
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody stream(@Nullable Long listId, Long authUserId) {
+        ListingReadModel.Scope scope = resolveVisibleScope(listId, authUserId);
+        return ndjsonStreamer.stream((afterId, limit) -> listingReadModel.campaignsAfter(scope, afterId, limit), CampaignSummaryDto::id);
     }
 
     @Override
@@ -153,6 +161,9 @@ public class CampaignServiceImpl implements CampaignService {
         }
 
         campaignRepository.save(campaign);
+        auditService.record(AuditAction.CAMPAIGN_CANDIDATE_ADD, authUserId,
+                "Candidato ID " + dto.candidateId() + " aggiunto alla campagna ID " + campaign.getId());
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
     }
 
     @Override
@@ -174,6 +185,9 @@ public class CampaignServiceImpl implements CampaignService {
 
         campaign.removeCandidate(toRemove);
         campaignRepository.save(campaign);
+        auditService.record(AuditAction.CAMPAIGN_CANDIDATE_REMOVE, authUserId,
+                "Candidato ID " + candidateId + " rimosso dalla campagna ID " + campaignId);
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
     }
 
     @Override
@@ -186,18 +200,14 @@ public class CampaignServiceImpl implements CampaignService {
                 "delete_campaign_organization", "delete_campaign_list",
                 "Non hai i permessi necessari per eliminare questa campagna");
 
-        Set<CandidateCampaign> ccs = campaign.getCandidateCampaigns();
-        Set<CandidatePositionCampaign> cpcs = ccs.stream()
-                .map(cc -> candidatePositionCampaignRepository.findAllByCandidateCampaignId(cc.getId()))
-                .flatMap(Set::stream).collect(Collectors.toSet());
-
-        if (!cpcs.isEmpty()) candidatePositionCampaignRepository.deleteAll(cpcs);
-        if (!ccs.isEmpty()) {
-            candidateCampaignRepository.deleteAll(ccs);
-            campaign.getCandidateCampaigns().clear();
-        }
+        // Posizioni e candidature eliminate con due DELETE, non una query (e una DELETE) per candidato.
+        // La collezione candidateCampaigns non è ancora caricata: la cascata della delete la troverà vuota
+        candidatePositionCampaignRepository.deleteAllByCampaignId(campaignId);
+        candidateCampaignRepository.deleteAllByCampaignId(campaignId);
 
         campaignRepository.delete(campaign);
+        auditService.record(AuditAction.CAMPAIGN_DELETE, authUserId, "Campagna eliminata: ID " + campaignId);
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
     }
 
     @Override
@@ -216,11 +226,34 @@ public class CampaignServiceImpl implements CampaignService {
         if (dto.endDate() != null) campaign.setEndDate(dto.endDate());
         if (dto.startDate() != null) campaign.setStartDate(dto.startDate());
 
+        auditService.record(AuditAction.CAMPAIGN_UPDATE, authUserId, "Campagna modificata: ID " + campaign.getId());
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
         return new CampaignSummaryDto(campaignRepository.save(campaign));
     }
 
     // --- METODI PRIVATI DI UTILITY (HELPERS) ---
 
+    private ListingReadModel.Scope resolveVisibleScope(@Nullable Long listId, Long authUserId) {
+        User authUser = authService.getAuthenticatedUser(authUserId);
+        Long orgId = authUser.getOrg().getId();
+
+        boolean canOrg = permissionService.hasPermission(authUserId, "view_all_campaign_organization");
+
+        if (listId == null) {
+            if (!canOrg) throw new ForbiddenException("Devi specificare una lista o avere permessi globali.");
+            return ListingReadModel.Scope.org(orgId);
+        }
+
+        listRepository.findByIdAndOrgId(listId, orgId)
+                .orElseThrow(() -> new NotFoundException("Lista non trovata nella tua Organizzazione"));
+
+        if (canOrg || permissionService.hasPermissionOnList(authUserId, listId, "view_all_campaign_list")) {
+            return ListingReadModel.Scope.list(listId);
+        }
+
+        throw new ForbiddenException("Non hai i permessi per vedere le campagne di questa lista.");
+    }
+
     private Campaign getCampaignAndValidateOrg(Long campaignId, User authUser) {
         Campaign campaign = campaignRepository.findById(campaignId)
                 .orElseThrow(() -> new NotFoundException("Campagna non trovata"));
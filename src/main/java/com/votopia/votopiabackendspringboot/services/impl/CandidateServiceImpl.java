@@ -1,5 +1,6 @@
 package com.votopia.votopiabackendspringboot.services.impl;
 
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateCreateDto;
 import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateSummaryDto;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
@@ -16,13 +17,14 @@ import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
 import com.votopia.votopiabackendspringboot.services.CandidateService;
 import com.votopia.votopiabackendspringboot.services.auth.AuthService;
 import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -33,6 +35,8 @@ public class CandidateServiceImpl implements CandidateService {
     @Autowired private PermissionService permissionService;
     @Autowired private ListRepository listRepository;
     @Autowired private FileRepository fileRepository;
+    @Autowired private ListingReadModel listingReadModel;
+    @Autowired private NdjsonStreamer ndjsonStreamer;
 
     @Override
     @Transactional
@@ -68,15 +72,29 @@ public class CandidateServiceImpl implements CandidateService {
     @Override
     @Transactional
     public Set<CandidateSummaryDto> getAllByList(Long listId, Long authUserId){
+        validateListAccess(listId, authUserId);
+        return listingReadModel.candidatesOfList(listId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CandidateSummaryDto> getPageByList(Long listId, Long authUserId, @Nullable String cursor, @Nullable Integer limit) {
+        validateListAccess(listId, authUserId);
+        int pageSize = CursorPage.clampLimit(limit);
+        return CursorPage.of(listingReadModel.candidatesOfListAfter(listId, CursorPage.decode(cursor), pageSize + 1), pageSize, CandidateSummaryDto::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamByList(Long listId, Long authUserId) {
+        validateListAccess(listId, authUserId);
+        return ndjsonStreamer.stream((afterId, limit) -> listingReadModel.candidatesOfListAfter(listId, afterId, limit), CandidateSummaryDto::id);
+    }
+
+    private void validateListAccess(Long listId, Long authUserId) {
         User user = authService.getAuthenticatedUser(authUserId);
-        List listTarget = listRepository.findByIdAndOrgId(listId, user.getOrg().getId())
+        listRepository.findByIdAndOrgId(listId, user.getOrg().getId())
                 .orElseThrow(() -> new NotFoundException("Lista non trovata nell'organizzazione"));
         permissionService.validatePermission(authUserId, listId, "view_all_candidate_organization", "view_all_candidate_list", "Non hai i permessi per vedere tutti i candidati");
-
-        Set<Candidate> candidates = candidateRepository.findAllByListId(listId);
-
-        return candidates.stream()
-                .map(CandidateSummaryDto::new)
-                .collect(Collectors.toSet());
     }
 }
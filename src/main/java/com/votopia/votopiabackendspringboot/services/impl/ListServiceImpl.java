@@ -13,11 +13,13 @@ import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
 import com.votopia.votopiabackendspringboot.services.ListService;
+import com.votopia.votopiabackendspringboot.services.OrgDataChangedEvent;
 import com.votopia.votopiabackendspringboot.services.auth.AuthService;
 import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
@@ -36,6 +38,7 @@ public class ListServiceImpl implements ListService {
     @Autowired private ListRepository listRepository;
     @Autowired private AuthService authService; // Centralizzato per recupero utente
     @Autowired private PermissionService permissionService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     private static final Pattern HEX_COLOR_PATTERN = Pattern.compile("^#([A-Fa-f0-9]{6})$");
 
@@ -71,6 +74,7 @@ public class ListServiceImpl implements ListService {
         try {
             List savedList = listRepository.save(newList);
             log.info("Nuova lista creata: {} per l'Org: {}", savedList.getName(), org.getName());
+            eventPublisher.publishEvent(new OrgDataChangedEvent(org.getId()));
             return new ListSummaryDto(savedList);
         } catch (DataIntegrityViolationException e) {
             throw new ConflictException("Una lista con questo nome esiste già nella tua Organizzazione.");
@@ -113,6 +117,7 @@ public class ListServiceImpl implements ListService {
         try {
             List savedList = listRepository.save(listTarget);
             log.info("Lista aggiornata: {} (ID: {})", savedList.getName(), savedList.getId());
+            eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
             return new ListSummaryDto(savedList);
         } catch (DataIntegrityViolationException e) {
             throw new ConflictException("Una lista con questo nome esiste già nella tua Organizzazione.");
@@ -0,0 +1,201 @@
+package com.votopia.votopiabackendspringboot.services.impl;
+
+import com.votopia.votopiabackendspringboot.dtos.campaign.CampaignSummaryDto;
+import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateSummaryDto;
+import com.votopia.votopiabackendspringboot.dtos.file.FileSummaryDto;
+import com.votopia.votopiabackendspringboot.dtos.list.ListSummaryDto;
+import com.votopia.votopiabackendspringboot.dtos.role.RoleSummaryDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserDetailDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserSummaryDto;
+import com.votopia.votopiabackendspringboot.repositories.auth.RoleRepository;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import com.votopia.votopiabackendspringboot.repositories.campaigns.CampaignRepository;
+import com.votopia.votopiabackendspringboot.repositories.campaigns.CandidateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read model degli endpoint di elenco (utenti, ruoli, campagne, candidati).
+ * <p>
+ * Invece di caricare le entità con i loro grafi EAGER/LAZY (una query per riga), ogni elenco
+ * viene costruito da poche proiezioni piatte, assemblate in memoria: il numero di istruzioni SQL
+ * è fisso e non dipende dal numero di righe. I controlli sui permessi restano nei service.
+ * </p>
+ */
+@Component
+@Transactional(readOnly = true)
+public class ListingReadModel {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+    @Autowired private CampaignRepository campaignRepository;
+    @Autowired private CandidateRepository candidateRepository;
+
+    /**
+     * Ambito di un elenco già autorizzato dal service: intera organizzazione oppure una lista.
+     */
+    public record Scope(Long orgId, Long listId) {
+        public static Scope org(Long orgId) { return new Scope(orgId, null); }
+        public static Scope list(Long listId) { return new Scope(null, listId); }
+        public boolean isList() { return listId != null; }
+    }
+
+    // --- Utenti: 3 query (righe, ruoli, liste) ---
+
+    public Set<UserDetailDto> usersOfOrg(Long orgId) {
+        return assembleUsers(
+                userRepository.findUserRowsByOrgId(orgId),
+                userRepository.findRoleLinksByOrgId(orgId),
+                userRepository.findListLinksByOrgId(orgId));
+    }
+
+    public Set<UserDetailDto> usersOfList(Long listId) {
+        return assembleUsers(
+                userRepository.findUserRowsByListId(listId),
+                userRepository.findRoleLinksByListMembers(listId),
+                userRepository.findListLinksByListMembers(listId));
+    }
+
+    /**
+     * Pagina keyset di utenti ordinati per ID: le query sui ruoli e sulle liste sono limitate agli ID della pagina.
+     */
+    public java.util.List<UserDetailDto> usersAfter(Scope scope, long afterId, int limit) {
+        java.util.List<UserRepository.UserRowView> rows = scope.isList()
+                ? userRepository.findUserRowsByListIdAfter(scope.listId(), afterId, Limit.of(limit))
+                : userRepository.findUserRowsByOrgIdAfter(scope.orgId(), afterId, Limit.of(limit));
+        if (rows.isEmpty()) return java.util.List.of();
+
+        java.util.List<Long> ids = rows.stream().map(UserRepository.UserRowView::getId).toList();
+        return assembleUserList(rows, userRepository.findRoleLinksByUserIds(ids), userRepository.findListLinksByUserIds(ids));
+    }
+
+    // --- Ruoli: 1 query ---
+
+    public Set<RoleSummaryDto> rolesOfOrg(Long orgId) {
+        return roleRepository.findRoleRowsByOrganizationId(orgId).stream()
+                .map(ListingReadModel::toRoleSummary)
+                .collect(Collectors.toSet());
+    }
+
+    public Set<RoleSummaryDto> rolesOfList(Long listId) {
+        return roleRepository.findRoleRowsByListId(listId).stream()
+                .map(ListingReadModel::toRoleSummary)
+                .collect(Collectors.toSet());
+    }
+
+    public java.util.List<RoleSummaryDto> rolesAfter(Scope scope, long afterId, int limit) {
+        java.util.List<RoleRepository.RoleRowView> rows = scope.isList()
+                ? roleRepository.findRoleRowsByListIdAfter(scope.listId(), afterId, Limit.of(limit))
+                : roleRepository.findRoleRowsByOrganizationIdAfter(scope.orgId(), afterId, Limit.of(limit));
+        return rows.stream().map(ListingReadModel::toRoleSummary).toList();
+    }
+
+    // --- Campagne: 1 query ---
+
+    public Set<CampaignSummaryDto> campaignsOfOrg(Long orgId) {
+        return campaignRepository.findSummariesByOrgId(orgId);
+    }
+
+    public Set<CampaignSummaryDto> campaignsOfList(Long listId) {
+        return campaignRepository.findSummariesByListId(listId);
+    }
+
+    public java.util.List<CampaignSummaryDto> campaignsAfter(Scope scope, long afterId, int limit) {
+        return scope.isList()
+                ? campaignRepository.findSummariesByListIdAfter(scope.listId(), afterId, Limit.of(limit))
+                : campaignRepository.findSummariesByOrgIdAfter(scope.orgId(), afterId, Limit.of(limit));
+    }
+
+    // --- Candidati: 2 query (righe con utente e foto, ruoli degli utenti) ---
+
+    public Set<CandidateSummaryDto> candidatesOfList(Long listId) {
+        Map<Long, Set<RoleSummaryDto>> rolesByUser = groupRoles(userRepository.findRoleLinksByListCandidates(listId));
+
+        return candidateRepository.findCandidateRowsByListId(listId).stream()
+                .map(row -> toCandidateSummary(row, rolesByUser))
+                .collect(Collectors.toSet());
+    }
+
+    public java.util.List<CandidateSummaryDto> candidatesOfListAfter(Long listId, long afterId, int limit) {
+        java.util.List<CandidateRepository.CandidateRowView> rows =
+                candidateRepository.findCandidateRowsByListIdAfter(listId, afterId, Limit.of(limit));
+        if (rows.isEmpty()) return java.util.List.of();
+
+        Set<Long> userIds = rows.stream().map(CandidateRepository.CandidateRowView::getUserId).collect(Collectors.toSet());
+        Map<Long, Set<RoleSummaryDto>> rolesByUser = groupRoles(userRepository.findRoleLinksByUserIds(userIds));
+        return rows.stream().map(row -> toCandidateSummary(row, rolesByUser)).toList();
+    }
+
+    // --- Helper di assemblaggio ---
+
+    private Set<UserDetailDto> assembleUsers(Collection<UserRepository.UserRowView> rows,
+                                             Collection<UserRepository.UserRoleLinkView> roleLinks,
+                                             Collection<UserRepository.UserListLinkView> listLinks) {
+        return new HashSet<>(assembleUserList(rows, roleLinks, listLinks));
+    }
+
+    // Mantiene l'ordine delle righe (necessario per la paginazione keyset)
+    private java.util.List<UserDetailDto> assembleUserList(Collection<UserRepository.UserRowView> rows,
+                                                           Collection<UserRepository.UserRoleLinkView> roleLinks,
+                                                           Collection<UserRepository.UserListLinkView> listLinks) {
+        Map<Long, Set<RoleSummaryDto>> rolesByUser = groupRoles(roleLinks);
+
+        Map<Long, Set<ListSummaryDto>> listsByUser = new HashMap<>();
+        for (UserRepository.UserListLinkView link : listLinks) {
+            listsByUser.computeIfAbsent(link.getUserId(), id -> new HashSet<>())
+                    .add(new ListSummaryDto(link.getListId(), link.getListName()));
+        }
+
+        return rows.stream()
+                .map(row -> new UserDetailDto(
+                        row.getId(),
+                        row.getName(),
+                        row.getSurname(),
+                        row.getEmail(),
+                        rolesByUser.getOrDefault(row.getId(), Set.of()),
+                        row.getDeleted(),
+                        row.getMustChangePassword(),
+                        listsByUser.getOrDefault(row.getId(), Set.of())))
+                .toList();
+    }
+
+    private static Map<Long, Set<RoleSummaryDto>> groupRoles(Collection<UserRepository.UserRoleLinkView> links) {
+        Map<Long, Set<RoleSummaryDto>> rolesByUser = new HashMap<>();
+        for (UserRepository.UserRoleLinkView link : links) {
+            ListSummaryDto list = link.getListId() != null ? new ListSummaryDto(link.getListId(), link.getListName()) : null;
+            rolesByUser.computeIfAbsent(link.getUserId(), id -> new HashSet<>())
+                    .add(new RoleSummaryDto(link.getRoleId(), list, link.getRoleName(), link.getRoleColor()));
+        }
+        return rolesByUser;
+    }
+
+    private static CandidateSummaryDto toCandidateSummary(CandidateRepository.CandidateRowView row,
+                                                          Map<Long, Set<RoleSummaryDto>> rolesByUser) {
+        return new CandidateSummaryDto(
+                row.getId(),
+                new UserSummaryDto(
+                        row.getUserId(),
+                        row.getUserName(),
+                        row.getUserSurname(),
+                        row.getUserEmail(),
+                        rolesByUser.getOrDefault(row.getUserId(), Set.of())),
+                row.getSchoolClass(),
+                row.getPhotoId() != null
+                        ? new FileSummaryDto(row.getPhotoId(), row.getPhotoName(), row.getPhotoFilePath(), row.getPhotoMimeType())
+                        : null);
+    }
+
+    private static RoleSummaryDto toRoleSummary(RoleRepository.RoleRowView row) {
+        ListSummaryDto list = row.getListId() != null ? new ListSummaryDto(row.getListId(), row.getListName()) : null;
+        return new RoleSummaryDto(row.getId(), list, row.getName(), row.getColor());
+    }
+}
@@ -0,0 +1,61 @@
+package com.votopia.votopiabackendspringboot.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.votopia.votopiabackendspringboot.config.NPlusOneDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Function;
+
+/**
+ * Scrive un elenco in formato NDJSON (un oggetto JSON per riga) leggendolo a blocchi keyset.
+ * <p>
+ * Ogni blocco è una query breve in una propria transazione di sola lettura: in memoria resta
+ * un solo blocco alla volta e nessuna connessione viene trattenuta per tutta la durata del download.
+ * Dopo ogni blocco la risposta viene svuotata, così il client può mostrare le righe man mano.
+ * Per il rilevatore di N+1 ogni blocco è un'unità di lavoro a sé: la query del blocco si ripete per costruzione.
+ * </p>
+ */
+@Component
+public class NdjsonStreamer {
+
+    /**
+     * Carica fino a {@code limit} elementi con ID maggiore di {@code afterId}, in ordine di ID.
+     */
+    @FunctionalInterface
+    public interface KeysetLoader<T> {
+        java.util.List<T> load(long afterId, int limit);
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NPlusOneDetector nPlusOneDetector;
+
+    @Value("${votopia.listing.stream-chunk-size:500}")
+    private int chunkSize;
+
+    public <T> StreamingResponseBody stream(KeysetLoader<T> loader, Function<T, Long> idOf) {
+        ObjectWriter writer = objectMapper.writer();
+        return out -> {
+            long afterId = 0L;
+            while (true) {
+                java.util.List<T> chunk;
+                try (NPlusOneDetector.Scope ignored = nPlusOneDetector.split("(blocco dopo id " + afterId + ")")) {
+                    chunk = loader.load(afterId, chunkSize);
+                }
+                for (T item : chunk) {
+                    out.write(writer.writeValueAsBytes(item));
+                    out.write('\n');
+                }
+                out.flush();
+                if (chunk.size() < chunkSize) return;
+                afterId = idOf.apply(chunk.get(chunk.size() - 1));
+            }
+        };
+    }
+}
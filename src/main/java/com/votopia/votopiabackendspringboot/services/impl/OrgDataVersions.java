@@ -0,0 +1,69 @@
+package com.votopia.votopiabackendspringboot.services.impl;
+
+import com.votopia.votopiabackendspringboot.repositories.organizations.OrganizationRepository;
+import com.votopia.votopiabackendspringboot.services.OrgDataChangedEvent;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionSnapshot;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionSnapshotHolder;
+import io.micrometer.common.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Versione monotona dei dati di ogni organizzazione, usata per le GET condizionali delle schermate
+ * di inizializzazione ({@code /api/users/init-screen/}, {@code /api/roles/init-screen/}).
+ * <p>
+ * I metodi che modificano utenti, ruoli, liste e campagne pubblicano un {@link OrgDataChangedEvent}; la versione
+ * è la colonna {@code organizations.data_version}, incrementata nella stessa transazione della modifica.
+ * Tutti i nodi leggono quindi la stessa versione, anche dopo un riavvio, e un rollback la lascia invariata.
+ * L'ETag è debole e combina la versione con l'impronta dei permessi dell'utente: un cambio di permessi
+ * invalida la schermata anche senza modifiche ai dati.
+ * </p>
+ * Il controllo costa una lettura per chiave primaria; i permessi sono quelli già caricati dal filtro JWT.
+ */
+@Component
+public class OrgDataVersions {
+
+    private final OrganizationRepository organizationRepository;
+    private final PermissionSnapshotHolder snapshotHolder;
+
+    public OrgDataVersions(OrganizationRepository organizationRepository, PermissionSnapshotHolder snapshotHolder) {
+        this.organizationRepository = organizationRepository;
+        this.snapshotHolder = snapshotHolder;
+    }
+
+    public long current(Long orgId) {
+        return organizationRepository.findDataVersionById(orgId).orElse(0L);
+    }
+
+    /**
+     * ETag debole della schermata per l'utente autenticato, oppure {@code null} se i permessi non sono
+     * già disponibili nella richiesta (in quel caso la risposta viene calcolata senza GET condizionale).
+     * Va letto prima di calcolare i dati: una modifica concorrente produce al più una risposta in più.
+     */
+    @Nullable
+    public String screenETag(Long userId, @Nullable Long orgId) {
+        PermissionSnapshot snapshot = snapshotHolder.get(userId);
+        if (snapshot == null || orgId == null) return null;
+        return "W/\"" + current(orgId) + "-" + Integer.toHexString(fingerprint(snapshot)) + "\"";
+    }
+
+    /**
+     * Prima del commit, nella transazione che ha modificato i dati: l'incremento viene confermato o annullato
+     * insieme alla modifica, e fino al commit nessun'altra richiesta vede la nuova versione.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrgDataChanged(OrgDataChangedEvent event) {
+        if (event.orgId() != null) {
+            organizationRepository.incrementDataVersion(event.orgId());
+        }
+    }
+
+    // Solo hashCode con algoritmo specificato (Long, Map, Arrays in PermissionBits), non quello del record
+    private static int fingerprint(PermissionSnapshot snapshot) {
+        return Objects.hash(snapshot.userId(), snapshot.permissions(), snapshot.orgPermissions(),
+                snapshot.listPermissions());
+    }
+}
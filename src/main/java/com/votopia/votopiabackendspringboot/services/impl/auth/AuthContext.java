@@ -0,0 +1,78 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
+import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import io.micrometer.common.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Contesto dell'utente autenticato per la richiesta HTTP corrente: utente, organizzazione, ruoli e liste
+ * vengono caricati con una sola query alla prima richiesta e riusati da tutti i service fino alla fine
+ * della richiesta.
+ * <p>
+ * Come per {@link PermissionSnapshotHolder} il contesto vive negli attributi della richiesta: fuori da una
+ * richiesta (job, thread asincroni) non viene conservato nulla e ogni chiamata torna al database.
+ * Con open-in-view (default) l'entità resta gestita dallo stesso persistence context per tutta la richiesta.
+ * </p>
+ */
+@Component
+public class AuthContext {
+
+    private static final String ATTRIBUTE = AuthContext.class.getName() + ".USER";
+
+    private final UserRepository userRepository;
+
+    public AuthContext(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Utente autenticato, caricato al più una volta per richiesta.
+     *
+     * @throws NotFoundException  se l'utente non esiste.
+     * @throws ForbiddenException se l'utente non appartiene ad alcuna organizzazione.
+     */
+    public User getAuthenticatedUser(Long authUserId) {
+        User cached = cached(authUserId);
+        if (cached != null) return cached;
+
+        User user = userRepository.findWithContextById(authUserId)
+                .orElseThrow(() -> new NotFoundException("Utente autenticato non trovato"));
+        if (user.getOrg() == null) {
+            throw new ForbiddenException("L'utente non è associato ad alcuna Organizzazione");
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * Restituisce l'utente già caricato in questa richiesta solo se ha l'ID indicato, altrimenti {@code null}:
+     * utile quando il "target" di un'operazione coincide con l'utente autenticato.
+     */
+    @Nullable
+    public User cached(Long userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || userId == null) return null;
+
+        Object user = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user instanceof User u && userId.equals(u.getId())) {
+            return u;
+        }
+        return null;
+    }
+
+    public void clear() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
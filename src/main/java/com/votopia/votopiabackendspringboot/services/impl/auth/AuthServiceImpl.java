@@ -5,8 +5,6 @@ import com.votopia.votopiabackendspringboot.dtos.auth.LoginSummaryDto;
 import com.votopia.votopiabackendspringboot.dtos.user.UserSummaryDto;
 import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
-import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
-import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import com.votopia.votopiabackendspringboot.exceptions.UnauthorizedException;
 import com.votopia.votopiabackendspringboot.repositories.organizations.OrganizationRepository;
 import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
@@ -27,6 +25,7 @@ public class AuthServiceImpl implements AuthService {
     private final OrganizationRepository organizationRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService; // Usa l'interfaccia, non l'implementazione
+    private final AuthContext authContext;
 
     @Override
     @Transactional(readOnly = true)
@@ -58,12 +57,11 @@ public class AuthServiceImpl implements AuthService {
         return new LoginSummaryDto(token, new UserSummaryDto(user));
     }
 
+    /**
+     * Utente autenticato con organizzazione, ruoli e liste: caricato una sola volta per richiesta
+     * e condiviso da tutti i service tramite {@link AuthContext}.
+     */
     public User getAuthenticatedUser(Long authUserId) {
-        User user = userRepository.findById(authUserId)
-                .orElseThrow(() -> new NotFoundException("Utente autenticato non trovato"));
-        if (user.getOrg() == null) {
-            throw new ForbiddenException("L'utente non è associato ad alcuna Organizzazione");
-        }
-        return user;
+        return authContext.getAuthenticatedUser(authUserId);
     }
 }
\ No newline at end of file
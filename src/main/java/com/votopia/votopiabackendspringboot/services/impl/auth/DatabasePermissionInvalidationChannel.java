@@ -0,0 +1,131 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.services.auth.PermissionInvalidationChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Canale di invalidazione tra più nodi attraverso la tabella {@code permission_invalidations} del database condiviso.
+ * <p>
+ * Chi pubblica applica subito l'invalidazione alla propria cache e scrive una riga per utente; gli altri nodi
+ * leggono ogni {@code poll-interval} le righe scritte dopo l'ultima lettura (meno un margine per tollerare lo
+ * sfasamento degli orologi tra i nodi, come il registro degli utenti eliminati). Le righe già consegnate nel margine
+ * vengono riconosciute per ID, quindi ogni invalidazione arriva una sola volta. Dopo {@code retention} le righe
+ * vengono cancellate.
+ * </p>
+ * Il ritardo tra i nodi è al più l'intervallo di lettura; se il database non risponde resta il TTL della cache.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "votopia.permissions.cache.channel", havingValue = "database")
+public class DatabasePermissionInvalidationChannel implements PermissionInvalidationChannel {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO permission_invalidations (user_id, node_id, created_at) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT id, user_id FROM permission_invalidations WHERE created_at >= ? AND node_id <> ?";
+    private static final String DELETE_SQL = "DELETE FROM permission_invalidations WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration overlap;
+    private final Duration retention;
+    private final String nodeId = UUID.randomUUID().toString().replace("-", "");
+    private final java.util.List<Consumer<Set<Long>>> listeners = new CopyOnWriteArrayList<>();
+
+    // Righe lette nell'ultima finestra: al giro successivo la finestra si sovrappone e non vanno riconsegnate
+    private Set<Long> delivered = Set.of();
+    private LocalDateTime lastPoll = LocalDateTime.now();
+
+    public DatabasePermissionInvalidationChannel(
+            JdbcTemplate jdbcTemplate,
+            @Value("${votopia.permissions.cache.poll-overlap:1m}") Duration overlap,
+            @Value("${votopia.permissions.cache.retention:1h}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.overlap = overlap;
+        this.retention = retention;
+    }
+
+    @Override
+    public void publish(Set<Long> userIds) {
+        deliver(userIds);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, userIds, userIds.size(), (ps, userId) -> {
+                ps.setLong(1, userId);
+                ps.setString(2, nodeId);
+                ps.setTimestamp(3, now);
+            });
+        } catch (Exception e) {
+            // Gli altri nodi scartano comunque le voci alla scadenza del TTL
+            log.error("Invalidazione permessi non scritta per gli altri nodi ({}): {}", userIds, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Set<Long>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Consegna le invalidazioni pubblicate dagli altri nodi dopo l'ultima lettura.
+     */
+    @Scheduled(fixedDelayString = "${votopia.permissions.cache.poll-interval:2s}")
+    public synchronized void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Map<Long, Long> rows = new HashMap<>();
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                rows.put(rs.getLong(1), rs.getLong(2));
+            }, Timestamp.valueOf(lastPoll.minus(overlap)), nodeId);
+
+            Set<Long> userIds = new HashSet<>();
+            rows.forEach((id, userId) -> {
+                if (!delivered.contains(id)) userIds.add(userId);
+            });
+            delivered = rows.keySet();
+            lastPoll = now;
+            if (!userIds.isEmpty()) deliver(userIds);
+        } catch (Exception e) {
+            // Al prossimo giro si riprova dallo stesso istante: nessuna invalidazione viene persa
+            log.error("Errore nella lettura delle invalidazioni dei permessi: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cancella le righe più vecchie del periodo di conservazione; più nodi possono eseguirla insieme.
+     */
+    @Scheduled(fixedDelayString = "${votopia.permissions.cache.retention:1h}")
+    public void purge() {
+        try {
+            int deleted = jdbcTemplate.update(DELETE_SQL, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+            if (deleted > 0) log.debug("Invalidazioni dei permessi cancellate: {}", deleted);
+        } catch (Exception e) {
+            log.error("Errore nella cancellazione delle invalidazioni dei permessi: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(Set<Long> userIds) {
+        for (Consumer<Set<Long>> listener : listeners) {
+            try {
+                listener.accept(userIds);
+            } catch (Exception e) {
+                log.error("Errore durante la consegna dell'invalidazione permessi: {}", e.getMessage());
+            }
+        }
+    }
+}
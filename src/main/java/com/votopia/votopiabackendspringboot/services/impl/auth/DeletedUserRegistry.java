@@ -0,0 +1,101 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import com.votopia.votopiabackendspringboot.services.auth.UsersDeletedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registro in memoria degli utenti eliminati, usato per revocare i JWT ancora validi
+ * quando il principal viene costruito dai claims senza leggere il database.
+ * <p>
+ * Gli ID sono tenuti in una {@link BitSet} (un bit per ID): la lettura è un accesso senza lock
+ * all'istanza corrente, ogni modifica pubblica una nuova copia. Al primo aggiornamento viene
+ * caricato l'elenco completo, poi solo gli utenti con {@code deleted_at} successivo all'ultimo
+ * controllo (meno un margine per tollerare lo sfasamento degli orologi tra i nodi).
+ * </p>
+ */
+@Slf4j
+@Component
+public class DeletedUserRegistry {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${application.security.jwt.revocation-check.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.security.jwt.revocation-check.overlap:1m}")
+    private Duration overlap;
+
+    private final AtomicReference<BitSet> deleted = new AtomicReference<>(new BitSet());
+    private volatile LocalDateTime lastRefresh;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isDeleted(Long userId) {
+        if (!enabled || userId == null || userId < 0 || userId > Integer.MAX_VALUE) return false;
+        return deleted.get().get(userId.intValue());
+    }
+
+    /**
+     * Aggiorna il registro: caricamento completo la prima volta, incrementale le successive.
+     */
+    @Scheduled(fixedDelayString = "${application.security.jwt.revocation-check.refresh-interval:30s}")
+    public void refresh() {
+        if (!enabled) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (lastRefresh == null) {
+                java.util.List<Long> ids = userRepository.findDeletedIds();
+                BitSet full = new BitSet();
+                ids.forEach(id -> setBit(full, id));
+                deleted.set(full);
+                log.info("Registro utenti eliminati caricato: {} utenti", ids.size());
+            } else {
+                markDeleted(userRepository.findDeletedIdsSince(lastRefresh.minus(overlap)));
+            }
+            lastRefresh = now;
+        } catch (Exception e) {
+            // Al prossimo giro si riprova dallo stesso istante: nessun aggiornamento viene perso
+            log.error("Errore nell'aggiornamento del registro utenti eliminati: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Segna subito come eliminati gli utenti di questo nodo, a transazione confermata.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsersDeleted(UsersDeletedEvent event) {
+        markDeleted(event.userIds());
+    }
+
+    void markDeleted(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return;
+        deleted.updateAndGet(current -> {
+            BitSet next = (BitSet) current.clone();
+            userIds.forEach(id -> setBit(next, id));
+            return next;
+        });
+    }
+
+    private static void setBit(BitSet bits, Long id) {
+        if (id != null && id >= 0 && id <= Integer.MAX_VALUE) {
+            bits.set(id.intValue());
+        }
+    }
+}
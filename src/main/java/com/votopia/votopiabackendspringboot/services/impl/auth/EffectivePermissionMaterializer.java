@@ -0,0 +1,138 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.services.auth.PermissionsChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Mantiene la tabella {@code user_effective_permissions}, la versione denormalizzata del join
+ * utenti → user_roles → ruoli → role_permissions.
+ * <p>
+ * Aggiornamento incrementale: a ogni {@link PermissionsChangedEvent} (pubblicato anche per le
+ * cancellazioni, che svuotano le righe dell'utente) le righe degli utenti coinvolti vengono riscritte
+ * nella stessa transazione che ha modificato ruoli, permessi o appartenenze, subito prima del commit:
+ * chi legge vede sempre tabella e dati coerenti.
+ * Ricostruzione completa: a ogni avvio e periodicamente
+ * ({@code votopia.permissions.materialized.rebuild-cron}) per riparare eventuali derive.
+ * All'avvio la tabella può essere non vuota ma non aggiornata (modifiche fatte da un'altra versione,
+ * da script o mentre il nodo era fermo): finché la ricostruzione non è conclusa {@link #isReady()}
+ * è {@code false} e i controlli usano ancora il join completo.
+ * </p>
+ */
+@Slf4j
+@Component
+public class EffectivePermissionMaterializer {
+
+    private static final String DELETE_SQL = "DELETE FROM user_effective_permissions WHERE user_id IN (:userIds)";
+    private static final String INSERT_SQL =
+            "INSERT INTO user_effective_permissions (user_id, list_id, permission_id) " +
+            "SELECT DISTINCT ur.user_id, r.list_id, rp.permission_id " +
+            "FROM user_roles ur " +
+            "JOIN users u ON u.id = ur.user_id " +
+            "JOIN roles r ON r.id = ur.role_id " +
+            "JOIN role_permissions rp ON rp.role_id = r.id " +
+            "WHERE u.deleted = false AND ur.user_id IN (:userIds)";
+    private static final String USER_IDS_AFTER_SQL =
+            "SELECT id FROM users WHERE id > :afterId ORDER BY id LIMIT :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+    private volatile boolean ready;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EffectivePermissionMaterializer(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${votopia.permissions.materialized.enabled:true}") boolean enabled,
+            @Value("${votopia.permissions.materialized.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return {@code true} se la tabella è popolata e può sostituire il join completo.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) return;
+        // Le righe presenti non sono affidabili: si passa alla tabella solo dopo averla riscritta tutta
+        rebuildAll();
+        ready = true;
+    }
+
+    @Scheduled(cron = "${votopia.permissions.materialized.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) rebuildAll();
+    }
+
+    /**
+     * Riscrive le righe di tutti gli utenti, a blocchi di ID ciascuno nella propria transazione,
+     * così la tabella non resta mai bloccata per intero.
+     */
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int users = 0;
+        while (true) {
+            java.util.List<Long> ids = jdbcTemplate.queryForList(USER_IDS_AFTER_SQL,
+                    Map.of("afterId", afterId, "limit", chunkSize), Long.class);
+            if (ids.isEmpty()) break;
+            transactionTemplate.executeWithoutResult(status -> rewrite(ids));
+            users += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        log.info("Permessi effettivi ricostruiti per {} utenti in {} ms", users, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Riscrive le righe degli utenti indicati; va chiamato dentro una transazione.
+     */
+    public void refreshUsers(Collection<Long> userIds) {
+        if (!enabled || userIds.isEmpty()) return;
+        // Le modifiche JPA ancora in memoria devono essere visibili alla INSERT ... SELECT
+        if (TransactionSynchronizationManager.isActualTransactionActive()) entityManager.flush();
+
+        java.util.List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            rewrite(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPermissionsChanged(PermissionsChangedEvent event) {
+        refreshUsers(event.userIds());
+    }
+
+    private void rewrite(Collection<Long> userIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("userIds", userIds);
+        jdbcTemplate.update(DELETE_SQL, params);
+        jdbcTemplate.update(INSERT_SQL, params);
+    }
+}
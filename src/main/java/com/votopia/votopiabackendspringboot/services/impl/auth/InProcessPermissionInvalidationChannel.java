@@ -0,0 +1,39 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.services.auth.PermissionInvalidationChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Canale di invalidazione in-process: consegna i messaggi in modo sincrono a tutti gli iscritti
+ * della stessa JVM. Adatto a un singolo nodo e ai test che simulano più nodi con più cache.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "votopia.permissions.cache.channel", havingValue = "in-process", matchIfMissing = true)
+public class InProcessPermissionInvalidationChannel implements PermissionInvalidationChannel {
+
+    private final java.util.List<Consumer<Set<Long>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Set<Long> userIds) {
+        for (Consumer<Set<Long>> listener : listeners) {
+            try {
+                listener.accept(userIds);
+            } catch (Exception e) {
+                // Un iscritto difettoso non deve impedire l'invalidazione degli altri
+                log.error("Errore durante la consegna dell'invalidazione permessi: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Set<Long>> listener) {
+        listeners.add(listener);
+    }
+}
@@ -1,19 +1,39 @@
 package com.votopia.votopiabackendspringboot.services.impl.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
 import com.votopia.votopiabackendspringboot.services.auth.JwtService;
+import com.votopia.votopiabackendspringboot.services.auth.VerifiedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtServiceImpl implements JwtService {
@@ -24,6 +44,41 @@ public class JwtServiceImpl implements JwtService {
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${application.security.jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Chiave e parser sono immutabili e thread-safe: li costruiamo una sola volta
+    private SecretKey signInKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    private Timer parseTimer;
+
+    @PostConstruct
+    void init() {
+        this.signInKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+
+        // Ogni voce scade insieme al token (mai oltre la durata configurata dei token)
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry(Duration.ofMillis(jwtExpiration)))
+                .recordStats()
+                .build();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.parseTimer = Timer.builder("votopia.jwt.parse")
+                .description("Tempo di verifica HMAC e decodifica dei JWT non presenti in cache")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+        Gauge.builder("votopia.jwt.cache.hit.ratio", verifiedTokens, c -> c.stats().hitRate())
+                .description("Frazione di richieste servite dalla cache dei token verificati")
+                .register(registry);
+    }
+
     // --- Implementazione Metodi Interfaccia ---
 
     @Override
@@ -37,67 +92,97 @@ public class JwtServiceImpl implements JwtService {
                 .subject(user.getEmail())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     @Override
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).map(VerifiedToken::email).orElse(null);
     }
 
     @Override
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verify(token).map(VerifiedToken::userId).orElse(null);
     }
 
     @Override
     public Long extractOrgId(String token) {
-        return extractClaim(token, claims -> claims.get("orgId", Long.class));
+        return verify(token).map(VerifiedToken::orgId).orElse(null);
     }
 
     @Override
     public boolean isTokenValid(String token) {
+        return verify(token).isPresent();
+    }
+
+    @Override
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) return Optional.empty();
+
+        Instant now = Instant.now();
+        String digest = digest(token);
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) return Optional.of(cached);
+            verifiedTokens.invalidate(digest);
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
         try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false; // Token manomesso, scaduto o non valido
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            VerifiedToken verified = new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get("userId", Long.class),
+                    claims.get("orgId", Long.class),
+                    claims.getExpiration().toInstant()
+            );
+            if (verified.isExpired(now)) return Optional.empty();
+
+            verifiedTokens.put(digest, verified);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty(); // Token manomesso, scaduto o non valido
+        } finally {
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     // --- Metodi Helper Privati ---
 
     /**
-     * Estrae un singolo claim generico usando una funzione di risoluzione.
+     * Digest SHA-256 del token: chiave della cache, evita di trattenere in memoria i token in chiaro.
      */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
     }
 
     /**
-     * Verifica se il token è scaduto.
+     * Politica di scadenza delle voci in cache: il minimo tra la scadenza del token e la durata massima configurata.
      */
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
-    }
+    private record TokenExpiry(Duration maxLifetime) implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), value.expiresAt());
+            Duration lifetime = untilExpiry.compareTo(maxLifetime) < 0 ? untilExpiry : maxLifetime;
+            return Math.max(0, lifetime.toNanos());
+        }
 
-    /**
-     * Decodifica il payload del token (Sintassi JJWT 0.12.x).
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
 
-    /**
-     * Genera la chiave di firma a partire dalla stringa segreta.
-     */
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionInvalidationChannel;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionSnapshot;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionsChangedEvent;
+import io.micrometer.common.lang.Nullable;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache condivisa, limitata in dimensione e con TTL, delle decisioni sui permessi.
+ * <p>
+ * Conserva due regioni: le singole decisioni per (utente, lista, permesso) e le
+ * {@link PermissionSnapshot} complete per utente. L'invalidazione è puntuale: un
+ * {@link PermissionsChangedEvent}, dopo il commit, viene diffuso sul {@link PermissionInvalidationChannel}
+ * e ogni nodo rimuove solo gli utenti coinvolti.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PermissionCache {
+
+    /**
+     * Chiave di una decisione. {@code listId} è {@code null} per i controlli a livello organizzazione.
+     */
+    public record Key(Long userId, @Nullable Long listId, String permission) {}
+
+    private final PermissionInvalidationChannel channel;
+    private final Cache<Key, Boolean> decisions;
+    private final Cache<Long, PermissionSnapshot> snapshots;
+
+    // Incrementato a ogni invalidazione: un caricamento iniziato prima non viene messo in cache
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    public PermissionCache(
+            PermissionInvalidationChannel channel,
+            @Value("${votopia.permissions.cache.maximum-size:50000}") long maximumSize,
+            @Value("${votopia.permissions.cache.ttl:10m}") Duration ttl) {
+        this.channel = channel;
+        this.decisions = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+        this.snapshots = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        channel.subscribe(this::evictUsers);
+    }
+
+    public boolean isGranted(Key key, BooleanSupplier loader) {
+        Boolean cached = decisions.getIfPresent(key);
+        if (cached != null) return cached;
+
+        long epoch = invalidationEpoch.get();
+        boolean granted = loader.getAsBoolean();
+        if (epoch == invalidationEpoch.get()) {
+            decisions.put(key, granted);
+        }
+        return granted;
+    }
+
+    public PermissionSnapshot snapshot(Long userId, Supplier<PermissionSnapshot> loader) {
+        PermissionSnapshot cached = snapshots.getIfPresent(userId);
+        if (cached != null) return cached;
+
+        long epoch = invalidationEpoch.get();
+        PermissionSnapshot snapshot = loader.get();
+        if (epoch == invalidationEpoch.get()) {
+            snapshots.put(userId, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Rimuove dalla cache locale tutte le voci degli utenti indicati.
+     */
+    public void evictUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) return;
+        invalidationEpoch.incrementAndGet();
+        snapshots.invalidateAll(userIds);
+        decisions.asMap().keySet().removeIf(key -> userIds.contains(key.userId()));
+        log.debug("Permessi invalidati per gli utenti: {}", userIds);
+    }
+
+    /**
+     * Diffonde l'invalidazione solo a transazione confermata, così un rollback non svuota la cache
+     * e un nodo non può ricaricare i vecchi permessi prima che il commit sia visibile.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPermissionsChanged(PermissionsChangedEvent event) {
+        Set<Long> userIds = event.userIds();
+        if (!userIds.isEmpty()) {
+            channel.publish(userIds);
+        }
+    }
+}
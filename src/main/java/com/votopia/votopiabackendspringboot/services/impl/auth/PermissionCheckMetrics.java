@@ -0,0 +1,54 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Esiti dei controlli dei permessi ({@code votopia.permissions.checks}), per ambito
+ * ({@code organization}/{@code list}), origine della risposta ({@code snapshot}: fotografia della richiesta,
+ * {@code cache}: cache delle decisioni o database) ed esito ({@code granted}/{@code denied}).
+ * <p>
+ * I contatori sono creati tutti all'avvio: sul percorso caldo c'è solo un incremento, senza ricerca per tag.
+ * </p>
+ */
+@Component
+public class PermissionCheckMetrics {
+
+    // [ambito][origine][esito]
+    private final Counter[][][] counters = new Counter[2][2][2];
+
+    @Autowired
+    public PermissionCheckMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public PermissionCheckMetrics(MeterRegistry registry) {
+        String[] scopes = {"organization", "list"};
+        String[] sources = {"cache", "snapshot"};
+        String[] outcomes = {"denied", "granted"};
+        for (int scope = 0; scope < 2; scope++) {
+            for (int source = 0; source < 2; source++) {
+                for (int outcome = 0; outcome < 2; outcome++) {
+                    counters[scope][source][outcome] = Counter.builder("votopia.permissions.checks")
+                            .description("Controlli dei permessi per ambito, origine ed esito")
+                            .tag("scope", scopes[scope])
+                            .tag("source", sources[source])
+                            .tag("outcome", outcomes[outcome])
+                            .register(registry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Conta l'esito e lo restituisce invariato.
+     */
+    boolean record(boolean list, boolean snapshot, boolean granted) {
+        counters[list ? 1 : 0][snapshot ? 1 : 0][granted ? 1 : 0].increment();
+        return granted;
+    }
+}
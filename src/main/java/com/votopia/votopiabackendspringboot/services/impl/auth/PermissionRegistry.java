@@ -0,0 +1,118 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.repositories.auth.PermissionRepository;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionBits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro dei permessi: assegna a ogni {@link Permission} un indice intero denso (0, 1, 2, ...)
+ * usato come posizione del bit nelle {@link PermissionBits}.
+ * <p>
+ * All'avvio vengono registrati tutti i permessi presenti a DB in ordine di ID; un permesso creato
+ * in seguito riceve il primo indice libero la prima volta che compare. Gli indici non vengono mai
+ * riassegnati, quindi le maschere già calcolate restano valide per tutta la vita del processo.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PermissionRegistry {
+
+    private final PermissionRepository permissionRepository;
+    private final Map<String, Integer> indexByName = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> indexById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    public PermissionRegistry(PermissionRepository permissionRepository) {
+        this.permissionRepository = permissionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        java.util.List<Permission> permissions = new ArrayList<>(permissionRepository.findAll());
+        permissions.sort(Comparator.comparing(Permission::getId));
+        permissions.forEach(this::register);
+        log.info("Registro permessi caricato: {} permessi", size());
+    }
+
+    /**
+     * @return L'indice del permesso, {@code -1} se il nome non è mai stato registrato.
+     */
+    public int indexOf(String permissionName) {
+        Integer index = indexByName.get(permissionName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Indice del permesso, assegnandone uno nuovo se il nome non è ancora registrato.
+     */
+    public int intern(String permissionName) {
+        return indexByName.computeIfAbsent(permissionName, name -> nextIndex.getAndIncrement());
+    }
+
+    public int register(Permission permission) {
+        int index = intern(permission.getName());
+        indexById.put(permission.getId(), index);
+        return index;
+    }
+
+    /**
+     * Maschera dei permessi con gli ID indicati; gli ID non ancora noti vengono letti dal DB.
+     *
+     * @return La maschera, oppure {@code null} se almeno un ID non corrisponde ad alcun permesso.
+     */
+    public PermissionBits bitsOfIds(Collection<Long> permissionIds) {
+        java.util.List<Long> unknown = permissionIds.stream().filter(id -> !indexById.containsKey(id)).toList();
+        if (!unknown.isEmpty()) {
+            permissionRepository.findAllById(unknown).forEach(this::register);
+        }
+
+        PermissionBits.Builder bits = new PermissionBits.Builder();
+        for (Long id : permissionIds) {
+            Integer index = indexById.get(id);
+            if (index == null) return null;
+            bits.set(index);
+        }
+        return bits.build();
+    }
+
+    /**
+     * Compila un ruolo nella sua maschera di permessi.
+     */
+    public PermissionBits compile(Role role) {
+        PermissionBits.Builder bits = new PermissionBits.Builder();
+        setAll(role, bits);
+        return bits.build();
+    }
+
+    /**
+     * Unione delle maschere dei ruoli indicati, accumulata in un'unica maschera.
+     */
+    public PermissionBits compile(Collection<Role> roles) {
+        PermissionBits.Builder bits = new PermissionBits.Builder();
+        for (Role role : roles) setAll(role, bits);
+        return bits.build();
+    }
+
+    private void setAll(Role role, PermissionBits.Builder bits) {
+        for (Permission permission : role.getPermissions()) {
+            Integer index = indexById.get(permission.getId());
+            bits.set(index != null ? index : register(permission));
+        }
+    }
+
+    public int size() {
+        return indexByName.size();
+    }
+}
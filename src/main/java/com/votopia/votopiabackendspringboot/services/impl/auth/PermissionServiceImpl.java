@@ -3,12 +3,16 @@ package com.votopia.votopiabackendspringboot.services.impl.auth;
 import com.votopia.votopiabackendspringboot.dtos.permission.PermissionDetailDto;
 import com.votopia.votopiabackendspringboot.dtos.permission.PermissionSummaryDto;
 import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
 import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserEffectivePermissionRepository;
 import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionBits;
 import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionSnapshot;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -23,20 +27,55 @@ public class PermissionServiceImpl implements PermissionService {
     private UserRepository userRepository;
     @Autowired
     private ListRepository listRepository;
+    @Autowired
+    private PermissionSnapshotHolder snapshotHolder;
+    @Autowired
+    private PermissionCache permissionCache;
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+    @Autowired
+    private UserEffectivePermissionRepository effectivePermissionRepository;
+    @Autowired
+    private EffectivePermissionMaterializer materializer;
+    @Autowired
+    private AuthContext authContext;
+    @Autowired
+    private PermissionCheckMetrics metrics;
+
+    @Override
+    public PermissionSnapshot loadSnapshot(Long userId) {
+        PermissionSnapshot snapshot = permissionCache.snapshot(userId,
+                () -> PermissionSnapshot.of(userId, materializer.isReady()
+                        ? effectivePermissionRepository.findPermissionGrantsByUserId(userId)
+                        : userRepository.findPermissionGrantsByUserId(userId), permissionRegistry::intern));
+        snapshotHolder.set(snapshot);
+        return snapshot;
+    }
 
     @Override
     public boolean hasPermission(Long userId, String permissionName) {
+        PermissionSnapshot snapshot = snapshotHolder.get(userId);
+        if (snapshot != null) {
+            return metrics.record(false, true, snapshot.hasPermission(permissionRegistry.indexOf(permissionName)));
+        }
+
         try {
-            return userRepository.hasPermission(userId, permissionName);
+            return metrics.record(false, false, permissionCache.isGranted(new PermissionCache.Key(userId, null, permissionName),
+                    () -> materializer.isReady()
+                            ? effectivePermissionRepository.hasPermission(userId, permissionName)
+                            : userRepository.hasPermission(userId, permissionName)));
         } catch (Exception e) {
             log.error("Errore nel controllo permessi per user {}: {}", userId, e.getMessage());
-            return false;
+            return metrics.record(false, false, false);
         }
     }
 
     @Override
     public java.util.List<PermissionDetailDto> getUserPermissions(Long userId) {
-        return userRepository.findAllPermissionsByUserId(userId).stream()
+        java.util.List<Permission> permissions = materializer.isReady()
+                ? effectivePermissionRepository.findAllPermissionsByUserId(userId)
+                : userRepository.findAllPermissionsByUserId(userId);
+        return permissions.stream()
                 .map(PermissionDetailDto::new) // Niente cast qui!
                 .toList();
     }
@@ -48,10 +87,13 @@ public class PermissionServiceImpl implements PermissionService {
 
     @Override
     public Set<List> getListsUserHasPermission(User user, String permissionName) {
-        // Controlla se l'utente ha il permesso globale tramite i suoi ruoli
-        boolean hasGlobalPermission = user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .anyMatch(p -> p.getName().equals(permissionName));
+        // Controlla se l'utente ha il permesso globale tramite i suoi ruoli: con la fotografia è un test di bit,
+        // altrimenti si compilano i ruoli già caricati (OR delle maschere)
+        int permissionIndex = permissionRegistry.indexOf(permissionName);
+        PermissionSnapshot snapshot = snapshotHolder.get(user.getId());
+        boolean hasGlobalPermission = snapshot != null
+                ? snapshot.hasPermission(permissionIndex)
+                : permissionRegistry.compile(user.getRoles()).has(permissionIndex);
 
         if (hasGlobalPermission) {
             // L'utente può vedere tutte le liste della sua organizzazione
@@ -65,15 +107,16 @@ public class PermissionServiceImpl implements PermissionService {
 
     @Override
     public boolean hasPermissionOnList(Long userId, Long listId, String permissionName) {
-        // Recuperiamo l'utente con i suoi ruoli
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null) return false;
-
-        // Cerchiamo tra i ruoli dell'utente
-        return user.getRoles().stream()
-                .filter(role -> role.getList() != null && role.getList().getId().equals(listId)) // Solo ruoli di quella lista
-                .flatMap(role -> role.getPermissions().stream()) // "Apriamo" i permessi di quei ruoli
-                .anyMatch(p -> p.getName().equals(permissionName)); // Controlliamo se il nome coincide
+        PermissionSnapshot snapshot = snapshotHolder.get(userId);
+        if (snapshot != null) {
+            return metrics.record(true, true, snapshot.hasPermissionOnList(listId, permissionRegistry.indexOf(permissionName)));
+        }
+
+        // Solo i ruoli legati a quella lista, senza caricare l'intero grafo dell'utente
+        return metrics.record(true, false, permissionCache.isGranted(new PermissionCache.Key(userId, listId, permissionName),
+                () -> materializer.isReady()
+                        ? effectivePermissionRepository.hasPermissionOnList(userId, listId, permissionName)
+                        : userRepository.hasPermissionOnList(userId, listId, permissionName)));
     }
 
     /**
@@ -82,15 +125,37 @@ public class PermissionServiceImpl implements PermissionService {
      */
     @Override
     public boolean checkSharedLists(Long authUserId, Long targetUserId, String permissionCode) {
-        // Recuperiamo le liste del target
-        User target = userRepository.findById(targetUserId)
-                .orElseThrow(() -> new NotFoundException("Target non trovato"));
+        // Con la fotografia in memoria bastano gli ID delle liste del target, non l'intero grafo
+        PermissionSnapshot snapshot = snapshotHolder.get(authUserId);
+        if (snapshot != null) {
+            int permissionIndex = permissionRegistry.indexOf(permissionCode);
+            return userRepository.findListIdsByUserId(targetUserId).stream()
+                    .anyMatch(listId -> snapshot.hasPermissionOnList(listId, permissionIndex));
+        }
+
+        // Recuperiamo le liste del target (già in memoria se è l'utente autenticato)
+        User target = authContext.cached(targetUserId);
+        if (target == null) {
+            target = userRepository.findById(targetUserId)
+                    .orElseThrow(() -> new NotFoundException("Target non trovato"));
+        }
 
         // Controlliamo se per almeno una lista del target, l'admin ha il permesso richiesto
         return target.getLists().stream()
                 .anyMatch(list -> hasPermissionOnList(authUserId, list.getId(), permissionCode));
     }
 
+    @Override
+    public boolean hasAllPermissions(Long userId, Set<Long> permissionIds) {
+        if (permissionIds.isEmpty()) return true;
+        PermissionBits required = permissionRegistry.bitsOfIds(permissionIds);
+        if (required == null) return false;
+
+        PermissionSnapshot snapshot = snapshotHolder.get(userId);
+        if (snapshot == null) snapshot = loadSnapshot(userId);
+        return snapshot.permissions().containsAll(required);
+    }
+
     @Override
     public void validatePermission(Long authUserId, Long listId, String orgPerm, String listPerm, String errorMsg) {
         boolean hasAccess = this.hasPermission(authUserId, orgPerm) ||
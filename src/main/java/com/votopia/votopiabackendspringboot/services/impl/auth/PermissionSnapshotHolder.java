@@ -0,0 +1,46 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.services.auth.PermissionSnapshot;
+import io.micrometer.common.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Conserva la {@link PermissionSnapshot} dell'utente autenticato come attributo della richiesta HTTP corrente.
+ * Fuori da una richiesta (job, thread asincroni) non conserva nulla e i controlli tornano al database.
+ */
+@Component
+public class PermissionSnapshotHolder {
+
+    private static final String ATTRIBUTE = PermissionSnapshotHolder.class.getName() + ".SNAPSHOT";
+
+    public void set(PermissionSnapshot snapshot) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, snapshot, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Restituisce la fotografia solo se appartiene all'utente indicato, altrimenti {@code null}.
+     */
+    @Nullable
+    public PermissionSnapshot get(Long userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || userId == null) return null;
+
+        Object snapshot = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (snapshot instanceof PermissionSnapshot s && userId.equals(s.userId())) {
+            return s;
+        }
+        return null;
+    }
+
+    public void clear() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
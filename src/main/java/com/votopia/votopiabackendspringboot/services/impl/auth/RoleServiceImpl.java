@@ -1,6 +1,6 @@
 package com.votopia.votopiabackendspringboot.services.impl.auth;
 
-import com.votopia.votopiabackendspringboot.dtos.permission.PermissionDetailDto;
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleInfoResponse;
 import com.votopia.votopiabackendspringboot.dtos.permission.PermissionSummaryDto;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleCreateDto;
@@ -17,14 +17,23 @@ import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
 import com.votopia.votopiabackendspringboot.repositories.auth.PermissionRepository;
 import com.votopia.votopiabackendspringboot.repositories.auth.RoleRepository;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import com.votopia.votopiabackendspringboot.services.OrgDataChangedEvent;
 import com.votopia.votopiabackendspringboot.services.auth.AuthService;
 import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionsChangedEvent;
 import com.votopia.votopiabackendspringboot.services.auth.RoleService;
+import com.votopia.votopiabackendspringboot.services.impl.ListingReadModel;
+import com.votopia.votopiabackendspringboot.services.impl.NdjsonStreamer;
+import com.votopia.votopiabackendspringboot.services.log.AuditAction;
+import com.votopia.votopiabackendspringboot.services.log.AuditService;
 import io.micrometer.common.lang.Nullable;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -39,6 +48,11 @@ public class RoleServiceImpl implements RoleService {
     @Autowired private PermissionService permissionService;
     @Autowired private PermissionRepository permissionRepository;
     @Autowired private ListRepository listRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private AuditService auditService;
+    @Autowired private ListingReadModel listingReadModel;
+    @Autowired private NdjsonStreamer ndjsonStreamer;
 
     @Override
     public RolesScreenInitDto getRolesScreenInitialization(Long authUserId) {
@@ -141,8 +155,11 @@ public class RoleServiceImpl implements RoleService {
         // 4. Assegnazione Permessi
         assignPermissionsToRole(newRole, dto.permissionsId());
 
+        // Un ruolo appena creato non ha utenti: nessuna cache dei permessi da invalidare
         Role savedRole = roleRepository.save(newRole);
         log.info("Ruolo creato: {} (ID: {}) contesto: {}", savedRole.getName(), savedRole.getId(), isListRole ? "LIST" : "ORG");
+        auditService.record(AuditAction.ROLE_CREATE, authUserId, "Ruolo creato: ID " + savedRole.getId());
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
         return new RoleSummaryDto(savedRole);
     }
 
@@ -167,26 +184,33 @@ public class RoleServiceImpl implements RoleService {
             throw new ForbiddenException("Violazione gerarchica: non puoi eliminare un ruolo di livello superiore o uguale al tuo.");
         }
 
+        Set<Long> affectedUsers = userRepository.findIdsByRolesId(roleId);
         roleRepository.delete(roleTarget);
+        eventPublisher.publishEvent(new PermissionsChangedEvent(affectedUsers));
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
+        auditService.record(AuditAction.ROLE_DELETE, authUserId, "Ruolo eliminato: ID " + roleId);
     }
 
     @Override
     @Transactional
     public Set<RoleSummaryDto> getAllVisible(Long authUserId, @Nullable Long listId) {
-        User authUser = authService.getAuthenticatedUser(authUserId);
-        Long orgId = authUser.getOrg().getId();
-
-        if (listId == null) {
-            validateGlobalPermission(authUserId, "view_all_role_organization", "Richiesto permesso Org per vista globale.");
-            return roleRepository.findAllByOrganizationId(orgId).stream().map(RoleSummaryDto::new).collect(Collectors.toSet());
-        }
-
-        List targetList = listRepository.findById(listId).orElseThrow(() -> new NotFoundException("Lista non trovata."));
-        if (!targetList.getOrg().getId().equals(orgId)) throw new NotFoundException("Lista non trovata nell'organizzazione.");
+        ListingReadModel.Scope scope = resolveVisibleScope(authUserId, listId);
+        return scope.isList() ? listingReadModel.rolesOfList(scope.listId()) : listingReadModel.rolesOfOrg(scope.orgId());
+    }
 
-        validatePermissionInContext(authUserId, listId, "view_all_role_organization", "view_all_role_list", "Accesso negato ai ruoli della lista.");
+    @Override
+    @Transactional
+    public CursorPage<RoleSummaryDto> getVisiblePage(Long authUserId, @Nullable Long listId, @Nullable String cursor, @Nullable Integer limit) {
+        ListingReadModel.Scope scope = resolveVisibleScope(authUserId, listId);
+        int pageSize = CursorPage.clampLimit(limit);
+        return CursorPage.of(listingReadModel.rolesAfter(scope, CursorPage.decode(cursor), pageSize + 1), pageSize, RoleSummaryDto::id);
+    }
 
-        return roleRepository.findAllByListId(listId).stream().map(RoleSummaryDto::new).collect(Collectors.toSet());
+    @Override
+    @Transactional
+    public StreamingResponseBody streamVisible(Long authUserId, @Nullable Long listId) {
+        ListingReadModel.Scope scope = resolveVisibleScope(authUserId, listId);
+        return ndjsonStreamer.stream((afterId, limit) -> listingReadModel.rolesAfter(scope, afterId, limit), RoleSummaryDto::id);
     }
 
     @Override
@@ -235,8 +259,11 @@ public class RoleServiceImpl implements RoleService {
         if (dto.permissions() != null) {
             validatePermissionsPossession(authUserId, dto.permissions());
             assignPermissionsToRole(roleTarget, dto.permissions());
+            eventPublisher.publishEvent(new PermissionsChangedEvent(userRepository.findIdsByRolesId(roleTarget.getId())));
         }
 
+        auditService.record(AuditAction.ROLE_UPDATE, authUserId, "Ruolo modificato: ID " + roleTarget.getId());
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
         return new RoleSummaryDto(roleRepository.save(roleTarget));
     }
 
@@ -306,6 +333,22 @@ public class RoleServiceImpl implements RoleService {
         return role;
     }
 
+    private ListingReadModel.Scope resolveVisibleScope(Long authUserId, @Nullable Long listId) {
+        User authUser = authService.getAuthenticatedUser(authUserId);
+        Long orgId = authUser.getOrg().getId();
+
+        if (listId == null) {
+            validateGlobalPermission(authUserId, "view_all_role_organization", "Richiesto permesso Org per vista globale.");
+            return ListingReadModel.Scope.org(orgId);
+        }
+
+        List targetList = listRepository.findById(listId).orElseThrow(() -> new NotFoundException("Lista non trovata."));
+        if (!targetList.getOrg().getId().equals(orgId)) throw new NotFoundException("Lista non trovata nell'organizzazione.");
+
+        validatePermissionInContext(authUserId, listId, "view_all_role_organization", "view_all_role_list", "Accesso negato ai ruoli della lista.");
+        return ListingReadModel.Scope.list(listId);
+    }
+
     private void validateGlobalPermission(Long authUserId, String permission, String errorMsg) {
         if (!permissionService.hasPermission(authUserId, permission)) {
             throw new ForbiddenException(errorMsg);
@@ -328,9 +371,7 @@ public class RoleServiceImpl implements RoleService {
 
     private void validatePermissionsPossession(Long authUserId, Set<Long> permsToAssign) {
         if (permsToAssign == null || permsToAssign.isEmpty()) return;
-        Set<Long> userPermIds = permissionService.getUserPermissions(authUserId).stream()
-                .map(PermissionDetailDto::id).collect(Collectors.toSet());
-        if (!userPermIds.containsAll(permsToAssign)) {
+        if (!permissionService.hasAllPermissions(authUserId, permsToAssign)) {
             throw new ForbiddenException("Non puoi assegnare permessi che non possiedi.");
         }
     }
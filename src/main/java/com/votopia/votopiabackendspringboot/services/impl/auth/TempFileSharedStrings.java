@@ -0,0 +1,163 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Tabella delle stringhe condivise di un file XLSX salvata su un file temporaneo.
+ * <p>
+ * {@code ReadOnlySharedStringsTable} tiene in memoria tutte le stringhe del file, che per un foglio
+ * con molte righe distinte (email, password) sono la parte più grande. Qui in memoria resta solo
+ * la posizione di ogni stringa (8 byte ciascuna); il testo viene riletto dal file quando una cella lo usa.
+ * Come {@code ReadOnlySharedStringsTable} senza fonetica, il testo dei blocchi {@code rPh} viene ignorato.
+ * </p>
+ */
+final class TempFileSharedStrings implements SharedStrings, Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private long[] offsets = new long[1024];
+    private int count;
+    private int referenceCount;
+
+    TempFileSharedStrings(OPCPackage pkg) throws IOException, SAXException {
+        this.file = Files.createTempFile("votopia-import-strings-", ".bin");
+        try {
+            java.util.List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (!parts.isEmpty()) {
+                try (InputStream in = parts.get(0).getInputStream();
+                     OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new Writer(out));
+                    parser.parse(new InputSource(in));
+                }
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException | SAXException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } catch (ParserConfigurationException e) {
+            Files.deleteIfExists(file);
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        if (idx < 0 || idx >= count) {
+            throw new IllegalArgumentException("Stringa condivisa inesistente: " + idx);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[idx + 1] - offsets[idx]));
+        try {
+            long position = offsets[idx];
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) throw new IOException("File delle stringhe condivise troncato");
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new XSSFRichTextString(new String(buffer.array(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int getCount() {
+        return referenceCount;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Scrive il testo di ogni {@code si} in coda al file e ne registra la fine.
+     */
+    private final class Writer extends DefaultHandler {
+        private final OutputStream out;
+        private final StringBuilder text = new StringBuilder();
+        private long written;
+        private boolean inText;
+        private boolean inPhonetic;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "sst" -> {
+                    String total = attributes.getValue("count");
+                    if (total != null) referenceCount = Integer.parseInt(total);
+                }
+                case "si" -> text.setLength(0);
+                case "t" -> inText = !inPhonetic;
+                case "rPh" -> inPhonetic = true;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "si" -> append();
+                case "t" -> inText = false;
+                case "rPh" -> inPhonetic = false;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) text.append(ch, start, length);
+        }
+
+        private void append() throws SAXException {
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            written += bytes.length;
+            if (count + 1 >= offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[++count] = written;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.dtos.user.UserCreateDto;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motore di inserimento massivo degli utenti.
+ * <p>
+ * Le password vengono cifrate in parallelo su un pool limitato (BCrypt è volutamente lento),
+ * gli utenti e le righe di {@code user_lists}/{@code user_roles} vengono inseriti con INSERT JDBC
+ * a blocchi e gli ID generati vengono riletti con una sola query per blocco.
+ * Autorizzazioni e risoluzione di liste e ruoli restano al chiamante: qui arrivano già filtrate.
+ * Va invocato dentro una transazione, a cui JdbcTemplate partecipa.
+ * </p>
+ */
+@Slf4j
+@Component
+public class UserBulkImporter {
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (name, surname, email, password, org_id, created_at, deleted, must_change_password) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_LIST_SQL = "INSERT INTO user_lists (user_id, list_id) VALUES (?, ?)";
+    private static final String INSERT_USER_ROLE_SQL = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    /**
+     * Utente inserito: ID generato, riga di origine e ruoli effettivamente assegnati.
+     */
+    public record ImportedUser(Long id, UserCreateDto source, java.util.List<Role> roles) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService hashExecutor;
+    private final int batchSize;
+
+    public UserBulkImporter(
+            JdbcTemplate jdbcTemplate,
+            UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            @Value("${votopia.import.hash-parallelism:0}") int hashParallelism,
+            @Value("${votopia.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.batchSize = batchSize;
+
+        int threads = hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors();
+        this.hashExecutor = Executors.newFixedThreadPool(threads, daemonThreads());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * Email già presenti nell'organizzazione (anche di utenti eliminati), una query {@code IN} per blocco.
+     */
+    public Set<String> findExistingEmails(Long orgId, Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (java.util.List<String> chunk : chunks(new ArrayList<>(emails))) {
+            existing.addAll(userRepository.findEmailsByOrgIdAndEmailIn(orgId, chunk));
+        }
+        return existing;
+    }
+
+    /**
+     * Inserisce gli utenti e le relative associazioni.
+     *
+     * @param rows            Utenti da creare; le email devono essere già state verificate come libere.
+     * @param assignableLists ID delle liste che il chiamante può assegnare: le altre vengono ignorate.
+     * @param assignableRoles Ruoli che il chiamante può assegnare, per ID: gli altri vengono ignorati.
+     * @return Gli utenti inseriti, nello stesso ordine di {@code rows}.
+     */
+    public java.util.List<ImportedUser> insert(Long orgId, java.util.List<UserCreateDto> rows,
+                                               Set<Long> assignableLists, Map<Long, Role> assignableRoles) {
+        if (rows.isEmpty()) return java.util.List.of();
+
+        long start = System.nanoTime();
+        java.util.List<String> hashes = hashPasswords(rows);
+        long hashed = System.nanoTime();
+
+        // 1. Utenti
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        java.util.List<Object[]> userArgs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            UserCreateDto dto = rows.get(i);
+            userArgs.add(new Object[]{dto.name(), dto.surname(), dto.email(), hashes.get(i), orgId, now, false, true});
+        }
+        for (java.util.List<Object[]> chunk : chunks(userArgs)) {
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, chunk);
+        }
+
+        // 2. ID generati, riletti per email (unica nell'organizzazione)
+        Map<String, Long> idByEmail = new HashMap<>(rows.size() * 2);
+        for (java.util.List<String> chunk : chunks(rows.stream().map(UserCreateDto::email).toList())) {
+            userRepository.findIdsByOrgIdAndEmailIn(orgId, chunk)
+                    .forEach(v -> idByEmail.put(v.getEmail(), v.getId()));
+        }
+
+        // 3. Associazioni con liste e ruoli
+        java.util.List<ImportedUser> imported = new ArrayList<>(rows.size());
+        java.util.List<Object[]> listArgs = new ArrayList<>();
+        java.util.List<Object[]> roleArgs = new ArrayList<>();
+        for (UserCreateDto dto : rows) {
+            Long userId = idByEmail.get(dto.email());
+            java.util.List<Role> roles = new ArrayList<>();
+            if (dto.listsId() != null) {
+                dto.listsId().stream()
+                        .filter(assignableLists::contains)
+                        .forEach(listId -> listArgs.add(new Object[]{userId, listId}));
+            }
+            if (dto.rolesId() != null) {
+                for (Long roleId : dto.rolesId()) {
+                    Role role = assignableRoles.get(roleId);
+                    if (role == null) continue;
+                    roles.add(role);
+                    roleArgs.add(new Object[]{userId, roleId});
+                }
+            }
+            imported.add(new ImportedUser(userId, dto, roles));
+        }
+        for (java.util.List<Object[]> chunk : chunks(listArgs)) {
+            jdbcTemplate.batchUpdate(INSERT_USER_LIST_SQL, chunk);
+        }
+        for (java.util.List<Object[]> chunk : chunks(roleArgs)) {
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, chunk);
+        }
+
+        log.info("Import massivo: {} utenti, {} liste, {} ruoli (hash {} ms, totale {} ms)",
+                rows.size(), listArgs.size(), roleArgs.size(),
+                (hashed - start) / 1_000_000, (System.nanoTime() - start) / 1_000_000);
+        return imported;
+    }
+
+    private java.util.List<String> hashPasswords(java.util.List<UserCreateDto> rows) {
+        java.util.List<CompletableFuture<String>> futures = rows.stream()
+                .map(dto -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(dto.password()), hashExecutor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private <T> java.util.List<java.util.List<T>> chunks(java.util.List<T> items) {
+        java.util.List<java.util.List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            chunks.add(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+        return chunks;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,165 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.dtos.user.UserCreateDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserImportReportDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserImportRowErrorDto;
+import com.votopia.votopiabackendspringboot.exceptions.BadRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Stato di un import di utenti da file: riconosce le colonne dall'intestazione, valida le righe
+ * man mano che arrivano e consegna quelle valide a blocchi di dimensione fissa.
+ * <p>
+ * In memoria restano solo il blocco corrente, le righe scartate fino al limite del report e
+ * le email già viste (per segnalare i duplicati interni al file).
+ * </p>
+ */
+final class UserImportSession implements UserSheetReader.RowHandler {
+
+    /**
+     * Riga valida in attesa di inserimento.
+     */
+    record PendingRow(int rowNumber, UserCreateDto user) {}
+
+    private static final Map<String, String> HEADER_ALIASES = Map.of(
+            "nome", "name", "name", "name",
+            "cognome", "surname", "surname", "surname",
+            "email", "email", "e-mail", "email", "mail", "email",
+            "password", "password"
+    );
+    private static final java.util.List<String> REQUIRED_COLUMNS = java.util.List.of("name", "surname", "email", "password");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final Validator validator;
+    private final Set<Long> listsId;
+    private final Set<Long> rolesId;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    // Inserisce il blocco e restituisce le email rifiutate perché già registrate
+    private final Function<java.util.List<PendingRow>, Set<String>> writer;
+
+    private Map<String, Integer> columns;
+    private final java.util.List<PendingRow> chunk = new ArrayList<>();
+    private final Map<String, Integer> seenEmails = new HashMap<>();
+    private final java.util.List<UserImportRowErrorDto> errors = new ArrayList<>();
+    private int totalRows;
+    private int importedRows;
+    private int rejectedRows;
+
+    UserImportSession(Validator validator, Set<Long> listsId, Set<Long> rolesId, int chunkSize, int maxReportedErrors,
+                      Function<java.util.List<PendingRow>, Set<String>> writer) {
+        this.validator = validator;
+        this.listsId = listsId;
+        this.rolesId = rolesId;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.writer = writer;
+    }
+
+    @Override
+    public void row(int rowNumber, java.util.List<String> cells) {
+        if (cells.stream().allMatch(c -> c == null || c.isBlank())) return;
+
+        if (columns == null) {
+            columns = readHeader(cells);
+            return;
+        }
+
+        totalRows++;
+        UserCreateDto user = new UserCreateDto(
+                cell(cells, "name"), cell(cells, "surname"), cell(cells, "email"), cell(cells, "password"),
+                rolesId, listsId);
+
+        String error = validate(user);
+        if (error == null) {
+            Integer firstRow = seenEmails.putIfAbsent(user.email().toLowerCase(Locale.ROOT), rowNumber);
+            if (firstRow != null) error = "Email ripetuta nel file (riga " + firstRow + ")";
+        }
+        if (error != null) {
+            reject(rowNumber, user.email(), error);
+            return;
+        }
+
+        chunk.add(new PendingRow(rowNumber, user));
+        if (chunk.size() >= chunkSize) flush();
+    }
+
+    /**
+     * Inserisce l'ultimo blocco e restituisce il report complessivo.
+     */
+    UserImportReportDto finish() {
+        if (columns == null) {
+            throw new BadRequestException("Il file è vuoto: manca la riga di intestazione");
+        }
+        flush();
+        return new UserImportReportDto(totalRows, importedRows, rejectedRows,
+                java.util.List.copyOf(errors), rejectedRows > errors.size());
+    }
+
+    private void flush() {
+        if (chunk.isEmpty()) return;
+        Set<String> alreadyRegistered = writer.apply(java.util.List.copyOf(chunk)).stream()
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        for (PendingRow pending : chunk) {
+            if (alreadyRegistered.contains(pending.user().email().toLowerCase(Locale.ROOT))) {
+                reject(pending.rowNumber(), pending.user().email(), "Email già registrata nell'organizzazione");
+            } else {
+                importedRows++;
+            }
+        }
+        chunk.clear();
+    }
+
+    private void reject(int rowNumber, String email, String message) {
+        rejectedRows++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new UserImportRowErrorDto(rowNumber, email, message));
+        }
+    }
+
+    private String validate(UserCreateDto user) {
+        Set<ConstraintViolation<UserCreateDto>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!EMAIL_PATTERN.matcher(user.email()).matches()) {
+            return "Email non valida";
+        }
+        return null;
+    }
+
+    private String cell(java.util.List<String> cells, String column) {
+        int index = columns.get(column);
+        if (index >= cells.size() || cells.get(index) == null) return null;
+        String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Map<String, Integer> readHeader(java.util.List<String> cells) {
+        Map<String, Integer> found = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            String key = HEADER_ALIASES.get(cells.get(i).trim().toLowerCase(Locale.ROOT));
+            if (key != null) found.putIfAbsent(key, i);
+        }
+        java.util.List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !found.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("Colonne mancanti nell'intestazione: " + String.join(", ", missing)
+                    + " (attese: NOME, COGNOME, EMAIL, PASSWORD)");
+        }
+        return found;
+    }
+}
@@ -1,42 +1,67 @@
 package com.votopia.votopiabackendspringboot.services.impl.auth;
 
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
 import com.votopia.votopiabackendspringboot.dtos.user.*;
 import com.votopia.votopiabackendspringboot.dtos.list.ListOptionDto;
 import com.votopia.votopiabackendspringboot.dtos.role.RoleOptionDto;
+import com.votopia.votopiabackendspringboot.dtos.role.RoleSummaryDto;
 import com.votopia.votopiabackendspringboot.entities.auth.Role;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
 import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.exceptions.BadRequestException;
 import com.votopia.votopiabackendspringboot.exceptions.ConflictException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
 import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
 import com.votopia.votopiabackendspringboot.repositories.auth.RoleRepository;
 import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
 import com.votopia.votopiabackendspringboot.services.ListService;
+import com.votopia.votopiabackendspringboot.services.OrgDataChangedEvent;
 import com.votopia.votopiabackendspringboot.services.auth.AuthService;
 import com.votopia.votopiabackendspringboot.services.auth.UserService;
 import com.votopia.votopiabackendspringboot.services.auth.RoleService;
 import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionsChangedEvent;
+import com.votopia.votopiabackendspringboot.services.auth.UsersDeletedEvent;
+import com.votopia.votopiabackendspringboot.services.impl.ListingReadModel;
+import com.votopia.votopiabackendspringboot.services.impl.NdjsonStreamer;
+import com.votopia.votopiabackendspringboot.services.log.AuditAction;
+import com.votopia.votopiabackendspringboot.services.log.AuditService;
 import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import jakarta.annotation.Nullable;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.WorkbookUtil;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementazione del servizio UserService.
@@ -54,6 +79,23 @@ public class UserServiceImpl implements UserService {
     @Autowired private PermissionService permissionService;
     @Autowired private ListService listService;
     @Autowired private RoleService roleService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private AuditService auditService;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ListingReadModel listingReadModel;
+    @Autowired private NdjsonStreamer ndjsonStreamer;
+    @Autowired private UserBulkImporter userBulkImporter;
+    @Autowired private Validator validator;
+
+    @Value("${votopia.import.batch-size:1000}")
+    private int importChunkSize;
+    @Value("${votopia.import.max-reported-errors:1000}")
+    private int importMaxReportedErrors;
+
+    // Export Excel: righe tenute in memoria da SXSSF e larghezze colonne (in caratteri)
+    private static final int EXCEL_ROW_WINDOW = 100;
+    private static final String[] EXCEL_COLUMNS = {"COGNOME", "NOME", "EMAIL"};
+    private static final int[] EXCEL_COLUMN_WIDTHS = {30, 30, 45};
 
     @Override
     @Transactional
@@ -94,7 +136,11 @@ public class UserServiceImpl implements UserService {
         processRoles(dto.rolesId(), newUser, authUserId);
 
         log.info("Utente registrato con successo: {} (ID: {})", newUser.getEmail(), newUser.getId());
-        return new UserSummaryDto(userRepository.save(newUser));
+        auditService.record(AuditAction.USER_CREATE, authUserId, "Utente creato: ID " + newUser.getId());
+        UserSummaryDto saved = new UserSummaryDto(userRepository.save(newUser));
+        eventPublisher.publishEvent(new PermissionsChangedEvent(Set.of(saved.id())));
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
+        return saved;
     }
 
     @Override
@@ -131,14 +177,37 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public Set<UserDetailDto> getAllVisibleUsers(Long authUserId, @Nullable Long listId) {
+        ListingReadModel.Scope scope = resolveVisibleUsersScope(authUserId, listId);
+        return scope.isList() ? listingReadModel.usersOfList(scope.listId()) : listingReadModel.usersOfOrg(scope.orgId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDetailDto> getVisibleUsersPage(Long authUserId, @Nullable Long listId, @Nullable String cursor, @Nullable Integer limit) {
+        ListingReadModel.Scope scope = resolveVisibleUsersScope(authUserId, listId);
+        int pageSize = CursorPage.clampLimit(limit);
+        return CursorPage.of(listingReadModel.usersAfter(scope, CursorPage.decode(cursor), pageSize + 1), pageSize, UserDetailDto::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody streamVisibleUsers(Long authUserId, @Nullable Long listId) {
+        ListingReadModel.Scope scope = resolveVisibleUsersScope(authUserId, listId);
+        return ndjsonStreamer.stream((afterId, limit) -> listingReadModel.usersAfter(scope, afterId, limit), UserDetailDto::id);
+    }
+
+    /**
+     * Ambito degli utenti visibili: tutta l'organizzazione con il permesso globale
+     * (indipendentemente dal filtro), altrimenti la lista richiesta se si hanno i permessi su di essa.
+     */
+    private ListingReadModel.Scope resolveVisibleUsersScope(Long authUserId, @Nullable Long listId) {
         User authUser = authService.getAuthenticatedUser(authUserId);
         Long orgId = authUser.getOrg().getId();
 
         // Se ha permesso globale, vede TUTTI gli utenti dell'organizzazione
         // INDIPENDENTEMENTE dal parametro target_list_id
         if (permissionService.hasPermission(authUserId, "view_all_user_organization")) {
-            return userRepository.findAllByOrgId(orgId).stream()
-                    .map(UserDetailDto::new).collect(Collectors.toSet());
+            return ListingReadModel.Scope.org(orgId);
         }
 
         // Se NON ha permesso globale, cerca a livello di lista
@@ -146,8 +215,7 @@ public class UserServiceImpl implements UserService {
             if (!permissionService.hasPermissionOnList(authUserId, listId, "view_all_user_list")) {
                 throw new ForbiddenException("Non hai accesso agli utenti di questa lista");
             }
-            return userRepository.findAllByListsId(listId).stream()
-                    .map(UserDetailDto::new).collect(Collectors.toSet());
+            return ListingReadModel.Scope.list(listId);
         }
 
         // Nessun permesso disponibile
@@ -171,7 +239,12 @@ public class UserServiceImpl implements UserService {
         }
 
         userToDelete.setDeleted(true);
+        userToDelete.setDeletedAt(LocalDateTime.now());
         userRepository.save(userToDelete);
+        eventPublisher.publishEvent(new PermissionsChangedEvent(Set.of(targetUserId)));
+        eventPublisher.publishEvent(new UsersDeletedEvent(Set.of(targetUserId)));
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
+        auditService.record(AuditAction.USER_DELETE, authUserId, "Utente eliminato: ID " + targetUserId);
         log.info("Soft-delete eseguito per utente ID: {}", targetUserId);
     }
 
@@ -203,10 +276,18 @@ public class UserServiceImpl implements UserService {
         }
 
         // 3 Soft delete
-        usersToDelete.forEach(user -> user.setDeleted(true));
+        LocalDateTime deletedAt = LocalDateTime.now();
+        usersToDelete.forEach(user -> {
+            user.setDeleted(true);
+            user.setDeletedAt(deletedAt);
+        });
 
         // 4 Save batch
         userRepository.saveAll(usersToDelete);
+        eventPublisher.publishEvent(new PermissionsChangedEvent(idTargets));
+        eventPublisher.publishEvent(new UsersDeletedEvent(idTargets));
+        eventPublisher.publishEvent(new OrgDataChangedEvent(orgId));
+        idTargets.forEach(id -> auditService.record(AuditAction.USER_DELETE, authUserId, "Utente eliminato: ID " + id));
     }
 
     @Override
@@ -214,7 +295,7 @@ public class UserServiceImpl implements UserService {
     public UserSummaryDto update(Long authUserId, UserUpdateDto dto) {
         Long targetId = (dto.id() != null) ? dto.id() : authUserId;
         User authUser = authService.getAuthenticatedUser(authUserId);
-        User targetUser = userRepository.findById(targetId)
+        User targetUser = targetId.equals(authUserId) ? authUser : userRepository.findById(targetId)
                 .orElseThrow(() -> new NotFoundException("Target user not found"));
 
         // Validazione Permessi
@@ -237,8 +318,11 @@ public class UserServiceImpl implements UserService {
         // Gestione Liste (solo admin)
         if (hasOrg || hasList) {
             handleListUpdate(targetUser, authUserId, dto, hasOrg);
+            eventPublisher.publishEvent(new PermissionsChangedEvent(Set.of(targetUser.getId())));
         }
 
+        auditService.record(AuditAction.USER_UPDATE, authUserId, "Utente modificato: ID " + targetId);
+        eventPublisher.publishEvent(new OrgDataChangedEvent(authUser.getOrg().getId()));
         return new UserSummaryDto(userRepository.save(targetUser));
     }
 
@@ -307,6 +391,9 @@ public class UserServiceImpl implements UserService {
 
             handleListUpdate(targetUser, authUserId, dto, canOrg);
         }
+        eventPublisher.publishEvent(new PermissionsChangedEvent(userIds));
+        eventPublisher.publishEvent(new OrgDataChangedEvent(orgId));
+        userIds.forEach(id -> auditService.record(AuditAction.USER_UPDATE, authUserId, "Utente modificato: ID " + id));
 
         // 6 Save batch
         return userRepository.saveAll(dbUsers)
@@ -319,6 +406,7 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public Set<UserSummaryDto> registerListUsers(Set<UserCreateDto> users, Long authUserId) {
         User authUser = authService.getAuthenticatedUser(authUserId);
+        Long orgId = authUser.getOrg().getId();
 
         // 1 Controllo Permessi
         boolean canOrg = permissionService.hasPermission(authUserId, "create_user_for_organization");
@@ -328,14 +416,18 @@ public class UserServiceImpl implements UserService {
             throw new ForbiddenException("Non hai i permessi per creare utenti");
         }
 
-        // 2 Mappa email -> DTO per lookup rapido
-        Map<String, UserCreateDto> dtoByEmail = users.stream()
-                .collect(Collectors.toMap(UserCreateDto::email, Function.identity()));
-
-        // 3 Controllo email già esistenti
-        Set<String> existingEmails = dtoByEmail.keySet().stream()
-                .filter(email -> userRepository.findUserByEmailAndOrg(email, authUser.getOrg()).isPresent())
+        // 2 Email ripetute nella richiesta
+        Set<String> seen = new HashSet<>();
+        Set<String> repeated = users.stream()
+                .map(UserCreateDto::email)
+                .filter(email -> !seen.add(email))
                 .collect(Collectors.toSet());
+        if (!repeated.isEmpty()) {
+            throw new ConflictException("Email ripetute nella richiesta: " + String.join(", ", repeated));
+        }
+
+        // 3 Controllo email già esistenti: una query IN per blocco invece di una per utente
+        Set<String> existingEmails = userBulkImporter.findExistingEmails(orgId, seen);
 
         if (!existingEmails.isEmpty()) {
             throw new ConflictException(
@@ -343,45 +435,127 @@ public class UserServiceImpl implements UserService {
             );
         }
 
-        // 4 Creazione utenti e salvataggio batch
-        Set<User> usersToSave = dtoByEmail.values().stream()
-                .map(dto -> {
-                    User u = new User();
-                    u.setName(dto.name());
-                    u.setSurname(dto.surname());
-                    u.setEmail(dto.email());
-                    u.setPassword(passwordEncoder.encode(dto.password()));
-                    u.setOrg(authUser.getOrg());
-                    return u;
+        // 4 Liste e ruoli risolti una sola volta per l'intero blocco
+        java.util.List<UserCreateDto> rows = java.util.List.copyOf(users);
+        Set<Long> assignableLists = resolveImportLists(rows.stream().map(UserCreateDto::listsId).toList(), canOrg, authUserId, orgId);
+        Map<Long, Role> assignableRoles = resolveImportRoles(rows.stream()
+                .filter(dto -> dto.rolesId() != null)
+                .flatMap(dto -> dto.rolesId().stream())
+                .collect(Collectors.toSet()), authUserId, orgId);
+
+        // 5 Inserimento a blocchi (password cifrate in parallelo)
+        java.util.List<UserBulkImporter.ImportedUser> imported =
+                userBulkImporter.insert(orgId, rows, assignableLists, assignableRoles);
+        eventPublisher.publishEvent(new PermissionsChangedEvent(imported.stream()
+                .map(UserBulkImporter.ImportedUser::id)
+                .collect(Collectors.toSet())));
+        eventPublisher.publishEvent(new OrgDataChangedEvent(orgId));
+
+        // 6 Restituisci DTO
+        return imported.stream()
+                .map(u -> {
+                    auditService.record(AuditAction.USER_CREATE, authUserId, "Utente creato: ID " + u.id());
+                    return toSummary(u);
                 })
                 .collect(Collectors.toSet());
+    }
 
-        Set<User> usersSaved = new HashSet<>(userRepository.saveAll(usersToSave));
+    @Override
+    public UserImportReportDto importUsersFromFile(MultipartFile file, @Nullable Set<Long> listsId,
+                                                   @Nullable Set<Long> rolesId, Long authUserId) {
+        boolean canOrg = permissionService.hasPermission(authUserId, "create_user_for_organization");
+        boolean canList = permissionService.hasPermission(authUserId, "create_user_for_list");
+
+        if (!canOrg && !canList) {
+            throw new ForbiddenException("Non hai i permessi per creare utenti");
+        }
+
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        boolean xlsx = filename.endsWith(".xlsx");
+        if (!xlsx && !filename.endsWith(".csv")) {
+            throw new BadRequestException("Formato non supportato: caricare un file .xlsx o .csv");
+        }
 
-        // 5 Gestione liste e ruoli per ogni utente salvato
-        usersSaved.forEach(savedUser -> {
-            UserCreateDto dto = dtoByEmail.get(savedUser.getEmail());
+        // Liste e ruoli validati una volta sola: valgono per tutte le righe del file
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ImportTarget target = readOnly.execute(status -> {
+            Long orgId = authService.getAuthenticatedUser(authUserId).getOrg().getId();
+            return new ImportTarget(orgId,
+                    resolveImportLists(java.util.List.of(listsId == null ? Set.of() : listsId), canOrg, authUserId, orgId),
+                    resolveImportRoles(rolesId == null ? Set.of() : rolesId, authUserId, orgId));
+        });
 
-            if (canOrg) {
-                processOrgLists(dto.listsId(), savedUser, authUser.getOrg().getId());
+        // Ogni blocco ha la propria transazione: un file grande non tiene aperta una transazione unica
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        UserImportSession session = new UserImportSession(validator, target.lists(), target.roles().keySet(),
+                importChunkSize, importMaxReportedErrors,
+                chunk -> write.execute(status -> importChunk(chunk, target, authUserId)));
+
+        try {
+            if (xlsx) {
+                Path temp = Files.createTempFile("votopia-import-", ".xlsx");
+                try {
+                    file.transferTo(temp);
+                    UserSheetReader.readXlsx(temp, session);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
             } else {
-                processRestrictedList(dto.listsId(), savedUser, authUser.getId());
+                try (InputStream in = file.getInputStream()) {
+                    UserSheetReader.readCsv(in, session);
+                }
             }
+        } catch (IOException e) {
+            throw new BadRequestException("File non leggibile: " + e.getMessage());
+        }
 
-            processRoles(dto.rolesId(), savedUser, authUser.getId());
-        });
+        UserImportReportDto report = session.finish();
+        log.info("Import utenti da file '{}': {} righe, {} importate, {} scartate",
+                file.getOriginalFilename(), report.totalRows(), report.importedRows(), report.rejectedRows());
+        return report;
+    }
 
-        // 6 Restituisci DTO
-        return usersSaved.stream()
-                .map(UserSummaryDto::new)
-                .collect(Collectors.toSet());
+    /**
+     * Liste e ruoli già autorizzati per un import da file.
+     */
+    private record ImportTarget(Long orgId, Set<Long> lists, Map<Long, Role> roles) {}
+
+    private Set<String> importChunk(java.util.List<UserImportSession.PendingRow> chunk, ImportTarget target, Long authUserId) {
+        java.util.List<UserCreateDto> rows = chunk.stream().map(UserImportSession.PendingRow::user).toList();
+        Set<String> existing = userBulkImporter.findExistingEmails(target.orgId(),
+                rows.stream().map(UserCreateDto::email).toList());
+
+        Set<String> taken = existing.stream().map(email -> email.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        java.util.List<UserCreateDto> fresh = rows.stream()
+                .filter(dto -> !taken.contains(dto.email().toLowerCase(Locale.ROOT)))
+                .toList();
+        Set<Long> created = new HashSet<>();
+        userBulkImporter.insert(target.orgId(), fresh, target.lists(), target.roles()).forEach(u -> {
+            created.add(u.id());
+            auditService.record(AuditAction.USER_CREATE, authUserId, "Utente creato: ID " + u.id());
+        });
+        eventPublisher.publishEvent(new PermissionsChangedEvent(created));
+        if (!created.isEmpty()) eventPublisher.publishEvent(new OrgDataChangedEvent(target.orgId()));
+        return existing;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public ByteArrayInputStream createExcelAllVisibleUsers(Long authUserId, @Nullable Long targetListId) {
+    public StreamingResponseBody createExcelAllVisibleUsers(Long authUserId, @Nullable Long targetListId) {
         User authUser = authService.getAuthenticatedUser(authUserId);
-        Set<UserDetailDto> users = this.getAllVisibleUsers(authUserId, targetListId);
+        Long orgId = authUser.getOrg().getId();
+
+        // 1. Permessi verificati subito (stesse regole di getAllVisibleUsers): il corpo gira su un altro thread
+        boolean orgScope = permissionService.hasPermission(authUserId, "view_all_user_organization");
+        if (!orgScope) {
+            if (targetListId == null) {
+                throw new ForbiddenException("Non hai i permessi per visualizzare gli utenti");
+            }
+            if (!permissionService.hasPermissionOnList(authUserId, targetListId, "view_all_user_list")) {
+                throw new ForbiddenException("Non hai accesso agli utenti di questa lista");
+            }
+        }
 
         String orgName = authUser.getOrg().getName();
         String listName = "";
@@ -389,8 +563,31 @@ public class UserServiceImpl implements UserService {
             listName = listRepository.findById(targetListId)
                     .map(l -> l.getName()).orElse("");
         }
+        String title = "Report Utenti: " + orgName + (listName.isEmpty() ? "" : " - " + listName);
+
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        // 2. Le righe vengono lette con un cursore e scritte direttamente sulla risposta
+        return out -> readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<UserExportRowDto> rows = orgScope
+                    ? userRepository.streamExportRowsByOrgId(orgId)
+                    : userRepository.streamExportRowsByListId(targetListId)) {
+                writeUsersWorkbook(title, rows, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Errore generazione Excel", e);
+            }
+        });
+    }
 
-        try (Workbook wb = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    /**
+     * Scrive il report con SXSSF: solo {@code EXCEL_ROW_WINDOW} righe restano in memoria,
+     * le altre vengono riversate su un file temporaneo compresso.
+     */
+    private void writeUsersWorkbook(String title, Stream<UserExportRowDto> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook wb = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        wb.setCompressTempFiles(true);
+        try {
             Sheet sheet = wb.createSheet("Lista Utenti");
 
             // --- 1. DEFINIZIONE STILI ---
@@ -420,26 +617,32 @@ public class UserServiceImpl implements UserService {
 
             // --- 2. COSTRUZIONE DEL FOGLIO ---
 
+            // Larghezze fisse (autoSizeColumn richiederebbe tutte le righe in memoria)
+            for (int i = 0; i < EXCEL_COLUMNS.length; i++) {
+                sheet.setColumnWidth(i, EXCEL_COLUMN_WIDTHS[i] * 256);
+            }
+
             // RIGA 0: Titolo Principale
             Row titleRow = sheet.createRow(0);
             Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("Report Utenti: " + orgName + (listName.isEmpty() ? "" : " - " + listName));
+            titleCell.setCellValue(title);
             titleCell.setCellStyle(titleStyle);
             // Uniamo le celle (da colonna 0 a 2)
             sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 2));
 
             // RIGA 2: Intestazioni (lasciamo una riga vuota tra titolo e tabella)
             Row headerRow = sheet.createRow(2);
-            String[] columns = {"COGNOME", "NOME", "EMAIL"};
-            for (int i = 0; i < columns.length; i++) {
+            for (int i = 0; i < EXCEL_COLUMNS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
+                cell.setCellValue(EXCEL_COLUMNS[i]);
                 cell.setCellStyle(headerStyle);
             }
 
             // RIGA 3+: Dati
             int rowIdx = 3;
-            for (UserDetailDto user : users) {
+            Iterator<UserExportRowDto> it = rows.iterator();
+            while (it.hasNext()) {
+                UserExportRowDto user = it.next();
                 Row row = sheet.createRow(rowIdx++);
 
                 Cell cell0 = row.createCell(0);
@@ -455,16 +658,10 @@ public class UserServiceImpl implements UserService {
                 cell2.setCellStyle(dataStyle);
             }
 
-            // 3. Auto-size delle colonne
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
             wb.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
-
-        } catch (IOException e) {
-            throw new RuntimeException("Errore generazione Excel", e);
+        } finally {
+            wb.dispose(); // Elimina i file temporanei delle righe già riversate
+            wb.close();
         }
     }
 
@@ -601,14 +798,70 @@ public class UserServiceImpl implements UserService {
         throw new ForbiddenException("Permessi insufficienti per modificare l'utente");
     }
 
-    private void processOrgLists(Set<Long> listIds, User newUser, Long orgId) {
-        if (listIds == null) return;
-        for (Long id : listIds) {
-            listRepository.findByIdAndOrgId(id, orgId).ifPresent(l -> {
-                l.getUsers().add(newUser);
-                listRepository.save(l);
-            });
+    /**
+     * Liste assegnabili dall'utente autenticato tra quelle richieste (una voce per riga da importare).
+     * Con il solo permesso di lista ogni riga deve indicare esattamente una lista su cui l'utente è autorizzato.
+     */
+    private Set<Long> resolveImportLists(java.util.List<Set<Long>> listsPerRow, boolean canOrg, Long authUserId, Long orgId) {
+        Set<Long> requested = new HashSet<>();
+        for (Set<Long> listsId : listsPerRow) {
+            if (!canOrg && (listsId == null || listsId.size() != 1)) {
+                throw new ForbiddenException("Puoi creare utenti in una sola lista alla volta");
+            }
+            if (listsId != null) requested.addAll(listsId);
+        }
+        if (requested.isEmpty()) return Set.of();
+
+        if (!canOrg) {
+            for (Long listId : requested) {
+                if (!permissionService.hasPermissionOnList(authUserId, listId, "create_user_for_list")) {
+                    throw new ForbiddenException("Non hai permessi su questa lista");
+                }
+            }
+        }
+        return listRepository.findAllByIdInAndOrgId(requested, orgId).stream()
+                .map(List::getId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Ruoli assegnabili tra quelli richiesti: dell'organizzazione e di livello inferiore al massimo
+     * dell'utente autenticato nello stesso ambito (organizzazione o lista), calcolato una volta per ambito.
+     */
+    private Map<Long, Role> resolveImportRoles(Set<Long> requested, Long authUserId, Long orgId) {
+        if (requested.isEmpty()) return Map.of();
+
+        Map<Long, Integer> maxLevelByList = new HashMap<>();
+        Integer orgMaxLevel = null;
+        Map<Long, Role> assignable = new HashMap<>();
+        for (Role role : roleRepository.findAllById(requested)) {
+            int maxLevel;
+            if (role.getList() == null) {
+                if (role.getOrganization() == null || !orgId.equals(role.getOrganization().getId())) continue;
+                if (orgMaxLevel == null) orgMaxLevel = roleRepository.findMaxLevelByUserIdAndOrgId(authUserId, orgId);
+                maxLevel = orgMaxLevel;
+            } else {
+                if (!orgId.equals(role.getList().getOrg().getId())) continue;
+                maxLevel = maxLevelByList.computeIfAbsent(role.getList().getId(),
+                        listId -> roleRepository.findMaxLevelByUserIdAndListId(authUserId, listId));
+            }
+            if (role.getLevel() < maxLevel) {
+                assignable.put(role.getId(), role);
+            }
         }
+        return assignable;
+    }
+
+    private UserSummaryDto toSummary(UserBulkImporter.ImportedUser imported) {
+        UserCreateDto dto = imported.source();
+        return new UserSummaryDto(imported.id(), dto.name(), dto.surname(), dto.email(),
+                imported.roles().stream().map(RoleSummaryDto::new).collect(Collectors.toSet()));
+    }
+
+    private void processOrgLists(Set<Long> listIds, User newUser, Long orgId) {
+        if (listIds == null || listIds.isEmpty()) return;
+        // Una sola query per tutte le liste; l'associazione si scrive dal lato dell'utente (proprietario di user_lists)
+        newUser.getLists().addAll(listRepository.findAllByIdInAndOrgId(listIds, orgId));
     }
 
     private void processRestrictedList(Set<Long> listIds, User newUser, Long authUserId) {
@@ -619,7 +872,7 @@ public class UserServiceImpl implements UserService {
         if (!permissionService.hasPermissionOnList(authUserId, targetId, "create_user_for_list")) {
             throw new ForbiddenException("Non hai permessi su questa lista");
         }
-        listRepository.findById(targetId).ifPresent(l -> l.getUsers().add(newUser));
+        listRepository.findById(targetId).ifPresent(l -> newUser.getLists().add(l));
     }
 
     private void processRoles(Set<Long> roleIds, User newUser, Long authUserId) {
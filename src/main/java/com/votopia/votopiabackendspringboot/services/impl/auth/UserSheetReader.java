@@ -0,0 +1,163 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Lettura in streaming dei fogli di import utenti: le righe vengono consegnate una alla volta
+ * senza mai caricare in memoria l'intero file.
+ * <p>
+ * XLSX: API a eventi SAX di POI sul primo foglio (nessun modello {@code XSSFWorkbook}), stringhe
+ * condivise lette da un file temporaneo ({@link TempFileSharedStrings}).
+ * CSV: UTF-8, separatore {@code ;} o {@code ,} dedotto dall'intestazione, campi tra virgolette
+ * con {@code ""} come virgoletta letterale.
+ * </p>
+ */
+public final class UserSheetReader {
+
+    /**
+     * Riceve le righe lette nell'ordine del file. {@code rowNumber} parte da 1 (intestazione).
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(int rowNumber, java.util.List<String> cells);
+    }
+
+    private UserSheetReader() {}
+
+    /**
+     * Legge il primo foglio di un file XLSX già salvato su disco
+     * (aprire il pacchetto da uno stream lo caricherebbe interamente in memoria).
+     */
+    public static void readXlsx(Path file, RowHandler handler) throws IOException {
+        // Stringhe condivise su file temporaneo: in memoria solo le posizioni, non il testo di ogni cella
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+             TempFileSharedStrings strings = new TempFileSharedStrings(pkg)) {
+            XSSFReader reader = new XSSFReader(pkg);
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) return;
+
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(
+                    reader.getStylesTable(), null, strings, new SheetRows(handler), new DataFormatter(), false));
+            try (InputStream sheet = sheets.next()) {
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("File XLSX non valido: " + e.getMessage(), e);
+        }
+    }
+
+    public static void readCsv(InputStream in, RowHandler handler) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') reader.reset(); // BOM scritto da Excel
+
+        java.util.List<String> cells = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        Character separator = null;
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        int rowNumber = 1;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch != '"') {
+                    field.append(ch);
+                    continue;
+                }
+                reader.mark(1);
+                if (reader.read() == '"') {
+                    field.append('"');
+                } else {
+                    reader.reset();
+                    quoted = false;
+                }
+                continue;
+            }
+            if (ch == '"' && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (separator == null && (ch == ';' || ch == ',')) {
+                separator = ch;
+                cells.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (separator != null && ch == separator) {
+                cells.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') reader.reset();
+                }
+                cells.add(field.toString());
+                handler.row(rowNumber++, cells);
+                cells = new ArrayList<>();
+                field.setLength(0);
+                fieldStarted = false;
+            } else {
+                field.append(ch);
+                fieldStarted = true;
+            }
+        }
+        if (fieldStarted || field.length() > 0 || !cells.isEmpty()) {
+            cells.add(field.toString());
+            handler.row(rowNumber, cells);
+        }
+    }
+
+    /**
+     * Adatta gli eventi di cella di POI a righe complete, riempiendo le celle vuote saltate.
+     */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowHandler handler;
+        private java.util.List<String> cells = new ArrayList<>();
+
+        SheetRows(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new ArrayList<>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.row(rowNum + 1, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() < column) cells.add("");
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+    }
+}
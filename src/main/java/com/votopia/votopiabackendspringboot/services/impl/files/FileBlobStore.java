@@ -0,0 +1,145 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.entities.files.FileBlob;
+import com.votopia.votopiabackendspringboot.exceptions.ConflictException;
+import com.votopia.votopiabackendspringboot.repositories.files.FileBlobRepository;
+import com.votopia.votopiabackendspringboot.services.files.FileBlobReleasedEvent;
+import com.votopia.votopiabackendspringboot.services.files.StagedObject;
+import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Archivio dei contenuti indirizzati per SHA-256 con conteggio dei riferimenti dalle righe {@code files}.
+ * <p>
+ * Il contatore di un blob viene aggiornato con un lock sulla sua riga, nella transazione che crea o elimina
+ * il {@code File}. La riga non viene mai eliminata: all'ultimo rilascio il contatore torna a zero e la riga
+ * resta come segnaposto, così ogni caricamento successivo trova sempre una riga da bloccare.
+ * </p>
+ * <ul>
+ *     <li>Un caricamento che trova il contatore a zero riscrive sempre il contenuto (potrebbe essere stato
+ *     rimosso o essere in rimozione); con il contatore positivo il contenuto è garantito e lo staging si scarta.</li>
+ *     <li>La rimozione fisica avviene dopo il commit del rilascio, ricontrollando il contatore sotto lo stesso
+ *     lock: un caricamento concorrente viene atteso e, se incrementa il contatore, il contenuto resta.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class FileBlobStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO file_blobs (sha256, size_bytes, storage_path, ref_count, created_at) VALUES (?, ?, ?, 0, ?)";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FileBlobRepository blobRepository;
+    private final StorageService storageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+
+    public FileBlobStore(FileBlobRepository blobRepository, StorageService storageService,
+                         ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.storageService = storageService;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Aggiunge un riferimento al contenuto in staging: se il blob ha già riferimenti il contatore viene
+     * incrementato e lo staging scartato, altrimenti il contenuto viene pubblicato. Va chiamato dentro una
+     * transazione.
+     *
+     * @return Percorso del blob, dimensione e SHA-256.
+     */
+    public StoredObject acquire(StagedObject staged) throws IOException {
+        FileBlob blob = lockOrCreate(staged);
+        boolean referenced = blob.getRefCount() > 0;
+        blob.setRefCount(blob.getRefCount() + 1);
+        if (referenced) {
+            storageService.discard(staged);
+            log.info("Contenuto già presente, nessuna nuova scrittura: {}", blob.getStoragePath());
+            return new StoredObject(blob.getStoragePath(), blob.getSizeBytes(), blob.getSha256());
+        }
+        return storageService.publishBlob(staged);
+    }
+
+    /**
+     * Riga del blob con lock di scrittura, creata con contatore a zero se manca.
+     * <p>
+     * La prima lettura è senza lock: su MySQL (REPEATABLE READ) un {@code SELECT ... FOR UPDATE} su una chiave
+     * assente prende un gap lock, e due caricamenti paralleli dello stesso contenuto si bloccherebbero a vicenda
+     * sull'inserimento. L'inserimento concorrente perdente attende il commit del vincitore, fallisce per chiave
+     * duplicata (senza invalidare la transazione) e blocca la riga ormai esistente.
+     * </p>
+     */
+    private FileBlob lockOrCreate(StagedObject staged) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (!blobRepository.existsById(staged.sha256())) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, staged.sha256(), staged.size(),
+                            storageService.blobPath(staged.sha256()), Timestamp.valueOf(LocalDateTime.now()));
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("Blob {} creato in parallelo da un altro caricamento", staged.sha256());
+                }
+            }
+            Optional<FileBlob> blob = blobRepository.findForUpdate(staged.sha256());
+            if (blob.isPresent()) return blob.get();
+        }
+        // Solo se chi aveva creato la riga ha annullato la propria transazione a ogni tentativo
+        throw new ConflictException("Lo stesso file è in fase di caricamento, riprovare");
+    }
+
+    /**
+     * Rimuove un riferimento al blob; all'ultimo riferimento il contenuto fisico viene rimosso dopo il commit.
+     *
+     * @return {@code false} se non esiste un blob referenziato con questa impronta (file salvati prima
+     * dell'archivio).
+     */
+    public boolean release(String sha256) {
+        if (sha256 == null) return false;
+        Optional<FileBlob> existing = blobRepository.findForUpdate(sha256);
+        if (existing.isEmpty() || existing.get().getRefCount() <= 0) return false;
+
+        FileBlob blob = existing.get();
+        blob.setRefCount(blob.getRefCount() - 1);
+        if (blob.getRefCount() == 0) {
+            eventPublisher.publishEvent(new FileBlobReleasedEvent(blob.getSha256(), blob.getStoragePath()));
+        }
+        return true;
+    }
+
+    /**
+     * Verifica del contatore ed eliminazione sotto il lock della riga, in una transazione propria: un
+     * caricamento non ancora confermato tiene il lock, quindi viene atteso invece di essere ignorato.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBlobReleased(FileBlobReleasedEvent event) {
+        Boolean deleted = requiresNew.execute(status -> {
+            Optional<FileBlob> blob = blobRepository.findForUpdate(event.sha256());
+            if (blob.isEmpty() || blob.get().getRefCount() > 0) return false;
+            storageService.delete(event.storagePath());
+            return true;
+        });
+        if (Boolean.TRUE.equals(deleted)) {
+            log.info("Blob {} rimosso: nessun file lo referenzia più", event.sha256());
+        }
+    }
+}
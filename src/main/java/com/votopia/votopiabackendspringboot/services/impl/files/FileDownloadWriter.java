@@ -0,0 +1,175 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
+import com.votopia.votopiabackendspringboot.services.files.FileDownload;
+import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Scrive il contenuto di un file nella risposta HTTP con ETag, richieste condizionali e Range.
+ * <p>
+ * {@code If-None-Match} viene confrontato con l'ETag letto dal database prima di accedere al disco.
+ * Con il backend locale il contenuto viene inviato con sendfile quando il container lo supporta (Tomcat NIO),
+ * altrimenti con {@link FileChannel#transferTo}; con un backend remoto lo stream dell'intervallo richiesto
+ * viene copiato a blocchi. In nessun caso il file passa per intero dalla heap.
+ * È supportato un singolo intervallo {@code bytes=}; con più intervalli viene inviato il file completo.
+ * </p>
+ * <p>
+ * Il tipo MIME è dichiarato da chi carica il file: solo immagini raster e PDF vengono inviati {@code inline}
+ * con il loro tipo. Tutto il resto (HTML, SVG, XML, script...) viene scaricato come allegato
+ * {@code application/octet-stream}, così nessun contenuto caricato può eseguire script sull'origine dell'API.
+ * </p>
+ */
+@Component
+public class FileDownloadWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Solo cache private: i file sono visibili dopo un controllo dei permessi
+    private static final String CACHE_IMMUTABLE = "private, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "private, no-cache";
+
+    private static final Set<String> INLINE_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/bmp", "application/pdf");
+
+    @Autowired
+    private StorageService storageService;
+
+    public void write(FileDownload download, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, download.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, download.immutable() ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), download.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        Path path = storageService.localPath(download.storagePath()).orElse(null);
+        long size;
+        if (path != null) {
+            if (!Files.isRegularFile(path)) throw new NotFoundException("Contenuto del file non trovato");
+            size = Files.size(path);
+        } else {
+            size = storageService.stat(download.storagePath())
+                    .orElseThrow(() -> new NotFoundException("Contenuto del file non trovato"))
+                    .size();
+        }
+
+        long start = 0;
+        long end = size - 1;
+        HttpRange range = requestedRange(request, download.etag());
+        if (range != null) {
+            if (size == 0 || range.getRangeStart(size) >= size) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = end - start + 1;
+
+        String inlineType = inlineType(download.mimeType());
+        response.setContentType(inlineType != null ? inlineType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+        ContentDisposition.Builder disposition = inlineType != null ? ContentDisposition.inline() : ContentDisposition.attachment();
+        if (download.name() != null) disposition.filename(download.name(), StandardCharsets.UTF_8);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.build().toString());
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+        if (path == null) {
+            try (InputStream in = storageService.open(download.storagePath(), start, end)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Il container invia il file dal kernel dopo il ritorno del controller (fine esclusiva)
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Tipo da inviare inline (senza parametri, minuscolo), oppure {@code null} se il file va scaricato come allegato.
+     */
+    private static String inlineType(String mimeType) {
+        if (mimeType == null) return null;
+        String type = mimeType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return INLINE_TYPES.contains(type) ? type : null;
+    }
+
+    /**
+     * Intervallo richiesto, oppure {@code null} se va inviato il file completo (nessun Range,
+     * più intervalli, oppure {@code If-Range} che non corrisponde più all'ETag corrente).
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) return null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.trim().equals(etag)) return null;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    /**
+     * Confronto debole di {@code If-None-Match} (RFC 9110): "*" oppure uno degli ETag elencati.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        if (ifNoneMatch.trim().equals("*")) return true;
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(etag::equals);
+    }
+}
@@ -2,6 +2,8 @@ package com.votopia.votopiabackendspringboot.services.impl.files;
 
 import com.votopia.votopiabackendspringboot.dtos.file.FileSummaryDto;
 import com.votopia.votopiabackendspringboot.entities.files.File;
+import com.votopia.votopiabackendspringboot.entities.files.FileDerivative;
+import com.votopia.votopiabackendspringboot.entities.files.FileCategory;
 import com.votopia.votopiabackendspringboot.entities.lists.List;
 import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
 import com.votopia.votopiabackendspringboot.entities.auth.User;
@@ -9,22 +11,30 @@ import com.votopia.votopiabackendspringboot.exceptions.BadRequestException;
 import com.votopia.votopiabackendspringboot.exceptions.ForbiddenException;
 import com.votopia.votopiabackendspringboot.exceptions.InternalServerException;
 import com.votopia.votopiabackendspringboot.exceptions.NotFoundException;
+import com.votopia.votopiabackendspringboot.repositories.files.FileCategoryRepository;
+import com.votopia.votopiabackendspringboot.repositories.files.FileDerivativeRepository;
 import com.votopia.votopiabackendspringboot.repositories.files.FileRepository;
 import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
-import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import com.votopia.votopiabackendspringboot.services.files.FileDownload;
 import com.votopia.votopiabackendspringboot.services.files.FileService;
+import com.votopia.votopiabackendspringboot.services.files.FileUploadedEvent;
+import com.votopia.votopiabackendspringboot.services.auth.AuthService;
 import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.files.StagedObject;
 import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import com.votopia.votopiabackendspringboot.services.log.AuditAction;
+import com.votopia.votopiabackendspringboot.services.log.AuditService;
 import io.micrometer.common.lang.Nullable;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.time.ZoneOffset;
 
 @Service
 @Slf4j
@@ -33,7 +43,7 @@ public class FileServiceImpl implements FileService {
     private final long MAX_FILE_SIZE_BYTES = 10 * 1024 * 1024; // 10MB esempio
 
     @Autowired
-    private UserRepository userRepository;
+    private AuthService authService;
     @Autowired
     private PermissionService permissionService;
     @Autowired
@@ -41,7 +51,19 @@ public class FileServiceImpl implements FileService {
     @Autowired
     private FileRepository fileRepository;
     @Autowired
+    private FileCategoryRepository fileCategoryRepository;
+    @Autowired
     private StorageService storageService;
+    @Autowired
+    private FileBlobStore fileBlobStore;
+    @Autowired
+    private FileDerivativeRepository derivativeRepository;
+    @Autowired
+    private ImageDerivativePipeline imageDerivativePipeline;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private AuditService auditService;
 
     @Override
     @Transactional
@@ -50,11 +72,8 @@ public class FileServiceImpl implements FileService {
         if (file.isEmpty()) throw new BadRequestException("File mancante");
         if (file.getSize() > MAX_FILE_SIZE_BYTES) throw new BadRequestException("Dimensione file eccessiva");
 
-        User user = userRepository.findById(authUserId)
-                .orElseThrow(() -> new NotFoundException("Utente non trovato"));
-
+        User user = authService.getAuthenticatedUser(authUserId);
         Organization org = user.getOrg();
-        if (org == null) throw new ForbiddenException("Utente senza organizzazione");
 
         // 2. Controllo Permessi (Logica simile a Role/List)
         boolean canOrg = permissionService.hasPermission(authUserId, "add_file_organization");
@@ -72,23 +91,27 @@ public class FileServiceImpl implements FileService {
             throw new ForbiddenException("Permesso add_file_organization richiesto per caricamento root");
         }
 
+        // La colonna category_id è obbligatoria: senza categoria l'INSERT fallirebbe dopo aver salvato il contenuto
+        if (categoryId == null) throw new BadRequestException("Categoria del file obbligatoria");
+        FileCategory category = fileCategoryRepository.findById(categoryId)
+                .orElseThrow(() -> new NotFoundException("Categoria non trovata"));
+
         // 3. Salvataggio Fisico
+        // Contenuto indirizzato per SHA-256: lo stesso file caricato più volte occupa un solo blob,
+        // organizzazione/lista/categoria restano sulla riga "files"
         String fileNameOriginal = file.getOriginalFilename();
-        String extension = StringUtils.getFilenameExtension(fileNameOriginal);
-        String uniqueName = UUID.randomUUID().toString() + "." + (extension != null ? extension : "bin");
-
-        // Path logico: uploads/{orgId}/{listId or "org"}/{catId}/{uuid}
-        String storageFolder = String.format("uploads/%d/%s/%s",
-                org.getId(),
-                listId != null ? listId : "org",
-                categoryId != null ? categoryId : "0");
-
-        String finalPath = storageFolder + "/" + uniqueName;
 
+        StagedObject staged = null;
+        StoredObject stored;
         try {
-            // Qui invocheresti un servizio di storage (S3 o FileSystem locale)
-            storageService.save(file.getBytes(), finalPath);
+            // Il file temporaneo del multipart viene spostato, non copiato in memoria
+            staged = storageService.stage(file);
+            stored = fileBlobStore.acquire(staged);
+        } catch (RuntimeException e) {
+            if (staged != null) storageService.discard(staged);
+            throw e;
         } catch (IOException e) {
+            if (staged != null) storageService.discard(staged);
             log.error("Errore I/O durante salvataggio file: {}", e.getMessage());
             throw new InternalServerException("Impossibile salvare il file fisicamente");
         }
@@ -99,29 +122,92 @@ public class FileServiceImpl implements FileService {
         newFile.setOrg(org);
         newFile.setList(listTarget);
         newFile.setUser(user);
-        newFile.setFilePath(finalPath);
+        newFile.setFilePath(stored.path());
         newFile.setMimeType(file.getContentType());
-        // Se hai una categoria, la setti qui
-
-        return new FileSummaryDto(fileRepository.save(newFile));
+        newFile.setSizeBytes(stored.size());
+        newFile.setSha256(stored.sha256());
+        newFile.setFileCategory(category);
+
+        File savedFile = fileRepository.save(newFile);
+        // Miniature delle immagini generate in background dopo il commit
+        eventPublisher.publishEvent(new FileUploadedEvent(savedFile.getId(), stored.sha256(), stored.path(), newFile.getMimeType()));
+        auditService.record(AuditAction.FILE_UPLOAD, authUserId, "File caricato: ID " + savedFile.getId());
+        return new FileSummaryDto(savedFile);
     }
 
     @Override
     @Transactional
     public void deleteFile(Long fileId, Long authUserId) {
-        // 1. Recupero Utente e File
-        User authUser = userRepository.findById(authUserId)
-                .orElseThrow(() -> new NotFoundException("Utente non trovato"));
+        // 1-2. Recupero Utente e File, controllo Multi-tenancy
+        User authUser = authService.getAuthenticatedUser(authUserId);
+        File fileTarget = findInOrg(fileId, authUser);
 
-        File fileTarget = fileRepository.findById(fileId)
-                .orElseThrow(() -> new NotFoundException("File non trovato"));
+        // 3. Verifica Autorizzazione (3 Livelli)
+        if (!canManage(fileTarget, authUserId)) {
+            throw new ForbiddenException("Non hai i permessi per eliminare questo file.");
+        }
 
-        // 2. Controllo Multi-tenancy
-        if (!fileTarget.getOrg().getId().equals(authUser.getOrg().getId())) {
-            throw new ForbiddenException("Il file appartiene a un'altra organizzazione.");
+        // 4. Cancellazione
+        // 4.1 Rimuoviamo il record dal DB
+        fileRepository.delete(fileTarget);
+        auditService.record(AuditAction.FILE_DELETE, authUserId, "File eliminato: ID " + fileId);
+
+        // 4.2 Rilasciamo il blob: il contenuto fisico sparisce (dopo il commit) solo con l'ultimo riferimento.
+        // I file salvati prima dell'archivio per contenuto non hanno un blob: senza più righe che li
+        // referenziano vengono rimossi in background da StorageReconciler, fuori dalla richiesta.
+        fileBlobStore.release(fileTarget.getSha256());
+    }
+
+    @Override
+    @Transactional
+    public FileDownload prepareDownload(Long fileId, @Nullable Integer size, Long authUserId) {
+        User authUser = authService.getAuthenticatedUser(authUserId);
+        File fileTarget = findInOrg(fileId, authUser);
+
+        // File di lista: membri della lista o chi può gestire il file; file di organizzazione: tutti i membri
+        List list = fileTarget.getList();
+        if (list != null && authUser.getLists().stream().noneMatch(l -> l.getId().equals(list.getId()))
+                && !canManage(fileTarget, authUserId)) {
+            throw new ForbiddenException("Non hai i permessi per scaricare questo file.");
         }
 
-        // 3. Verifica Autorizzazione (3 Livelli)
+        // I blob indirizzati per contenuto non cambiano mai: l'impronta è un ETag forte
+        String sha256 = fileTarget.getSha256();
+        boolean immutable = sha256 != null && fileTarget.getFilePath().equals(storageService.blobPath(sha256));
+        if (size != null && immutable && ImageDerivativePipeline.isSupported(fileTarget.getMimeType())) {
+            FileDownload derivative = derivativeDownload(fileTarget, size);
+            if (derivative != null) return derivative;
+        }
+
+        String etag = sha256 != null
+                ? "\"" + sha256 + "\""
+                : "\"f" + fileTarget.getId() + "-" + (fileTarget.getUploadedAt() != null
+                        ? fileTarget.getUploadedAt().toEpochSecond(ZoneOffset.UTC) : 0) + "\"";
+        return new FileDownload(fileTarget.getName(), fileTarget.getMimeType(), fileTarget.getFilePath(), etag, immutable);
+    }
+
+    /**
+     * Miniatura più piccola con lato almeno {@code size}. Se le derivate non esistono ancora (coda piena,
+     * immagini precedenti alla pipeline) la generazione viene richiesta ora; se nessuna è abbastanza grande
+     * o l'originale non ne richiede (segnaposto della pipeline) si serve direttamente l'originale.
+     */
+    private FileDownload derivativeDownload(File fileTarget, int size) {
+        java.util.List<FileDerivative> derivatives = derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(fileTarget.getSha256());
+        if (derivatives.isEmpty()) {
+            imageDerivativePipeline.submit(fileTarget.getSha256(), fileTarget.getFilePath());
+            return null;
+        }
+        FileDerivative chosen = ImageDerivativePipeline.forSize(derivatives, size);
+        if (chosen == null) return null;
+        return new FileDownload(fileTarget.getName(), chosen.getMimeType(), chosen.getStoragePath(),
+                "\"" + fileTarget.getSha256() + "-" + chosen.getMaxSize() + "\"", true);
+    }
+
+    /**
+     * Autorizzazione alla gestione di un file (3 livelli): permesso di organizzazione, permesso sulla lista
+     * del file oppure proprietario.
+     */
+    private boolean canManage(File fileTarget, Long authUserId) {
         boolean authorized = false;
 
         // Livello 1: Permesso Org
@@ -138,25 +224,15 @@ public class FileServiceImpl implements FileService {
         else if (fileTarget.getUser().getId().equals(authUserId)) {
             authorized = true;
         }
+        return authorized;
+    }
 
-        if (!authorized) {
-            throw new ForbiddenException("Non hai i permessi per eliminare questo file.");
-        }
-
-        // 4. Cancellazione
-        String pathToDelete = fileTarget.getFilePath();
-
-        // 4.1 Rimuoviamo il record dal DB
-        fileRepository.delete(fileTarget);
-
-        // 4.2 Rimuoviamo il file fisico (StorageService)
-        // Usiamo un blocco try-catch interno per non fare rollback del DB se il file fisico
-        // è già sparito o il disco ha un problema momentaneo (evita file orfani nel DB)
-        try {
-            storageService.delete(pathToDelete);
-        } catch (Exception e) {
-            log.warn("Cancellazione fisica fallita per il percorso: {}. Errore: {}", pathToDelete, e.getMessage());
-            // Nota: Il record DB è già segnato per l'eliminazione al commit della transazione.
+    private File findInOrg(Long fileId, User authUser) {
+        File fileTarget = fileRepository.findById(fileId)
+                .orElseThrow(() -> new NotFoundException("File non trovato"));
+        if (!fileTarget.getOrg().getId().equals(authUser.getOrg().getId())) {
+            throw new ForbiddenException("Il file appartiene a un'altra organizzazione.");
         }
+        return fileTarget;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,319 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.entities.files.FileDerivative;
+import com.votopia.votopiabackendspringboot.repositories.files.FileBlobRepository;
+import com.votopia.votopiabackendspringboot.repositories.files.FileDerivativeRepository;
+import com.votopia.votopiabackendspringboot.services.files.FileBlobReleasedEvent;
+import com.votopia.votopiabackendspringboot.services.files.FileUploadedEvent;
+import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import io.micrometer.common.lang.Nullable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera in background le versioni ridotte (miniature) delle immagini caricate.
+ * <p>
+ * Dopo il commit dell'upload l'immagine viene messa in coda su un pool di thread limitato; se la coda è piena
+ * il lavoro viene scartato e ripreso alla prima richiesta di una miniatura. La decodifica usa il
+ * sotto-campionamento di ImageIO, quindi anche una foto molto grande occupa in memoria al più qualche volta
+ * la derivata più grande. Le derivate non superano mai l'originale (nessun ingrandimento) e sono legate al
+ * contenuto: vengono eliminate quando il blob originale viene rilasciato. Un originale che non ne richiede
+ * nessuna riceve una riga segnaposto ({@link #ORIGINAL_ONLY}), così non viene riletto a ogni richiesta.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ImageDerivativePipeline {
+
+    private static final Set<String> SUPPORTED_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/bmp");
+    /**
+     * {@code max_size} della riga segnaposto: nessuna derivata da generare, si serve l'originale.
+     */
+    static final int ORIGINAL_ONLY = 0;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final StorageService storageService;
+    private final FileDerivativeRepository derivativeRepository;
+    private final FileBlobRepository blobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int[] sizes;
+    // Contenuti già in coda o in lavorazione: lo stesso blob non viene elaborato due volte in parallelo
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativePipeline(
+            StorageService storageService,
+            FileDerivativeRepository derivativeRepository,
+            FileBlobRepository blobRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${votopia.images.derivative-sizes:64,256,1024}") int[] sizes,
+            @Value("${votopia.images.workers:2}") int workers,
+            @Value("${votopia.images.queue-capacity:200}") int queueCapacity) {
+        this.storageService = storageService;
+        this.derivativeRepository = derivativeRepository;
+        this.blobRepository = blobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static boolean isSupported(String mimeType) {
+        return mimeType != null && SUPPORTED_TYPES.contains(mimeType.toLowerCase());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileUploaded(FileUploadedEvent event) {
+        if (isSupported(event.mimeType())) submit(event.sha256(), event.storagePath());
+    }
+
+    /**
+     * Mette in coda la generazione delle derivate del contenuto indicato.
+     *
+     * @return {@code false} se il contenuto è già in lavorazione o la coda è piena.
+     */
+    public boolean submit(String sha256, String storagePath) {
+        if (!inFlight.add(sha256)) return false;
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(sha256, storagePath);
+                } catch (Exception e) {
+                    log.warn("Generazione miniature fallita per {}: {}", sha256, e.getMessage());
+                } finally {
+                    inFlight.remove(sha256);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(sha256);
+            log.warn("Coda delle miniature piena, {} rinviato alla prima richiesta", sha256);
+            return false;
+        }
+    }
+
+    /**
+     * Decodifica l'originale una sola volta e produce le derivate dalla più grande alla più piccola,
+     * ognuna ricavata dalla precedente.
+     */
+    void generate(String sha256, String storagePath) throws IOException {
+        if (derivativeRepository.existsBySourceSha256(sha256)) return;
+
+        BufferedImage source;
+        Optional<Path> local = storageService.localPath(storagePath);
+        if (local.isPresent()) {
+            // Backend locale: ImageIO legge direttamente dal file, senza copiarlo
+            source = readSubsampled(local.get().toFile(), sizes[sizes.length - 1]);
+        } else {
+            // Backend remoto: l'originale viene letto in streaming e ImageIO lo bufferizza su file temporaneo
+            try (InputStream raw = storageService.open(storagePath, 0, -1)) {
+                source = readSubsampled(raw, sizes[sizes.length - 1]);
+            }
+        }
+        if (source == null) {
+            // Formato non decodificabile: il segnaposto evita di riprovare a ogni richiesta
+            saveAll(sha256, java.util.List.of(originalOnly(sha256, 0, 0)));
+            return;
+        }
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg";
+        String mimeType = alpha ? "image/png" : "image/jpeg";
+        int originalSide = Math.max(source.getWidth(), source.getHeight());
+
+        java.util.List<FileDerivative> derivatives = new ArrayList<>();
+        BufferedImage current = source;
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            int maxSize = sizes[i];
+            if (maxSize >= originalSide) continue;
+            current = scale(current, maxSize, alpha);
+            byte[] encoded = encode(current, format);
+            StoredObject stored = storageService.save(new ByteArrayInputStream(encoded), derivativePath(sha256, maxSize, format));
+            derivatives.add(new FileDerivative(null, sha256, maxSize, current.getWidth(), current.getHeight(),
+                    stored.path(), mimeType, stored.size(), null));
+        }
+        if (derivatives.isEmpty()) {
+            // Originale già più piccolo di ogni dimensione: le richieste ?size= lo servono senza rielaborarlo
+            derivatives.add(originalOnly(sha256, source.getWidth(), source.getHeight()));
+        }
+        if (saveAll(sha256, derivatives)) {
+            log.info("Generate {} miniature per {}", derivatives.stream().filter(d -> !isOriginalOnly(d)).count(), sha256);
+        }
+    }
+
+    /**
+     * {@code true} per la riga segnaposto di un originale che non ha derivate (più piccolo di tutte le
+     * dimensioni o non decodificabile): non ha contenuto nello storage.
+     */
+    static boolean isOriginalOnly(FileDerivative derivative) {
+        return derivative.getMaxSize() == ORIGINAL_ONLY;
+    }
+
+    /**
+     * Derivata più piccola con lato almeno {@code size} tra quelle di un originale (in ordine di dimensione),
+     * oppure {@code null} se nessuna basta: l'originale è già il più piccolo contenuto adatto alla richiesta.
+     */
+    @Nullable
+    static FileDerivative forSize(java.util.List<FileDerivative> derivatives, int size) {
+        return derivatives.stream()
+                .filter(d -> !isOriginalOnly(d))
+                .filter(d -> d.getMaxSize() >= size)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private boolean saveAll(String sha256, java.util.List<FileDerivative> derivatives) {
+        Boolean saved = transactionTemplate.execute(status -> {
+            // Il blob potrebbe essere stato rilasciato durante l'elaborazione
+            if (!blobRepository.isReferenced(sha256) || derivativeRepository.existsBySourceSha256(sha256)) return false;
+            derivativeRepository.saveAll(derivatives);
+            return true;
+        });
+        if (Boolean.TRUE.equals(saved)) return true;
+        deleteStored(derivatives);
+        return false;
+    }
+
+    private void deleteStored(java.util.List<FileDerivative> derivatives) {
+        derivatives.stream().filter(d -> !isOriginalOnly(d)).forEach(d -> storageService.delete(d.getStoragePath()));
+    }
+
+    private static FileDerivative originalOnly(String sha256, int width, int height) {
+        return new FileDerivative(null, sha256, ORIGINAL_ONLY, width, height, "", "application/octet-stream", 0L, null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBlobReleased(FileBlobReleasedEvent event) {
+        if (blobRepository.isReferenced(event.sha256())) return;
+        java.util.List<FileDerivative> derivatives = derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(event.sha256());
+        if (derivatives.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> derivativeRepository.deleteAllBySourceSha256(event.sha256()));
+        deleteStored(derivatives);
+    }
+
+    /**
+     * Legge l'immagine sotto-campionata in modo che il lato maggiore resti almeno il doppio della derivata
+     * più grande: la qualità finale non cambia, la memoria per la decodifica sì.
+     *
+     * @param input {@link java.io.File} oppure {@link InputStream}, come accettato da {@link ImageIO#createImageInputStream}.
+     */
+    private static BufferedImage readSubsampled(Object input, int largestSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(input)) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int side = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, side / (largestSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Riduzione a passi di metà fino al lato richiesto: con l'interpolazione bilineare evita l'aliasing
+     * dei fattori di riduzione grandi.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxSize, boolean alpha) {
+        int side = Math.max(image.getWidth(), image.getHeight());
+        double ratio = (double) maxSize / side;
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpg".equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String derivativePath(String sha256, int maxSize, String format) {
+        return "derivatives/" + sha256.substring(0, 2) + "/" + sha256 + "/" + maxSize + "." + format;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "image-derivative-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
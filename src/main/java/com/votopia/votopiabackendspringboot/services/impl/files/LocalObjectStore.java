@@ -0,0 +1,116 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.services.files.ObjectStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Backend su filesystem locale (default): gli oggetti sono file sotto {@code storage.location}.
+ * La scrittura è una rename atomica del file in staging, che sta sullo stesso filesystem.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalObjectStore implements ObjectStore {
+
+    private final Path root;
+
+    public LocalObjectStore(@Value("${storage.location}") String rootLocation) {
+        this.root = Paths.get(rootLocation);
+    }
+
+    @Override
+    public void put(String key, Path source, long size) throws IOException {
+        Path target = root.resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long start, long end) throws IOException {
+        Path path = root.resolve(key);
+        long length = end < 0 ? Files.size(path) - start : end - start + 1;
+        return BoundedInputStream.ofFileRegion(path, start, length);
+    }
+
+    @Override
+    public Optional<ObjectInfo> head(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(root.resolve(key), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) return Optional.empty();
+            return Optional.of(new ObjectInfo(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(root.resolve(key));
+    }
+
+    @Override
+    public List<ObjectInfo> list(String prefix) throws IOException {
+        Path base = root.resolve(prefix);
+        Path dir = Files.isDirectory(base) ? base : base.getParent();
+        if (dir == null || !Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(Files::isRegularFile)
+                    .map(path -> {
+                        try {
+                            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                            return new ObjectInfo(key(path), attributes.size(), attributes.lastModifiedTime().toInstant());
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    })
+                    .filter(info -> info != null && info.key().startsWith(prefix) && !isInternal(info.key()))
+                    .sorted(Comparator.comparing(ObjectInfo::key))
+                    .toList();
+        }
+    }
+
+    @Override
+    public List<String> listPrefixes(String prefix) throws IOException {
+        Path dir = root.resolve(prefix);
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> children = Files.list(dir)) {
+            return children.filter(Files::isDirectory)
+                    .map(path -> key(path) + "/")
+                    .filter(key -> !isInternal(key))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(root.resolve(key));
+    }
+
+    private String key(Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static boolean isInternal(String key) {
+        return key.startsWith(".");
+    }
+}
@@ -0,0 +1,330 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.services.files.ObjectStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backend S3 (AWS o compatibili: MinIO, Ceph, R2...), attivo con {@code storage.backend=s3}.
+ * <p>
+ * Usa direttamente l'API REST con firma SigV4 sul client HTTP del JDK, senza SDK. Gli oggetti fino a
+ * {@code storage.s3.part-size} vengono caricati con un singolo PUT in streaming dal file in staging; quelli più
+ * grandi con un upload multipart le cui parti (regioni del file, mai in memoria per intero) partono in parallelo
+ * al massimo {@code storage.s3.upload-parallelism} alla volta. Un upload multipart fallito viene annullato per non
+ * lasciare parti a pagamento. In modalità virtual thread ogni parte ha il proprio virtual thread (l'attesa sulla
+ * rete non occupa thread di sistema); il limite resta quello del semaforo.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+public class S3ObjectStore implements ObjectStore {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+    // Limiti di S3 per le parti di un upload multipart (l'ultima parte può essere più piccola)
+    static final DataSize MIN_PART_SIZE = DataSize.ofMegabytes(5);
+    static final DataSize MAX_PART_SIZE = DataSize.ofGigabytes(5);
+
+    private final HttpClient http;
+    private final S3RequestSigner signer;
+    private final URI endpoint;
+    private final String bucket;
+    private final boolean pathStyle;
+    private final long partSize;
+    private final ExecutorService uploadExecutor;
+    private final Semaphore uploadSlots;
+
+    public S3ObjectStore(
+            @Value("${storage.s3.endpoint}") String endpoint,
+            @Value("${storage.s3.region:us-east-1}") String region,
+            @Value("${storage.s3.bucket}") String bucket,
+            @Value("${storage.s3.access-key}") String accessKey,
+            @Value("${storage.s3.secret-key}") String secretKey,
+            @Value("${storage.s3.path-style:true}") boolean pathStyle,
+            @Value("${storage.s3.part-size:8MB}") DataSize partSize,
+            @Value("${storage.s3.upload-parallelism:4}") int uploadParallelism,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (partSize.compareTo(MIN_PART_SIZE) < 0 || partSize.compareTo(MAX_PART_SIZE) > 0) {
+            throw new IllegalArgumentException("storage.s3.part-size deve essere tra 5MB e 5GB (limiti delle parti S3): " + partSize);
+        }
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.pathStyle = pathStyle;
+        this.partSize = partSize.toBytes();
+        this.signer = new S3RequestSigner(accessKey, secretKey, region);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.uploadExecutor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("s3-upload-", 1).factory())
+                : Executors.newFixedThreadPool(uploadParallelism, daemonThreads());
+        this.uploadSlots = new Semaphore(uploadParallelism);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        uploadExecutor.shutdownNow();
+    }
+
+    @Override
+    public void put(String key, Path source, long size) throws IOException {
+        if (size <= partSize) {
+            HttpResponse<String> response = send("PUT", key, Map.of(), Map.of(),
+                    HttpRequest.BodyPublishers.ofFile(source), HttpResponse.BodyHandlers.ofString());
+            check(response, "PUT", key);
+        } else {
+            putMultipart(key, source, size);
+        }
+    }
+
+    private void putMultipart(String key, Path source, long size) throws IOException {
+        HttpResponse<String> created = send("POST", key, Map.of("uploads", ""), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        check(created, "POST uploads", key);
+        String uploadId = firstText(parse(created.body()).getDocumentElement(), "UploadId");
+
+        int parts = (int) ((size + partSize - 1) / partSize);
+        List<CompletableFuture<String>> etags = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            int partNumber = i + 1;
+            long offset = i * partSize;
+            long length = Math.min(partSize, size - offset);
+            etags.add(CompletableFuture.supplyAsync(() -> uploadPart(key, uploadId, partNumber, source, offset, length), uploadExecutor));
+        }
+
+        try {
+            StringBuilder body = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < parts; i++) {
+                body.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(etags.get(i).join()).append("</ETag></Part>");
+            }
+            body.append("</CompleteMultipartUpload>");
+
+            HttpResponse<String> completed = send("POST", key, Map.of("uploadId", uploadId), Map.of(),
+                    HttpRequest.BodyPublishers.ofString(body.toString()), HttpResponse.BodyHandlers.ofString());
+            // S3 può rispondere 200 con un <Error> nel corpo
+            if (completed.statusCode() != 200 || completed.body().contains("<Error>")) {
+                throw new IOException("S3 complete multipart " + key + ": HTTP " + completed.statusCode());
+            }
+            log.debug("Upload multipart completato: {} ({} parti)", key, parts);
+        } catch (IOException | RuntimeException e) {
+            etags.forEach(future -> future.cancel(true));
+            abort(key, uploadId);
+            if (e instanceof CompletionException ce && ce.getCause() instanceof IOException io) throw io;
+            throw e;
+        }
+    }
+
+    private String uploadPart(String key, String uploadId, int partNumber, Path source, long offset, long length) {
+        try {
+            uploadSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(new InterruptedIOException("Upload della parte " + partNumber + " interrotto"));
+        }
+        try {
+            HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                    HttpRequest.BodyPublishers.ofInputStream(() -> {
+                        try {
+                            return BoundedInputStream.ofFileRegion(source, offset, length);
+                        } catch (IOException e) {
+                            throw new java.io.UncheckedIOException(e);
+                        }
+                    }), length);
+            HttpResponse<Void> response = send("PUT", key,
+                    Map.of("partNumber", String.valueOf(partNumber), "uploadId", uploadId), Map.of(),
+                    body, HttpResponse.BodyHandlers.discarding());
+            check(response, "PUT part " + partNumber, key);
+            return response.headers().firstValue("ETag")
+                    .orElseThrow(() -> new IOException("ETag mancante per la parte " + partNumber));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        } finally {
+            uploadSlots.release();
+        }
+    }
+
+    private void abort(String key, String uploadId) {
+        try {
+            send("DELETE", key, Map.of("uploadId", uploadId), Map.of(),
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            log.warn("Annullamento upload multipart {} fallito: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream get(String key, long start, long end) throws IOException {
+        Map<String, String> headers = start == 0 && end < 0
+                ? Map.of()
+                : Map.of("Range", "bytes=" + start + "-" + (end < 0 ? "" : String.valueOf(end)));
+        HttpResponse<InputStream> response = send("GET", key, Map.of(), headers,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 200 || response.statusCode() == 206) return response.body();
+        response.body().close();
+        if (response.statusCode() == 404) throw new NoSuchFileException(key);
+        throw new IOException("S3 GET " + key + ": HTTP " + response.statusCode());
+    }
+
+    @Override
+    public Optional<ObjectInfo> head(String key) throws IOException {
+        HttpResponse<Void> response = send("HEAD", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) return Optional.empty();
+        check(response, "HEAD", key);
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        Instant lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                .orElse(Instant.EPOCH);
+        return Optional.of(new ObjectInfo(key, size, lastModified));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send("DELETE", key, Map.of(), Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 404) check(response, "DELETE", key);
+    }
+
+    @Override
+    public List<ObjectInfo> list(String prefix) throws IOException {
+        List<ObjectInfo> objects = new ArrayList<>();
+        String token = null;
+        do {
+            Element result = listPage(prefix, null, token);
+            NodeList contents = result.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength(); i++) {
+                Element item = (Element) contents.item(i);
+                String key = firstText(item, "Key");
+                if (prefix.isEmpty() && key.startsWith(".")) continue;
+                objects.add(new ObjectInfo(key, Long.parseLong(firstText(item, "Size")),
+                        Instant.parse(firstText(item, "LastModified"))));
+            }
+            token = "true".equals(firstText(result, "IsTruncated")) ? firstText(result, "NextContinuationToken") : null;
+        } while (token != null);
+        objects.sort(Comparator.comparing(ObjectInfo::key));
+        return objects;
+    }
+
+    @Override
+    public List<String> listPrefixes(String prefix) throws IOException {
+        List<String> prefixes = new ArrayList<>();
+        String token = null;
+        do {
+            Element result = listPage(prefix, "/", token);
+            NodeList common = result.getElementsByTagName("CommonPrefixes");
+            for (int i = 0; i < common.getLength(); i++) {
+                String child = firstText((Element) common.item(i), "Prefix");
+                if (prefix.isEmpty() && child.startsWith(".")) continue;
+                prefixes.add(child);
+            }
+            token = "true".equals(firstText(result, "IsTruncated")) ? firstText(result, "NextContinuationToken") : null;
+        } while (token != null);
+        prefixes.sort(Comparator.naturalOrder());
+        return prefixes;
+    }
+
+    private Element listPage(String prefix, String delimiter, String token) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        query.put("list-type", "2");
+        query.put("prefix", prefix);
+        if (delimiter != null) query.put("delimiter", delimiter);
+        if (token != null) query.put("continuation-token", token);
+        HttpResponse<String> response = send("GET", "", query, Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        check(response, "LIST", prefix);
+        return parse(response.body()).getDocumentElement();
+    }
+
+    private <T> HttpResponse<T> send(String method, String key, Map<String, String> query, Map<String, String> headers,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        URI uri = uri(key, query);
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .method(method, body);
+        signer.sign(method, uri, query, ZonedDateTime.now()).forEach(request::header);
+        headers.forEach(request::header);
+        try {
+            return http.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Richiesta S3 interrotta: " + method + " " + key);
+        }
+    }
+
+    private URI uri(String key, Map<String, String> query) {
+        String path = pathStyle ? "/" + bucket + (key.isEmpty() ? "" : "/" + S3RequestSigner.encode(key, false))
+                : "/" + S3RequestSigner.encode(key, false);
+        String authority = pathStyle ? endpoint.getRawAuthority() : bucket + "." + endpoint.getRawAuthority();
+        String queryString = S3RequestSigner.canonicalQuery(query);
+        return URI.create(endpoint.getScheme() + "://" + authority + path + (queryString.isEmpty() ? "" : "?" + queryString));
+    }
+
+    private static void check(HttpResponse<?> response, String operation, String key) throws IOException {
+        if (response.statusCode() >= 300) {
+            throw new IOException("S3 " + operation + " " + key + ": HTTP " + response.statusCode());
+        }
+    }
+
+    private static Document parse(String xml) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IOException("Risposta S3 non valida", e);
+        }
+    }
+
+    private static String firstText(Element parent, String tag) {
+        NodeList nodes = parent.getElementsByTagName(tag);
+        return nodes.getLength() == 0 ? null : nodes.item(0).getTextContent();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "s3-upload-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
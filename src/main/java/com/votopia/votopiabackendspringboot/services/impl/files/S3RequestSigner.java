@@ -0,0 +1,125 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Firma AWS Signature Version 4 per le richieste S3, con payload non firmato ({@code UNSIGNED-PAYLOAD}):
+ * i corpi vengono inviati in streaming senza doverli leggere due volte per calcolarne l'hash.
+ */
+final class S3RequestSigner {
+
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    S3RequestSigner(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * Header da aggiungere alla richiesta: {@code x-amz-date}, {@code x-amz-content-sha256} e {@code Authorization}.
+     *
+     * @param query Parametri della query già decodificati (vengono codificati qui in forma canonica).
+     */
+    Map<String, String> sign(String method, URI uri, Map<String, String> query, ZonedDateTime now) {
+        return sign(method, uri, query, now, UNSIGNED_PAYLOAD);
+    }
+
+    /**
+     * Come {@link #sign(String, URI, Map, ZonedDateTime)} con l'hash SHA-256 esadecimale del corpo già calcolato.
+     */
+    Map<String, String> sign(String method, URI uri, Map<String, String> query, ZonedDateTime now, String payloadHash) {
+        ZonedDateTime utc = now.withZoneSameInstant(ZoneOffset.UTC);
+        String amzDate = AMZ_DATE.format(utc);
+        String date = DATE.format(utc);
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalHeaders = "host:" + host + "\n"
+                + "x-amz-content-sha256:" + payloadHash + "\n"
+                + "x-amz-date:" + amzDate + "\n";
+        String signedHeaders = "host;x-amz-content-sha256;x-amz-date";
+        String canonicalRequest = method + "\n" + uri.getRawPath() + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+
+        String scope = date + "/" + region + "/s3/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + hex(sha256(canonicalRequest));
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        String signature = hex(hmac(key, stringToSign));
+
+        return Map.of(
+                "x-amz-date", amzDate,
+                "x-amz-content-sha256", payloadHash,
+                "Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                        + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+    }
+
+    static String canonicalQuery(Map<String, String> query) {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(query).forEach((name, value) -> {
+            if (!sb.isEmpty()) sb.append('&');
+            sb.append(encode(name, true)).append('=').append(encode(value == null ? "" : value, true));
+        });
+        return sb.toString();
+    }
+
+    /**
+     * URI encoding di SigV4: solo i caratteri non riservati restano in chiaro; "/" resta in chiaro nei percorsi.
+     */
+    static String encode(String value, boolean encodeSlash) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 non disponibile", e);
+        }
+    }
+
+    private static byte[] sha256(String data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,245 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.services.files.ObjectStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Riconciliazione tra lo storage ({@link ObjectStore}, locale o S3) e i percorsi registrati a DB
+ * ({@code files}, {@code file_blobs} con almeno un riferimento, {@code file_derivatives}).
+ * <p>
+ * Le chiavi vengono divise in partizioni per prefisso (es. {@code blobs/ab/}, {@code uploads/12/}) visitate in
+ * parallelo su un pool limitato; per ogni partizione gli oggetti nello storage e i percorsi a DB con lo stesso
+ * prefisso vengono letti ordinati e confrontati con un merge, così in memoria resta una partizione alla volta.
+ * </p>
+ * <ul>
+ * <li><b>File orfani</b> (su disco ma non a DB, es. upload interrotto prima del commit o file eliminati):
+ * rimossi, o solo segnalati con {@code mode=report}. Sono esclusi i file modificati di recente
+ * ({@code grace-period}), che potrebbero appartenere a un upload non ancora committato.</li>
+ * <li><b>Righe senza contenuto</b> (a DB ma non su disco): sempre solo segnalate; le righe delle miniature,
+ * rigenerabili, vengono eliminate.</li>
+ * <li><b>Staging</b> (sempre su disco locale, {@code storage.staging-location}): i file temporanei abbandonati
+ * più vecchi del periodo di grazia vengono rimossi.</li>
+ * </ul>
+ * Le eliminazioni sono limitate a {@code max-deletes-per-second} per non saturare il disco.
+ */
+@Slf4j
+@Component
+public class StorageReconciler {
+
+    private static final String REFERENCED_PATHS_SQL =
+            "SELECT file_path AS path FROM files WHERE file_path LIKE ? " +
+            "UNION SELECT storage_path FROM file_blobs WHERE ref_count > 0 AND storage_path LIKE ? " +
+            "UNION SELECT storage_path FROM file_derivatives WHERE max_size > 0 AND storage_path LIKE ?";
+    private static final int MAX_LOGGED_PATHS = 20;
+
+    /**
+     * Esito di una riconciliazione.
+     */
+    public record Report(long scannedFiles, long orphanFiles, long deletedFiles, long danglingRows, long staleStagingFiles) {
+        static final Report EMPTY = new Report(0, 0, 0, 0, 0);
+
+        Report plus(Report other) {
+            return new Report(scannedFiles + other.scannedFiles, orphanFiles + other.orphanFiles,
+                    deletedFiles + other.deletedFiles, danglingRows + other.danglingRows,
+                    staleStagingFiles + other.staleStagingFiles);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectStore objectStore;
+    private final Path stagingLocation;
+    private final boolean deleteOrphans;
+    private final Duration gracePeriod;
+    private final int parallelism;
+    private final DeleteRateLimiter rateLimiter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public StorageReconciler(
+            JdbcTemplate jdbcTemplate,
+            ObjectStore objectStore,
+            @Value("${storage.staging-location:${storage.location}/.staging}") String stagingLocation,
+            @Value("${votopia.storage.reconcile.mode:delete}") String mode,
+            @Value("${votopia.storage.reconcile.grace-period:1h}") Duration gracePeriod,
+            @Value("${votopia.storage.reconcile.parallelism:4}") int parallelism,
+            @Value("${votopia.storage.reconcile.max-deletes-per-second:20}") int maxDeletesPerSecond) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectStore = objectStore;
+        this.stagingLocation = Paths.get(stagingLocation);
+        this.deleteOrphans = "delete".equalsIgnoreCase(mode);
+        this.gracePeriod = gracePeriod;
+        this.parallelism = parallelism;
+        this.rateLimiter = new DeleteRateLimiter(maxDeletesPerSecond);
+    }
+
+    @Scheduled(cron = "${votopia.storage.reconcile.cron:0 0 4 * * *}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Esegue una riconciliazione completa; se ne è già in corso una non fa nulla.
+     */
+    public Report reconcile() {
+        if (!running.compareAndSet(false, true)) return Report.EMPTY;
+        long start = System.currentTimeMillis();
+        try {
+            Instant cutoff = Instant.now().minus(gracePeriod);
+
+            Report report = cleanStaging(cutoff);
+            java.util.List<String> partitions = partitions();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                report = report.plus(pool.submit(() -> partitions.parallelStream()
+                        .map(partition -> reconcilePartition(partition, cutoff))
+                        .reduce(Report.EMPTY, Report::plus)).get());
+            } finally {
+                pool.shutdown();
+            }
+
+            log.info("Riconciliazione storage ({}) in {} ms: {}", deleteOrphans ? "delete" : "report",
+                    System.currentTimeMillis() - start, report);
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Report.EMPTY;
+        } catch (ExecutionException | IOException | UncheckedIOException e) {
+            log.error("Riconciliazione storage fallita: {}", e.getMessage());
+            return Report.EMPTY;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Partizioni da visitare: i prefissi di secondo livello (es. {@code blobs/ab/}).
+     */
+    private java.util.List<String> partitions() throws IOException {
+        java.util.List<String> partitions = new ArrayList<>();
+        for (String topLevel : objectStore.listPrefixes("")) {
+            partitions.addAll(objectStore.listPrefixes(topLevel));
+        }
+        return partitions;
+    }
+
+    private Report reconcilePartition(String partition, Instant cutoff) {
+        java.util.List<ObjectStore.ObjectInfo> stored = objectsUnder(partition);
+        String like = partition + "%";
+        // Ordinati in Java: l'ordine deve coincidere con quello dei file su disco, indipendentemente dalla collation
+        java.util.List<String> referenced = new ArrayList<>(jdbcTemplate.queryForList(REFERENCED_PATHS_SQL, String.class, like, like, like));
+        referenced.sort(Comparator.naturalOrder());
+
+        long orphans = 0, deleted = 0, dangling = 0;
+        int i = 0, j = 0;
+        while (i < stored.size() || j < referenced.size()) {
+            int cmp = i >= stored.size() ? 1 : j >= referenced.size() ? -1 : stored.get(i).key().compareTo(referenced.get(j));
+            if (cmp == 0) {
+                i++;
+                j++;
+            } else if (cmp < 0) {
+                ObjectStore.ObjectInfo object = stored.get(i++);
+                if (object.lastModified().isBefore(cutoff)) {
+                    if (orphans++ < MAX_LOGGED_PATHS) log.warn("File orfano nello storage: {}", object.key());
+                    if (deleteOrphans && delete(object.key())) deleted++;
+                }
+            } else {
+                String path = referenced.get(j++);
+                if (dangling++ < MAX_LOGGED_PATHS) log.warn("Percorso registrato a DB ma assente dallo storage: {}", path);
+                if (deleteOrphans) jdbcTemplate.update("DELETE FROM file_derivatives WHERE storage_path = ?", path);
+            }
+        }
+        return new Report(stored.size(), orphans, deleted, dangling, 0);
+    }
+
+    private Report cleanStaging(Instant cutoff) throws IOException {
+        if (!Files.isDirectory(stagingLocation)) return Report.EMPTY;
+        long stale = 0;
+        try (Stream<Path> files = Files.list(stagingLocation)) {
+            for (Path file : files.toList()) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (!modified.toInstant().isBefore(cutoff)) continue;
+                rateLimiter.acquire();
+                if (Files.deleteIfExists(file)) stale++;
+            }
+        }
+        return new Report(0, 0, 0, 0, stale);
+    }
+
+    /**
+     * Oggetti sotto la partizione in ordine di chiave, lo stesso usato per i percorsi a DB nel confronto.
+     */
+    private java.util.List<ObjectStore.ObjectInfo> objectsUnder(String partition) {
+        try {
+            java.util.List<ObjectStore.ObjectInfo> objects = new ArrayList<>(objectStore.list(partition));
+            objects.sort(Comparator.comparing(ObjectStore.ObjectInfo::key));
+            return objects;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean delete(String key) {
+        rateLimiter.acquire();
+        try {
+            objectStore.delete(key);
+            return true;
+        } catch (IOException e) {
+            log.warn("Impossibile eliminare {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Distribuisce le eliminazioni a intervalli regolari, condiviso tra i thread della riconciliazione.
+     */
+    static final class DeleteRateLimiter {
+        private final long intervalNanos;
+        // ReentrantLock e non synchronized: niente pinning se la riconciliazione gira su virtual thread
+        private final ReentrantLock lock = new ReentrantLock();
+        private long nextSlot = System.nanoTime();
+
+        DeleteRateLimiter(int permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? 1_000_000_000L / permitsPerSecond : 0;
+        }
+
+        void acquire() {
+            if (intervalNanos == 0) return;
+            long wait;
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                nextSlot = Math.max(nextSlot, now);
+                wait = nextSlot - now;
+                nextSlot += intervalNanos;
+            } finally {
+                lock.unlock();
+            }
+            if (wait > 0) {
+                try {
+                    Thread.sleep(Duration.ofNanos(wait));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
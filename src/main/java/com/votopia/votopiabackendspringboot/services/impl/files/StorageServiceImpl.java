@@ -0,0 +1,201 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.services.files.ObjectStore;
+import com.votopia.votopiabackendspringboot.services.files.StagedObject;
+import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage indipendente dal backend: staging su disco locale con calcolo di dimensione e SHA-256,
+ * indirizzamento per contenuto e pubblicazione sull'{@link ObjectStore} configurato (locale o S3).
+ */
+@Service
+@Slf4j
+public class StorageServiceImpl implements StorageService {
+
+    // Blob indirizzati per contenuto: blobs/ab/cd/abcd... (due livelli per non avere cartelle enormi)
+    private static final String BLOB_DIR = "blobs";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectStore objectStore;
+    // Cartella dei file in scrittura. Di default sta sotto la root locale: stesso filesystem della
+    // destinazione, quindi con il backend locale la pubblicazione è una rename atomica
+    private final Path stagingLocation;
+
+    public StorageServiceImpl(
+            ObjectStore objectStore,
+            @Value("${storage.staging-location:${storage.location}/.staging}") String stagingLocation) {
+        this.objectStore = objectStore;
+        this.stagingLocation = Paths.get(stagingLocation);
+    }
+
+    @Override
+    public void save(byte[] content, String filePath) {
+        try {
+            save(new ByteArrayInputStream(content), filePath);
+        } catch (IOException e) {
+            log.error("Errore durante il salvataggio fisico del file: {}", e.getMessage());
+            throw new RuntimeException("Impossibile salvare il file", e);
+        }
+    }
+
+    @Override
+    public StoredObject save(InputStream content, String filePath) throws IOException {
+        return publish(stage(content), filePath);
+    }
+
+    @Override
+    public StoredObject save(MultipartFile file, String filePath) throws IOException {
+        return publish(stage(file), filePath);
+    }
+
+    @Override
+    public StagedObject stage(InputStream content) throws IOException {
+        String stagingId = newStagingId();
+        Path staged = stagingPath(stagingId);
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            // Copia a blocchi: l'impronta viene aggiornata mentre i byte passano verso il disco
+            try (DigestInputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, staged, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new StagedObject(stagingId, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+    }
+
+    @Override
+    public StagedObject stage(MultipartFile file) throws IOException {
+        String stagingId = newStagingId();
+        Path staged = stagingPath(stagingId);
+        try {
+            // Il container ha già il file su disco: transferTo lo rinomina (o lo copia se su un altro filesystem)
+            file.transferTo(staged);
+            MessageDigest digest = sha256();
+            long size = digest(staged, digest);
+            return new StagedObject(stagingId, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+    }
+
+    @Override
+    public StoredObject publishBlob(StagedObject staged) throws IOException {
+        // Sempre scritto: l'esistenza del file non dice se una rimozione è in corso (lo decide FileBlobStore
+        // sotto il lock della riga). Una pubblicazione concorrente scrive gli stessi byte: l'ultima vince senza danni
+        return publish(staged, blobPath(staged.sha256()));
+    }
+
+    @Override
+    public void discard(StagedObject staged) {
+        try {
+            Files.deleteIfExists(stagingPath(staged.stagingId()));
+        } catch (IOException e) {
+            log.warn("Impossibile eliminare il file in staging {}: {}", staged.stagingId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public String blobPath(String sha256) {
+        return BLOB_DIR + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    @Override
+    public Optional<Path> localPath(String filePath) {
+        return objectStore.localPath(filePath);
+    }
+
+    @Override
+    public InputStream open(String filePath, long start, long end) throws IOException {
+        return objectStore.get(filePath, start, end);
+    }
+
+    @Override
+    public Optional<ObjectStore.ObjectInfo> stat(String filePath) throws IOException {
+        return objectStore.head(filePath);
+    }
+
+    @Override
+    public void delete(String filePath) {
+        try {
+            objectStore.delete(filePath);
+            log.info("File eliminato: {}", filePath);
+        } catch (IOException e) {
+            log.error("Errore durante l'eliminazione del file: {}", e.getMessage());
+        }
+    }
+
+    private String newStagingId() throws IOException {
+        Files.createDirectories(stagingLocation);
+        return UUID.randomUUID() + ".part";
+    }
+
+    private Path stagingPath(String stagingId) {
+        return stagingLocation.resolve(stagingId);
+    }
+
+    /**
+     * Consegna il file completo al backend; il file in staging viene sempre rimosso, anche in caso di errore.
+     */
+    private StoredObject publish(StagedObject staged, String filePath) throws IOException {
+        Path source = stagingPath(staged.stagingId());
+        try {
+            objectStore.put(filePath, source, staged.size());
+        } finally {
+            Files.deleteIfExists(source);
+        }
+        log.info("File salvato correttamente in: {} ({} byte)", filePath, staged.size());
+        return new StoredObject(filePath, staged.size(), staged.sha256());
+    }
+
+    /**
+     * Impronta di un file già su disco letta dal canale con un buffer fisso.
+     */
+    private static long digest(Path path, MessageDigest digest) throws IOException {
+        long size = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+}
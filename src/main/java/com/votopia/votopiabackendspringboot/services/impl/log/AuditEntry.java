@@ -0,0 +1,17 @@
+package com.votopia.votopiabackendspringboot.services.impl.log;
+
+import com.votopia.votopiabackendspringboot.services.log.AuditAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Voce di audit in attesa di scrittura: contiene già tutto ciò che serve all'INSERT,
+ * così il thread di scrittura non dipende dalla richiesta che l'ha prodotta.
+ */
+public record AuditEntry(
+        AuditAction action,
+        Long userId,
+        String description,
+        String ipAddress,
+        LocalDateTime createdAt
+) {}
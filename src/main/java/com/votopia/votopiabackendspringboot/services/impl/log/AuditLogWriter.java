@@ -0,0 +1,216 @@
+package com.votopia.votopiabackendspringboot.services.impl.log;
+
+import com.votopia.votopiabackendspringboot.entities.log.LogAction;
+import com.votopia.votopiabackendspringboot.repositories.log.LogActionRepository;
+import com.votopia.votopiabackendspringboot.services.log.AuditAction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Scrittore asincrono del registro di audit.
+ * <p>
+ * Le voci arrivano in un {@link AuditRingBuffer} limitato; un unico thread dedicato lo svuota
+ * e le inserisce in {@code logs} con INSERT JDBC a blocchi. Se il buffer è pieno il produttore
+ * attende al massimo {@code votopia.audit.max-wait} (contropressione), poi la voce viene scartata
+ * e conteggiata in {@code votopia.audit.dropped}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO logs (user_id, action_id, description, ip_address, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LogActionRepository logActionRepository;
+    private final AuditRingBuffer<AuditEntry> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxWaitNanos;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    // Cache code -> action_id, popolata (e seminata) al primo svuotamento
+    private volatile Map<AuditAction, Long> actionIds;
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public AuditLogWriter(
+            JdbcTemplate jdbcTemplate,
+            LogActionRepository logActionRepository,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${votopia.audit.capacity:8192}") int capacity,
+            @Value("${votopia.audit.batch-size:500}") int batchSize,
+            @Value("${votopia.audit.flush-interval:200ms}") Duration flushInterval,
+            @Value("${votopia.audit.max-wait:5ms}") Duration maxWait) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.logActionRepository = logActionRepository;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.droppedCounter = Counter.builder("votopia.audit.dropped")
+                .description("Voci di audit scartate per buffer pieno")
+                .register(registry);
+        this.writtenCounter = Counter.builder("votopia.audit.written")
+                .description("Voci di audit scritte su database")
+                .register(registry);
+        this.failedCounter = Counter.builder("votopia.audit.failed")
+                .description("Voci di audit perse per errori di scrittura")
+                .register(registry);
+        Gauge.builder("votopia.audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Voci di audit in attesa di scrittura")
+                .register(registry);
+    }
+
+    /**
+     * Accoda una voce. A buffer pieno sveglia lo scrittore e attende per un tempo limitato,
+     * poi scarta la voce: il chiamante (già dopo il commit) non viene mai bloccato a lungo.
+     *
+     * @return {@code false} se la voce è stata scartata.
+     */
+    public boolean enqueue(AuditEntry entry) {
+        if (buffer.offer(entry)) {
+            if (buffer.size() >= batchSize) wakeUp();
+            return true;
+        }
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (System.nanoTime() < deadline) {
+            wakeUp();
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            if (buffer.offer(entry)) return true;
+        }
+
+        long total = dropped.incrementAndGet();
+        droppedCounter.increment();
+        // Un avviso ogni 1000 scarti per non inondare i log proprio quando il sistema è sotto carico
+        if (total % 1000 == 1) {
+            log.warn("Buffer di audit pieno: {} voci scartate in totale", total);
+        }
+        return false;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "audit-log-writer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread == null) return;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void wakeUp() {
+        Thread thread = worker;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    private void drainLoop() {
+        java.util.List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (!drainOnce(batch)) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        // Chiusura ordinata: scriviamo ciò che è rimasto prima che il DataSource venga chiuso
+        while (drainOnce(batch)) {
+            // continua finché il buffer non è vuoto
+        }
+    }
+
+    /**
+     * @return {@code true} se ha estratto almeno una voce.
+     */
+    private boolean drainOnce(java.util.List<AuditEntry> batch) {
+        Map<AuditAction, Long> ids = resolveActionIds();
+        if (ids == null) return false; // Database non raggiungibile: le voci restano nel buffer
+
+        batch.clear();
+        if (buffer.drain(batch::add, batchSize) == 0) return false;
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                ps.setLong(1, entry.userId());
+                ps.setLong(2, ids.get(entry.action()));
+                ps.setString(3, entry.description());
+                ps.setString(4, entry.ipAddress());
+                ps.setTimestamp(5, Timestamp.valueOf(entry.createdAt()));
+            });
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Scrittura di {} voci di audit fallita: {}", batch.size(), e.getMessage());
+        }
+        return true;
+    }
+
+    private Map<AuditAction, Long> resolveActionIds() {
+        Map<AuditAction, Long> ids = actionIds;
+        if (ids != null) return ids;
+        try {
+            Map<String, LogAction> byCode = logActionRepository.findAll().stream()
+                    .collect(Collectors.toMap(LogAction::getCode, Function.identity()));
+
+            ids = new EnumMap<>(AuditAction.class);
+            for (AuditAction action : AuditAction.values()) {
+                LogAction logAction = byCode.get(action.getCode());
+                if (logAction == null) {
+                    logAction = logActionRepository.save(new LogAction(null, action.getCode(), action.getLabel(), action.getLevel()));
+                }
+                ids.put(action, logAction.getId());
+            }
+            actionIds = ids;
+            return ids;
+        } catch (Exception e) {
+            log.error("Impossibile caricare le azioni di audit: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.votopia.votopiabackendspringboot.services.impl.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circolare limitato e senza lock, con più produttori e un solo consumatore (MPSC).
+ * <p>
+ * I produttori si contendono la posizione di scrittura con una CAS su {@code tail} e poi
+ * pubblicano l'elemento nello slot; il consumatore svuota gli slot in ordine, azzerandoli
+ * prima di avanzare {@code head}. Un produttore non supera mai il consumatore di più di
+ * {@code capacity} posizioni: a buffer pieno {@link #offer(Object)} restituisce {@code false}.
+ * </p>
+ */
+public class AuditRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("Capacità minima: 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1; // Potenza di due: indice = posizione & mask
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Accoda l'elemento se c'è spazio. Sicuro da più thread contemporaneamente.
+     */
+    public boolean offer(E element) {
+        if (element == null) throw new NullPointerException();
+        while (true) {
+            long position = tail.get();
+            if (position - head.get() >= slots.length()) return false;
+            if (tail.compareAndSet(position, position + 1)) {
+                slots.lazySet(index(position), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Estrae fino a {@code max} elementi nell'ordine di inserimento. Da chiamare da un solo thread.
+     * Si ferma al primo slot riservato ma non ancora pubblicato.
+     *
+     * @return Numero di elementi estratti.
+     */
+    public int drain(Consumer<E> sink, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = index(position);
+            E element = slots.get(index);
+            if (element == null) break;
+            slots.lazySet(index, null);
+            position++;
+            head.lazySet(position);
+            sink.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private int index(long position) {
+        return (int) (position & mask);
+    }
+}
@@ -0,0 +1,52 @@
+package com.votopia.votopiabackendspringboot.services.impl.log;
+
+import com.votopia.votopiabackendspringboot.services.log.AuditAction;
+import com.votopia.votopiabackendspringboot.services.log.AuditService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+public class AuditServiceImpl implements AuditService {
+
+    private static final String UNKNOWN_IP = "unknown";
+    private static final int MAX_IP_LENGTH = 45;
+
+    @Autowired
+    private AuditLogWriter writer;
+
+    @Override
+    public void record(AuditAction action, Long userId, String description) {
+        // IP e istante vanno catturati ora, sul thread della richiesta
+        AuditEntry entry = new AuditEntry(action, userId, description, currentIpAddress(), LocalDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writer.enqueue(entry);
+                }
+            });
+        } else {
+            writer.enqueue(entry);
+        }
+    }
+
+    private static String currentIpAddress() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return UNKNOWN_IP;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String ip = request.getRemoteAddr();
+        if (ip == null) return UNKNOWN_IP;
+        return ip.length() > MAX_IP_LENGTH ? ip.substring(0, MAX_IP_LENGTH) : ip;
+    }
+}
@@ -0,0 +1,35 @@
+package com.votopia.votopiabackendspringboot.services.log;
+
+import com.votopia.votopiabackendspringboot.entities.log.LogAction;
+import lombok.Getter;
+
+/**
+ * Azioni tracciate nel registro di audit. Ogni voce corrisponde a una riga di {@code log_actions}
+ * (stesso {@code code}), creata all'avvio se mancante.
+ */
+@Getter
+public enum AuditAction {
+    USER_CREATE("user_create", "Creazione utente", LogAction.Level.INFO),
+    USER_UPDATE("user_update", "Modifica utente", LogAction.Level.INFO),
+    USER_DELETE("user_delete", "Eliminazione utente", LogAction.Level.WARNING),
+    ROLE_CREATE("role_create", "Creazione ruolo", LogAction.Level.INFO),
+    ROLE_UPDATE("role_update", "Modifica ruolo", LogAction.Level.INFO),
+    ROLE_DELETE("role_delete", "Eliminazione ruolo", LogAction.Level.WARNING),
+    CAMPAIGN_CREATE("campaign_create", "Creazione campagna", LogAction.Level.INFO),
+    CAMPAIGN_UPDATE("campaign_update", "Modifica campagna", LogAction.Level.INFO),
+    CAMPAIGN_DELETE("campaign_delete", "Eliminazione campagna", LogAction.Level.WARNING),
+    CAMPAIGN_CANDIDATE_ADD("campaign_candidate_add", "Candidato aggiunto alla campagna", LogAction.Level.INFO),
+    CAMPAIGN_CANDIDATE_REMOVE("campaign_candidate_remove", "Candidato rimosso dalla campagna", LogAction.Level.INFO),
+    FILE_UPLOAD("file_upload", "Caricamento file", LogAction.Level.INFO),
+    FILE_DELETE("file_delete", "Eliminazione file", LogAction.Level.WARNING);
+
+    private final String code;
+    private final String label;
+    private final LogAction.Level level;
+
+    AuditAction(String code, String label, LogAction.Level level) {
+        this.code = code;
+        this.label = label;
+        this.level = level;
+    }
+}
@@ -0,0 +1,18 @@
+package com.votopia.votopiabackendspringboot.services.log;
+
+public interface AuditService {
+
+    /**
+     * Registra un'operazione di modifica nel registro di audit senza bloccare il chiamante.
+     * <p>
+     * Se è attiva una transazione, la voce viene accodata solo dopo il commit: le operazioni
+     * annullate da un rollback non compaiono mai nel registro. La scrittura su database avviene
+     * in modo asincrono e a blocchi.
+     * </p>
+     *
+     * @param action      Azione eseguita.
+     * @param userId      ID dell'utente che ha eseguito l'azione.
+     * @param description Dettaglio leggibile dell'operazione (es. ID dell'entità coinvolta).
+     */
+    void record(AuditAction action, Long userId, String description);
+}
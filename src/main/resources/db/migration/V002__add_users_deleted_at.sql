@@ -0,0 +1,8 @@
+-- SQL Script per tracciare l'istante del soft-delete degli utenti
+
+-- Colonna letta dal registro in memoria degli utenti eliminati per l'aggiornamento incrementale
+ALTER TABLE users ADD COLUMN deleted_at DATETIME(6) NULL;
+CREATE INDEX idx_users_deleted_at ON users (deleted_at);
+
+-- Gli utenti già eliminati restano comunque caricati al primo avvio (filtro su deleted = true)
+SELECT 'users.deleted_at column created successfully' AS status;
@@ -0,0 +1,18 @@
+-- SQL Script per creare la tabella materializzata dei permessi effettivi degli utenti
+
+-- Una riga per ogni (utente, lista, permesso) ottenuto tramite i ruoli; list_id NULL = ruolo di organizzazione
+CREATE TABLE IF NOT EXISTS user_effective_permissions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    list_id BIGINT NULL,
+    permission_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (list_id) REFERENCES lists(id) ON DELETE CASCADE,
+    FOREIGN KEY (permission_id) REFERENCES permissions(id) ON DELETE CASCADE,
+    INDEX idx_uep_user_permission_list (user_id, permission_id, list_id),
+    INDEX idx_uep_permission (permission_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- La tabella viene popolata dall'applicazione al primo avvio (ricostruzione completa se vuota)
+SELECT 'user_effective_permissions table created successfully' AS status;
@@ -0,0 +1,8 @@
+-- SQL Script per registrare dimensione e impronta dei file caricati
+
+-- Valori calcolati durante la scrittura in streaming: i file già presenti restano NULL
+ALTER TABLE files ADD COLUMN size_bytes BIGINT NULL;
+ALTER TABLE files ADD COLUMN sha256 VARCHAR(64) NULL;
+CREATE INDEX idx_files_sha256 ON files (sha256);
+
+SELECT 'files.size_bytes and files.sha256 columns created successfully' AS status;
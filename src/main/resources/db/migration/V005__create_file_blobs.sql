@@ -0,0 +1,13 @@
+-- SQL Script per l'archivio dei file indirizzato per contenuto
+
+-- Un blob per impronta SHA-256, referenziato da una o più righe "files" (ref_count)
+CREATE TABLE IF NOT EXISTS file_blobs (
+    sha256 VARCHAR(64) NOT NULL PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    storage_path VARCHAR(255) NOT NULL,
+    ref_count INT NOT NULL,
+    created_at DATETIME(6) NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- I file caricati prima dell'archivio mantengono il proprio percorso e vengono eliminati direttamente
+SELECT 'file_blobs table created/verified successfully' AS status;
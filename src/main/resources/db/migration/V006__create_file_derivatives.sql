@@ -0,0 +1,17 @@
+-- SQL Script per le versioni ridotte delle immagini caricate
+
+-- Una riga per (contenuto originale, lato massimo); le derivate seguono il ciclo di vita del blob originale
+CREATE TABLE IF NOT EXISTS file_derivatives (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    source_sha256 VARCHAR(64) NOT NULL,
+    max_size INT NOT NULL,
+    width INT NOT NULL,
+    height INT NOT NULL,
+    storage_path VARCHAR(255) NOT NULL,
+    mime_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at DATETIME(6) NULL,
+    CONSTRAINT uk_file_derivatives_source_size UNIQUE (source_sha256, max_size)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+SELECT 'file_derivatives table created/verified successfully' AS status;
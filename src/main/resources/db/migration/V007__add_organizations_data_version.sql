@@ -0,0 +1,7 @@
+-- SQL Script per la versione dei dati di ogni organizzazione (ETag delle schermate init-screen)
+
+-- Incrementata nella stessa transazione di ogni modifica a utenti, ruoli, liste e campagne:
+-- tutti i nodi leggono la stessa versione, che sopravvive ai riavvii
+ALTER TABLE organizations ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+SELECT 'organizations.data_version column created successfully' AS status;
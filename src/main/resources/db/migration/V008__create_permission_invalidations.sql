@@ -0,0 +1,13 @@
+-- SQL Script per il canale di invalidazione dei permessi tra i nodi (votopia.permissions.cache.channel=database)
+
+-- Una riga per utente invalidato; ogni nodo legge quelle recenti degli altri nodi e le cancella dopo la conservazione
+CREATE TABLE IF NOT EXISTS permission_invalidations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    node_id VARCHAR(32) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_permission_invalidations_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+SELECT 'permission_invalidations table created successfully' AS status;
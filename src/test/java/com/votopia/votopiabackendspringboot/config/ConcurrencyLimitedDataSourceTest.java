@@ -0,0 +1,74 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    @Test
+    void permitIsReturnedOnceWhenTheConnectionCloses() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection physical = mock(Connection.class);
+        when(target.getConnection()).thenReturn(physical);
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+        Connection connection = dataSource.getConnection();
+        assertSame(physical, ((ConnectionProxy) connection).getTargetConnection());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        connection.close();
+        connection.close();
+        verify(physical, times(2)).close();
+        assertEquals(1, dataSource.availablePermits());
+        dataSource.getConnection().close();
+    }
+
+    @Test
+    void manyVirtualThreadsNeverExceedTheLimit() throws Exception {
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        // Proxy semplici e non mock: gli stub di Mockito sono sincronizzati e falserebbero la concorrenza
+        Connection physical = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) open.decrementAndGet();
+                    return null;
+                });
+        DataSource target = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    peak.accumulateAndGet(open.incrementAndGet(), Math::max);
+                    return physical;
+                });
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 8, Duration.ofSeconds(30));
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                tasks.add(executor.submit(() -> {
+                    try (Connection ignored = dataSource.getConnection()) {
+                        Thread.sleep(1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) task.get(30, TimeUnit.SECONDS);
+        }
+
+        assertTrue(peak.get() <= 8, "connessioni contemporanee: " + peak.get());
+        assertEquals(8, dataSource.availablePermits());
+    }
+}
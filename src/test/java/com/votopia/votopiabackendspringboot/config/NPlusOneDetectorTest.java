@@ -0,0 +1,144 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.repositories.lists.ListRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(QueryDiagnosticsConfig.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "votopia.diagnostics.n-plus-one.mode=fail",
+        "votopia.diagnostics.n-plus-one.threshold=3"
+})
+class NPlusOneDetectorTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private NPlusOneDetector detector;
+    @Autowired private ListRepository listRepository;
+
+    private Long orgId;
+    private final java.util.List<Long> listIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Organization org = new Organization();
+        org.setCode("TST0001");
+        org.setName("Scuola di prova");
+        em.persist(org);
+        orgId = org.getId();
+        for (int i = 0; i < 3; i++) {
+            List list = new List();
+            list.setOrg(org);
+            list.setName("Lista " + i);
+            em.persist(list);
+            listIds.add(list.getId());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void oneQueryPerRowFailsInsideAUnitOfWork() {
+        try (NPlusOneDetector.Scope ignored = detector.open("test")) {
+            // Attraverso un repository arriva tradotta da Spring: l'eccezione del rilevatore è la causa
+            RuntimeException thrown = assertThrows(RuntimeException.class, () -> {
+                for (Long id : listIds) listRepository.findByIdAndOrgId(id, orgId);
+            });
+            Throwable e = thrown;
+            while (e != null && !(e instanceof NPlusOneDetector.NPlusOneException)) e = e.getCause();
+            assertNotNull(e, thrown.toString());
+            // Il punto di chiamata è il codice che ripete la query, non Hibernate o il proxy del repository
+            assertTrue(e.getMessage().contains("NPlusOneDetectorTest"), e.getMessage());
+        }
+    }
+
+    @Test
+    void singleQueryAndWorkOutsideScopesAreIgnored() {
+        try (NPlusOneDetector.Scope scope = detector.open("test")) {
+            assertEquals(3, listRepository.findAllByIdInAndOrgId(listIds, orgId).size());
+            assertTrue(scope.counts().values().stream().allMatch(count -> count == 1));
+        }
+        for (Long id : listIds) listRepository.findByIdAndOrgId(id, orgId);
+    }
+
+    @Test
+    void warnModeCountsEveryOccurrence() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NPlusOneDetector warn = new NPlusOneDetector(NPlusOneDetector.Mode.WARN, 2, Duration.ofMinutes(1), registry);
+        for (int request = 0; request < 2; request++) {
+            try (NPlusOneDetector.Scope ignored = warn.open("GET /api/users/all/")) {
+                for (int i = 0; i < 5; i++) warn.inspect("select l1_0.id from lists l1_0 where l1_0.id=?");
+                warn.inspect("select count(*) from users");
+            }
+        }
+        assertEquals(2.0, registry.get("votopia.queries.n-plus-one").counter().count());
+    }
+
+    @Test
+    void asyncTasksInheritTheUnitOfWorkOfTheRequest() throws Exception {
+        NPlusOneDetector detector = new NPlusOneDetector(NPlusOneDetector.Mode.FAIL, 2, Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+        Runnable repeated = () -> {
+            for (int i = 0; i < 2; i++) detector.inspect("select l1_0.id from lists l1_0 where l1_0.id=?");
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> plain;
+            Future<?> propagated;
+            try (NPlusOneDetector.Scope ignored = detector.open("GET /api/users/all/stream")) {
+                plain = executor.submit(repeated);
+                propagated = executor.submit(detector.propagate(repeated));
+            }
+            plain.get();
+            ExecutionException failure = assertThrows(ExecutionException.class, propagated::get);
+            assertInstanceOf(NPlusOneDetector.NPlusOneException.class, failure.getCause());
+            assertTrue(failure.getCause().getMessage().contains("GET /api/users/all/stream [async]"),
+                    failure.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void splitScopesCountEachChunkOnItsOwn() {
+        NPlusOneDetector detector = new NPlusOneDetector(NPlusOneDetector.Mode.FAIL, 2, Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+        try (NPlusOneDetector.Scope request = detector.open("GET /api/roles/all/stream")) {
+            for (int chunk = 0; chunk < 3; chunk++) {
+                try (NPlusOneDetector.Scope ignored = detector.split("(blocco " + chunk + ")")) {
+                    detector.inspect("select r1_0.id from roles r1_0 where r1_0.id>? limit ?");
+                }
+            }
+            // Alla chiusura dei blocchi torna attiva la richiesta, che non ha visto le loro query
+            detector.inspect("select count(*) from roles");
+            assertEquals(java.util.Map.of("select count(*) from roles", 1), request.counts());
+        }
+    }
+
+    @Test
+    void fingerprintIgnoresLiteralsAndWhitespace() {
+        assertEquals("select u1_0.id from users u1_0 where u1_0.email=? and u1_0.org_id=?",
+                NPlusOneDetector.fingerprint("select u1_0.id\n  from users u1_0 where u1_0.email='o''brien@x.it' and u1_0.org_id=42"));
+        assertEquals(NPlusOneDetector.fingerprint("select * from lists where id = 1"),
+                NPlusOneDetector.fingerprint("select  *  from lists where id = 250"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.votopia.votopiabackendspringboot.config;
+
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrgSizeBucketsTest {
+
+    @Test
+    void bucketsFollowTheConfiguredBounds() {
+        OrgSizeBuckets buckets = new OrgSizeBuckets(mock(UserRepository.class), new long[]{200, 50}, Duration.ofMinutes(10));
+
+        assertEquals("0-50", buckets.bucketForUsers(0));
+        assertEquals("0-50", buckets.bucketForUsers(50));
+        assertEquals("51-200", buckets.bucketForUsers(51));
+        assertEquals("51-200", buckets.bucketForUsers(200));
+        assertEquals("201+", buckets.bucketForUsers(201));
+        assertEquals(OrgSizeBuckets.NONE, buckets.bucketOf(null));
+    }
+
+    @Test
+    void defaultBucketsDoNotOverlap() {
+        OrgSizeBuckets buckets = new OrgSizeBuckets(mock(UserRepository.class), new long[]{50, 200, 1000, 5000}, Duration.ofMinutes(10));
+
+        assertEquals("1001-5000", buckets.bucketForUsers(5000));
+        assertEquals("5001+", buckets.bucketForUsers(5001));
+    }
+
+    @Test
+    void firstLookupNeverWaitsForTheCount() {
+        UserRepository userRepository = mock(UserRepository.class);
+        CountDownLatch countDone = new CountDownLatch(1);
+        when(userRepository.countByOrgIdAndDeletedFalse(1L)).thenAnswer(invocation -> {
+            countDone.await(5, TimeUnit.SECONDS);
+            return 120L;
+        });
+        OrgSizeBuckets buckets = new OrgSizeBuckets(userRepository, new long[]{50, 200}, Duration.ofMinutes(10));
+
+        // Il conteggio parte in background: finché non termina le richieste ricadono in "unknown"
+        assertEquals(OrgSizeBuckets.UNKNOWN, buckets.bucketOf(1L));
+        verify(userRepository, timeout(5_000)).countByOrgIdAndDeletedFalse(1L);
+        assertEquals(OrgSizeBuckets.UNKNOWN, buckets.bucketOf(1L));
+        countDone.countDown();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (OrgSizeBuckets.UNKNOWN.equals(buckets.bucketOf(1L)) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals("51-200", buckets.bucketOf(1L));
+        verify(userRepository, times(1)).countByOrgIdAndDeletedFalse(1L);
+    }
+}
@@ -0,0 +1,272 @@
+package com.votopia.votopiabackendspringboot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client HTTP concorrenti a ciclo chiuso: ogni client esegue una richiesta alla volta, scelta a caso con i pesi
+ * di {@link Endpoint}, per conto di un utente di un'organizzazione del {@link SyntheticDataset}.
+ * <p>
+ * Ogni client effettua il login una volta e poi riusa il token; il login stesso resta nel mix per misurare
+ * la verifica della password. Le latenze della fase di riscaldamento sono scartate.
+ * </p>
+ */
+class LoadDriver {
+
+    /**
+     * Mix di richieste: i pesi sono relativi, le chiamate di lettura dominano come nell'uso reale.
+     */
+    enum Endpoint {
+        LOGIN("POST /api/auth/login/", 5),
+        USERS_INIT_SCREEN("GET /api/users/init-screen/", 25),
+        ROLES_INIT_SCREEN("GET /api/roles/init-screen/", 15),
+        USERS_ALL("GET /api/users/all/", 25),
+        CAMPAIGNS_ALL("GET /api/campaigns/all/", 15),
+        USERS_EXCEL("GET /api/users/all/excel", 5),
+        FILE_UPLOAD("POST /api/files/upload/", 10);
+
+        final String label;
+        final int weight;
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Endpoint[] WHEEL = wheel();
+    private static final byte[] UPLOAD_CONTENT = "votopia,load,test\n".repeat(2048).getBytes(StandardCharsets.UTF_8);
+
+    private final URI baseUri;
+    private final java.util.List<SyntheticDataset.Tenant> tenants;
+    private final HttpClient client;
+    private final Map<Endpoint, Recorder> recorders = new ConcurrentHashMap<>();
+    private final AtomicBoolean recording = new AtomicBoolean();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    LoadDriver(URI baseUri, java.util.List<SyntheticDataset.Tenant> tenants) {
+        this.baseUri = baseUri;
+        this.tenants = tenants;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) recorders.put(endpoint, new Recorder());
+    }
+
+    /**
+     * Avvia {@code clients} client (un virtual thread ciascuno) e restituisce il report della sola fase misurata.
+     */
+    Report run(int clients, Duration warmup, Duration duration) throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int c = 0; c < clients; c++) {
+            int index = c;
+            executor.submit(() -> client(index));
+        }
+        Thread.sleep(warmup.toMillis());
+        recording.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        recording.set(false);
+        long elapsed = System.nanoTime() - start;
+        stopped.set(true);
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) executor.shutdownNow();
+
+        Map<Endpoint, Report.Line> lines = new LinkedHashMap<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            lines.put(endpoint, recorders.get(endpoint).summarize(elapsed));
+        }
+        return new Report(clients, elapsed, lines);
+    }
+
+    private void client(int index) {
+        SyntheticDataset.Tenant tenant = tenants.get(index % tenants.size());
+        // Metà dei client sono amministratori, metà responsabili di lista (permessi e query diversi)
+        int slot = index / tenants.size();
+        String email = slot % 2 == 0 || tenant.managerEmails().isEmpty()
+                ? tenant.adminEmail()
+                : tenant.managerEmails().get(slot % tenant.managerEmails().size());
+        Long listId = email.equals(tenant.adminEmail()) || tenant.listIds().isEmpty()
+                ? null
+                : tenant.listIds().get(tenant.managerEmails().indexOf(email));
+
+        String token = null;
+        while (!stopped.get()) {
+            Endpoint endpoint = token == null ? Endpoint.LOGIN : WHEEL[ThreadLocalRandom.current().nextInt(WHEEL.length)];
+            long begin = System.nanoTime();
+            int status;
+            try {
+                HttpResponse<byte[]> response = client.send(request(endpoint, tenant, email, listId, token),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                status = response.statusCode();
+                if (endpoint == Endpoint.LOGIN && status == 200) {
+                    token = MAPPER.readTree(response.body()).path("data").path("token").asText(null);
+                }
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (recording.get()) recorders.get(endpoint).record(System.nanoTime() - begin, status);
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint, SyntheticDataset.Tenant tenant, String email, Long listId, String token) {
+        String listParam = listId == null ? "" : "?target_list_id=" + listId;
+        HttpRequest.Builder builder = switch (endpoint) {
+            case LOGIN -> HttpRequest.newBuilder(baseUri.resolve("/api/auth/login/"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(login(tenant.orgCode(), email)));
+            case USERS_INIT_SCREEN -> HttpRequest.newBuilder(baseUri.resolve("/api/users/init-screen/"));
+            case ROLES_INIT_SCREEN -> HttpRequest.newBuilder(baseUri.resolve("/api/roles/init-screen/"));
+            case USERS_ALL -> HttpRequest.newBuilder(baseUri.resolve("/api/users/all/" + listParam));
+            case CAMPAIGNS_ALL -> HttpRequest.newBuilder(baseUri.resolve("/api/campaigns/all/" + listParam));
+            case USERS_EXCEL -> HttpRequest.newBuilder(baseUri.resolve("/api/users/all/excel" + listParam));
+            case FILE_UPLOAD -> multipart(HttpRequest.newBuilder(baseUri.resolve("/api/files/upload/?category_id="
+                    + tenant.fileCategoryId() + (listId == null ? "" : "&list_id=" + listId))));
+        };
+        if (token != null && endpoint != Endpoint.LOGIN) builder.header("Authorization", "Bearer " + token);
+        return builder.timeout(Duration.ofSeconds(60)).build();
+    }
+
+    private static String login(String orgCode, String email) {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("codeOrg", orgCode);
+        body.put("email", email);
+        body.put("password", SyntheticDataset.PASSWORD);
+        return body.toString();
+    }
+
+    private static HttpRequest.Builder multipart(HttpRequest.Builder builder) {
+        String boundary = "votopia-" + UUID.randomUUID();
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"volantino.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        return builder
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(java.util.List.of(
+                        head.getBytes(StandardCharsets.UTF_8), UPLOAD_CONTENT, tail.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static Endpoint[] wheel() {
+        java.util.List<Endpoint> wheel = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            for (int i = 0; i < endpoint.weight; i++) wheel.add(endpoint);
+        }
+        return wheel.toArray(Endpoint[]::new);
+    }
+
+    /**
+     * Latenze di un endpoint: campioni grezzi in microsecondi, ordinati solo alla fine per i percentili.
+     */
+    private static final class Recorder {
+        private long[] samples = new long[1 << 12];
+        private int size;
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong serverErrors = new AtomicLong();
+
+        void record(long nanos, int status) {
+            if (status < 200 || status >= 400) errors.incrementAndGet();
+            if (status < 0 || status >= 500) serverErrors.incrementAndGet();
+            synchronized (this) {
+                if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+                samples[size++] = nanos / 1_000;
+            }
+        }
+
+        synchronized Report.Line summarize(long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            return new Report.Line(size, errors.get(), serverErrors.get(), size / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+
+    /**
+     * Risultato di un'esecuzione; le latenze sono in microsecondi.
+     */
+    record Report(int clients, long elapsedNanos, Map<Endpoint, Line> lines) {
+
+        record Line(long requests, long errors, long serverErrors, double throughput,
+                    long p50, long p90, long p99, long p999, long max) {}
+
+        /**
+         * Endpoint con almeno una risposta di errore, con il numero di errori.
+         */
+        Map<String, Long> errorsByEndpoint() {
+            Map<String, Long> errors = new LinkedHashMap<>();
+            lines.forEach((endpoint, line) -> {
+                if (line.errors() > 0) errors.put(endpoint.label, line.errors());
+            });
+            return errors;
+        }
+
+        String table() {
+            StringBuilder out = new StringBuilder(String.format("%n%-30s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            lines.forEach((endpoint, line) -> out.append(String.format("%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.label, line.requests(), line.errors(), line.throughput(), line.p50() / 1e3,
+                    line.p90() / 1e3, line.p99() / 1e3, line.p999() / 1e3, line.max() / 1e3)));
+            double total = lines.values().stream().mapToDouble(Line::throughput).sum();
+            out.append(String.format("%-30s %9d %7d %9.1f%n", "totale (" + clients + " client)",
+                    lines.values().stream().mapToLong(Line::requests).sum(),
+                    lines.values().stream().mapToLong(Line::errors).sum(), total));
+            return out.toString();
+        }
+
+        void writeJson(Path target) {
+            ObjectNode root = MAPPER.createObjectNode();
+            root.put("clients", clients);
+            root.put("durationSeconds", elapsedNanos / 1e9);
+            ArrayNode endpoints = root.putArray("endpoints");
+            lines.forEach((endpoint, line) -> {
+                JsonNode node = MAPPER.valueToTree(line);
+                ((ObjectNode) node).put("endpoint", endpoint.label);
+                endpoints.add(node);
+            });
+            try {
+                Files.createDirectories(target.getParent());
+                MAPPER.writerWithDefaultPrettyPrinter().writeValue(target.toFile(), root);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
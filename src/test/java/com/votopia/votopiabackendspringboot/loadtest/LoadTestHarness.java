@@ -0,0 +1,152 @@
+package com.votopia.votopiabackendspringboot.loadtest;
+
+import com.votopia.votopiabackendspringboot.services.impl.auth.EffectivePermissionMaterializer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di carico end-to-end: avvia l'applicazione completa su un database H2 in modalità MySQL, la popola con
+ * un {@link SyntheticDataset} e la sottopone al mix di richieste di {@link LoadDriver}.
+ * <p>
+ * Eseguito solo con il profilo Maven {@code loadtest} ({@code mvn test -Ploadtest}); dimensioni e durata si
+ * impostano con le proprietà di sistema {@code loadtest.*}, ad esempio
+ * {@code -Dloadtest.organizations=50 -Dloadtest.clients=200 -Dloadtest.duration=2m}.
+ * Il report (throughput, errori e percentili per endpoint) viene scritto nel log e in {@code target/loadtest-report.json};
+ * le metriche lato server raccolte durante il carico ({@code /actuator/prometheus}) in {@code target/loadtest-metrics.prom}.
+ * </p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// Nei test Spring Boot esporta metriche solo con questa annotazione
+@AutoConfigureObservability(tracing = false)
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:votopia-load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        "spring.jpa.properties.hibernate.use_sql_comments=false",
+        "application.security.jwt.secret-key=votopia-loadtest-secret-key-of-at-least-32-bytes",
+        "spring.output.ansi.enabled=NEVER",
+        "logging.level.root=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.com.votopia.votopiabackendspringboot.loadtest=INFO"
+})
+@Slf4j
+class LoadTestHarness {
+
+    @TempDir
+    static Path storageRoot;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("storage.location", () -> storageRoot.toString());
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EffectivePermissionMaterializer materializer;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        SyntheticDataset.Shape shape = new SyntheticDataset.Shape(
+                intProperty("loadtest.organizations", 10),
+                intProperty("loadtest.lists-per-org", 4),
+                intProperty("loadtest.users-per-org", 200),
+                intProperty("loadtest.candidates-per-list", 10),
+                intProperty("loadtest.campaigns-per-list", 2));
+        assertTrue(shape.usersPerOrg() > shape.listsPerOrg(), "serve almeno un utente per lista oltre all'amministratore");
+        int clients = intProperty("loadtest.clients", 50);
+        Duration warmup = durationProperty("loadtest.warmup", "10s");
+        Duration duration = durationProperty("loadtest.duration", "30s");
+
+        long seedStart = System.nanoTime();
+        String passwordHash = passwordEncoder.encode(SyntheticDataset.PASSWORD);
+        java.util.List<SyntheticDataset.Tenant> tenants =
+                new SyntheticDataset(entityManager, new TransactionTemplate(transactionManager), passwordHash).seed(shape);
+        // I permessi materializzati vanno ricostruiti: il dataset è scritto senza passare dai service
+        materializer.rebuildAll();
+        log.info("Dataset {} pronto in {} ms", shape, (System.nanoTime() - seedStart) / 1_000_000);
+
+        LoadDriver.Report report = new LoadDriver(URI.create("http://localhost:" + port), tenants)
+                .run(clients, warmup, duration);
+        log.info("Risultati del carico:{}", report.table());
+        report.writeJson(Path.of("target", reportName() + "-report.json"));
+        onReport(report);
+        HttpClient client = HttpClient.newHttpClient();
+        String metrics = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        int publicScrape = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+        Files.writeString(Path.of("target", reportName() + "-metrics.prom"), metrics);
+
+        assertEquals(Map.of(), report.errorsByEndpoint(), "risposte di errore (4xx, 5xx o connessione) durante il carico");
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket"), "istogrammi HTTP assenti dallo scrape");
+        assertNotEquals(200, publicScrape, "metriche leggibili senza autenticazione sulla porta pubblica");
+    }
+
+    /**
+     * Prefisso dei file scritti in {@code target}.
+     */
+    String reportName() {
+        return "loadtest";
+    }
+
+    void onReport(LoadDriver.Report report) {
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static Duration durationProperty(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(name, defaultValue));
+    }
+}
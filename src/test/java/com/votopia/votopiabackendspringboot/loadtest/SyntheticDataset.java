@@ -0,0 +1,210 @@
+package com.votopia.votopiabackendspringboot.loadtest;
+
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.campaigns.Campaign;
+import com.votopia.votopiabackendspringboot.entities.campaigns.Candidate;
+import com.votopia.votopiabackendspringboot.entities.campaigns.CandidateCampaign;
+import com.votopia.votopiabackendspringboot.entities.files.FileCategory;
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Dataset sintetico multi-organizzazione per i test di carico.
+ * <p>
+ * Ogni organizzazione ha un amministratore con tutti i permessi di organizzazione, {@code listsPerOrg} liste
+ * con un responsabile (ruolo di lista con i permessi {@code *_list}) e membri senza ruoli, candidati e campagne
+ * per lista. Tutti gli utenti hanno la stessa password ({@link #PASSWORD}), cifrata una sola volta.
+ * Ogni organizzazione viene scritta nella propria transazione.
+ * </p>
+ */
+class SyntheticDataset {
+
+    static final String PASSWORD = "password";
+
+    // Tutti i permessi controllati dai service
+    private static final String[] PERMISSIONS = {
+            "add_file_list", "add_file_organization", "create_campaign_list", "create_campaign_organization",
+            "create_candidate_list", "create_candidate_organization", "create_list", "create_role_list",
+            "create_role_organization", "create_user_for_list", "create_user_for_organization",
+            "delete_campaign_list", "delete_campaign_organization", "delete_file_list", "delete_file_organization",
+            "delete_role_list", "delete_role_organization", "delete_user_organization", "update_campaign_list",
+            "update_campaign_organization", "update_list_list", "update_list_organization", "update_role_list",
+            "update_role_organization", "update_user_list", "update_user_organization", "view_all_campaign_list",
+            "view_all_campaign_organization", "view_all_candidate_list", "view_all_candidate_organization",
+            "view_all_lists", "view_all_role_list", "view_all_role_organization", "view_all_user_list",
+            "view_all_user_organization"
+    };
+
+    /**
+     * Dimensioni del dataset, per organizzazione.
+     */
+    record Shape(int organizations, int listsPerOrg, int usersPerOrg, int candidatesPerList, int campaignsPerList) {}
+
+    /**
+     * Credenziali e liste di un'organizzazione, usate dai client del carico.
+     *
+     * @param managerEmails Un responsabile per ogni lista, nello stesso ordine di {@code listIds}.
+     * @param fileCategoryId Categoria usata per i caricamenti.
+     */
+    record Tenant(String orgCode, String adminEmail, java.util.List<String> managerEmails, java.util.List<Long> listIds,
+                  Long fileCategoryId) {}
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final String passwordHash;
+    private final Random random = new Random(42);
+
+    SyntheticDataset(EntityManager entityManager, TransactionTemplate transactionTemplate, String passwordHash) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordHash = passwordHash;
+    }
+
+    java.util.List<Tenant> seed(Shape shape) {
+        Long fileCategoryId = transactionTemplate.execute(status -> {
+            FileCategory category = new FileCategory();
+            category.setName("Volantini");
+            entityManager.persist(category);
+            return category.getId();
+        });
+        java.util.List<Long> permissionIds = transactionTemplate.execute(status -> {
+            java.util.List<Long> ids = new ArrayList<>();
+            for (String name : PERMISSIONS) {
+                Permission permission = new Permission();
+                permission.setName(name);
+                entityManager.persist(permission);
+                ids.add(permission.getId());
+            }
+            return ids;
+        });
+
+        java.util.List<Tenant> tenants = new ArrayList<>();
+        for (int o = 0; o < shape.organizations(); o++) {
+            int index = o;
+            tenants.add(transactionTemplate.execute(status -> {
+                Tenant tenant = seedOrganization(index, shape, permissionIds, fileCategoryId);
+                entityManager.flush();
+                entityManager.clear();
+                return tenant;
+            }));
+        }
+        return tenants;
+    }
+
+    private Tenant seedOrganization(int index, Shape shape, java.util.List<Long> permissionIds, Long fileCategoryId) {
+        Organization org = new Organization();
+        org.setCode(String.format("L%06d", index));
+        org.setName("Istituto " + index);
+        org.setMaxLists(shape.listsPerOrg());
+        entityManager.persist(org);
+
+        java.util.List<Permission> orgPermissions = new ArrayList<>();
+        java.util.List<Permission> listPermissions = new ArrayList<>();
+        for (int i = 0; i < PERMISSIONS.length; i++) {
+            Permission permission = entityManager.getReference(Permission.class, permissionIds.get(i));
+            if (PERMISSIONS[i].endsWith("_list")) listPermissions.add(permission);
+            else orgPermissions.add(permission);
+        }
+
+        Role adminRole = role(org, null, "Amministratore", orgPermissions);
+        User admin = user(org, "admin", index);
+        admin.getRoles().add(adminRole);
+        entityManager.persist(admin);
+
+        java.util.List<List> lists = new ArrayList<>();
+        java.util.List<Role> managerRoles = new ArrayList<>();
+        for (int l = 0; l < shape.listsPerOrg(); l++) {
+            List list = new List();
+            list.setOrg(org);
+            list.setName("Lista " + (l + 1));
+            list.setSlogan("Insieme per l'istituto");
+            list.setColorPrimary("#0055aa");
+            entityManager.persist(list);
+            lists.add(list);
+            managerRoles.add(role(org, list, "Responsabile", listPermissions));
+        }
+
+        // Il resto degli utenti è distribuito tra le liste: il primo di ogni lista ne è il responsabile
+        java.util.List<java.util.List<User>> members = new ArrayList<>();
+        lists.forEach(list -> members.add(new ArrayList<>()));
+        String[] managerEmails = new String[lists.size()];
+        for (int u = 1; u < shape.usersPerOrg(); u++) {
+            int l = lists.isEmpty() ? -1 : u % lists.size();
+            User user = user(org, "user" + u, index);
+            if (l >= 0) {
+                user.getLists().add(lists.get(l));
+                if (members.get(l).isEmpty()) {
+                    user.getRoles().add(managerRoles.get(l));
+                    managerEmails[l] = user.getEmail();
+                }
+                members.get(l).add(user);
+            }
+            entityManager.persist(user);
+        }
+
+        for (int l = 0; l < lists.size(); l++) {
+            List list = lists.get(l);
+            java.util.List<Candidate> candidates = new ArrayList<>();
+            java.util.List<User> pool = members.get(l);
+            for (int c = 0; c < Math.min(shape.candidatesPerList(), pool.size()); c++) {
+                Candidate candidate = new Candidate();
+                candidate.setList(list);
+                candidate.setUser(pool.get(c));
+                candidate.setSchoolClass((c % 5 + 1) + "A");
+                candidate.setBio("Candidato " + c + " della " + list.getName());
+                entityManager.persist(candidate);
+                candidates.add(candidate);
+            }
+            for (int k = 0; k < shape.campaignsPerList(); k++) {
+                Campaign campaign = new Campaign();
+                campaign.setList(list);
+                campaign.setName("Campagna " + (k + 1));
+                campaign.setDescription("Campagna elettorale " + (k + 1) + " della " + list.getName());
+                campaign.setStartDate(LocalDate.of(2026, 9, 1).plusDays(random.nextInt(30)));
+                campaign.setEndDate(campaign.getStartDate().plusDays(30));
+                entityManager.persist(campaign);
+                for (Candidate candidate : candidates) {
+                    if (random.nextBoolean()) continue;
+                    CandidateCampaign link = new CandidateCampaign();
+                    link.setCandidate(candidate);
+                    link.setCampaign(campaign);
+                    entityManager.persist(link);
+                }
+            }
+        }
+
+        return new Tenant(org.getCode(), admin.getEmail(),
+                Arrays.stream(managerEmails).filter(Objects::nonNull).toList(), lists.stream().map(List::getId).toList(), fileCategoryId);
+    }
+
+    private Role role(Organization org, List list, String name, java.util.List<Permission> permissions) {
+        Role role = new Role();
+        role.setOrganization(org);
+        role.setList(list);
+        role.setName(name);
+        role.setColor("#888888");
+        role.getPermissions().addAll(permissions);
+        entityManager.persist(role);
+        return role;
+    }
+
+    private User user(Organization org, String prefix, int orgIndex) {
+        User user = new User();
+        user.setName(prefix);
+        user.setSurname("Org" + orgIndex);
+        user.setEmail(prefix + "@org" + orgIndex + ".votopia.test");
+        user.setPassword(passwordHash);
+        user.setOrg(org);
+        return user;
+    }
+}
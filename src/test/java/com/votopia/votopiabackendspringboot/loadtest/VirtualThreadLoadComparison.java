@@ -0,0 +1,98 @@
+package com.votopia.votopiabackendspringboot.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.TestClassOrder;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lo stesso carico di {@link LoadTestHarness} eseguito due volte sull'applicazione completa: prima con i thread
+ * di piattaforma di Tomcat, poi con {@code spring.threads.virtual.enabled=true}. Alla fine throughput e p99 di
+ * ogni endpoint nelle due esecuzioni vengono messi a confronto nel log e in {@code target/loadtest-threads.txt}.
+ * <p>
+ * {@code mvn test -Ploadtest -Dloadtest.test=VirtualThreadLoadComparison}; le proprietà {@code loadtest.*} valgono
+ * per entrambe le esecuzioni. La differenza emerge quando i client superano i thread di Tomcat (200), ad esempio
+ * {@code -Dloadtest.clients=400}: con i thread di piattaforma le richieste in più restano in coda.
+ * Ogni esecuzione ha il proprio database in memoria e il proprio contesto, chiuso prima della successiva;
+ * la prima parte con la JVM fredda, quindi il riscaldamento ({@code loadtest.warmup}) va tenuto abbastanza lungo.
+ * </p>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+class VirtualThreadLoadComparison {
+
+    private static final Map<String, LoadDriver.Report> reports = new LinkedHashMap<>();
+
+    @Nested
+    @Order(1)
+    @DirtiesContext
+    @TestPropertySource(properties = {
+            "spring.threads.virtual.enabled=false",
+            "spring.datasource.url=jdbc:h2:mem:votopia-load-platform;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+    })
+    class PlatformThreads extends LoadTestHarness {
+
+        @Override
+        String reportName() {
+            return "loadtest-platform";
+        }
+
+        @Override
+        void onReport(LoadDriver.Report report) {
+            reports.put("platform", report);
+        }
+    }
+
+    @Nested
+    @Order(2)
+    @DirtiesContext
+    @TestPropertySource(properties = {
+            "spring.threads.virtual.enabled=true",
+            "spring.datasource.url=jdbc:h2:mem:votopia-load-virtual;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+    })
+    class VirtualThreads extends LoadTestHarness {
+
+        @Override
+        String reportName() {
+            return "loadtest-virtual";
+        }
+
+        @Override
+        void onReport(LoadDriver.Report report) {
+            reports.put("virtual", report);
+        }
+    }
+
+    @AfterAll
+    static void compare() throws IOException {
+        LoadDriver.Report platform = reports.get("platform");
+        LoadDriver.Report virtual = reports.get("virtual");
+        if (platform == null || virtual == null) return;
+
+        StringBuilder out = new StringBuilder(String.format("%n%-30s %14s %14s %14s %14s%n",
+                "endpoint", "req/s platform", "req/s virtual", "p99 ms platf.", "p99 ms virtual"));
+        platform.lines().forEach((endpoint, before) -> {
+            LoadDriver.Report.Line after = virtual.lines().get(endpoint);
+            out.append(String.format("%-30s %14.1f %14.1f %14.2f %14.2f%n", endpoint.label,
+                    before.throughput(), after.throughput(), before.p99() / 1e3, after.p99() / 1e3));
+        });
+        out.append(String.format("%-30s %14.1f %14.1f%n", "totale (" + platform.clients() + " client)",
+                platform.lines().values().stream().mapToDouble(LoadDriver.Report.Line::throughput).sum(),
+                virtual.lines().values().stream().mapToDouble(LoadDriver.Report.Line::throughput).sum()));
+
+        log.info("Thread di piattaforma e virtual thread a confronto:{}", out);
+        Files.writeString(Path.of("target", "loadtest-threads.txt"), out.toString());
+    }
+}
@@ -0,0 +1,46 @@
+package com.votopia.votopiabackendspringboot.services.auth;
+
+import com.votopia.votopiabackendspringboot.dtos.permission.PermissionGrantDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionSnapshotTest {
+
+    @Test
+    void bitsAcrossWordBoundaries() {
+        PermissionBits a = PermissionBits.of(1, 63, 64, 130);
+        PermissionBits b = PermissionBits.of(2, 64);
+
+        assertTrue(a.has(63) && a.has(64) && a.has(130));
+        assertFalse(a.has(2) || a.has(-1) || a.has(500));
+        assertEquals(5, a.or(b).cardinality());
+        assertTrue(a.or(b).containsAll(a));
+        assertFalse(b.containsAll(a));
+        assertEquals(PermissionBits.of(64, 2), b);
+        assertTrue(PermissionBits.of().isEmpty());
+    }
+
+    @Test
+    void snapshotSeparatesOrgAndListGrants() {
+        Map<String, Integer> registry = new HashMap<>();
+        PermissionSnapshot snapshot = PermissionSnapshot.of(1L, java.util.List.of(
+                new PermissionGrantDto(null, "view_all_user_organization"),
+                new PermissionGrantDto(7L, "create_user_for_list")
+        ), name -> registry.computeIfAbsent(name, n -> registry.size()));
+
+        int org = registry.get("view_all_user_organization");
+        int list = registry.get("create_user_for_list");
+
+        assertTrue(snapshot.hasPermission(org));
+        assertTrue(snapshot.hasPermission(list));
+        assertTrue(snapshot.orgPermissions().has(org));
+        assertFalse(snapshot.orgPermissions().has(list));
+        assertTrue(snapshot.hasPermissionOnList(7L, list));
+        assertFalse(snapshot.hasPermissionOnList(8L, list));
+        assertFalse(snapshot.hasPermissionOnList(7L, org));
+    }
+}
@@ -0,0 +1,204 @@
+package com.votopia.votopiabackendspringboot.services.impl;
+
+import com.votopia.votopiabackendspringboot.dtos.CursorPage;
+import com.votopia.votopiabackendspringboot.dtos.candidate.CandidateSummaryDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserDetailDto;
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.campaigns.Campaign;
+import com.votopia.votopiabackendspringboot.entities.campaigns.Candidate;
+import com.votopia.votopiabackendspringboot.entities.files.File;
+import com.votopia.votopiabackendspringboot.entities.files.FileCategory;
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica che gli endpoint di elenco eseguano un numero di query fisso, indipendente dal numero di righe.
+ */
+@DataJpaTest
+@Import(ListingReadModel.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class ListingReadModelTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private ListingReadModel readModel;
+
+    private Organization org;
+    private List list;
+    private Role orgRole;
+    private Role listRole;
+    private FileCategory category;
+    private int seeded;
+
+    @BeforeEach
+    void setUp() {
+        org = new Organization();
+        org.setCode("TST0001");
+        org.setName("Scuola di prova");
+        em.persist(org);
+
+        list = new List();
+        list.setOrg(org);
+        list.setName("Lista A");
+        em.persist(list);
+
+        Permission permission = new Permission();
+        permission.setName("view_all_user_list");
+        em.persist(permission);
+
+        orgRole = role("Admin", null, permission);
+        listRole = role("Membro", list, permission);
+
+        category = new FileCategory();
+        category.setName("foto");
+        em.persist(category);
+    }
+
+    @Test
+    void usersOfOrgUsesFixedNumberOfStatements() {
+        long few = statementsFor(3, () -> readModel.usersOfOrg(org.getId()));
+        long many = statementsFor(40, () -> readModel.usersOfOrg(org.getId()));
+
+        assertEquals(3, few);
+        assertEquals(few, many);
+
+        UserDetailDto any = readModel.usersOfOrg(org.getId()).iterator().next();
+        assertEquals(2, any.roles().size());
+        assertEquals(1, any.list().size());
+    }
+
+    @Test
+    void usersOfListUsesFixedNumberOfStatements() {
+        long few = statementsFor(3, () -> readModel.usersOfList(list.getId()));
+        long many = statementsFor(40, () -> readModel.usersOfList(list.getId()));
+
+        assertEquals(3, few);
+        assertEquals(few, many);
+    }
+
+    @Test
+    void rolesAndCampaignsUseSingleStatement() {
+        assertEquals(1, statementsFor(3, () -> readModel.rolesOfOrg(org.getId())));
+        assertEquals(1, statementsFor(40, () -> readModel.campaignsOfOrg(org.getId())));
+        assertEquals(1, statementsFor(0, () -> readModel.campaignsOfList(list.getId())));
+    }
+
+    @Test
+    void candidatesOfListUsesFixedNumberOfStatements() {
+        long few = statementsFor(3, () -> readModel.candidatesOfList(list.getId()));
+        long many = statementsFor(40, () -> readModel.candidatesOfList(list.getId()));
+
+        assertEquals(2, few);
+        assertEquals(few, many);
+
+        Set<CandidateSummaryDto> candidates = readModel.candidatesOfList(list.getId());
+        assertEquals(seeded, candidates.size());
+        CandidateSummaryDto any = candidates.iterator().next();
+        assertNotNull(any.photoFileId());
+        assertEquals(2, any.user().roles().size());
+    }
+
+    @Test
+    void usersAfterWalksEveryRowOnceInIdOrder() {
+        statementsFor(7, () -> null);
+
+        java.util.List<Long> seen = new java.util.ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            // Una pagina in più del limite serve solo a sapere se ce n'è un'altra
+            java.util.List<UserDetailDto> page = readModel.usersAfter(ListingReadModel.Scope.org(org.getId()), afterId, 3 + 1);
+            CursorPage<UserDetailDto> cursorPage = CursorPage.of(page, 3, UserDetailDto::id);
+            cursorPage.items().forEach(u -> seen.add(u.id()));
+            if (!cursorPage.hasMore()) break;
+            afterId = CursorPage.decode(cursorPage.nextCursor());
+        }
+
+        assertEquals(7, seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+
+    // --- Helper ---
+
+    /**
+     * Aggiunge {@code rows} utenti (con ruoli, lista, campagna e candidatura) e conta le istruzioni
+     * preparate dall'invocazione, a contesto di persistenza vuoto.
+     */
+    private long statementsFor(int rows, Supplier<?> invocation) {
+        for (int i = 0; i < rows; i++) seedRow();
+        em.flush();
+        em.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        invocation.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seedRow() {
+        int n = seeded++;
+        User user = new User();
+        user.setName("Nome" + n);
+        user.setSurname("Cognome" + n);
+        user.setEmail("utente" + n + "@example.com");
+        user.setOrg(org);
+        user.getRoles().add(em.find(Role.class, orgRole.getId()));
+        user.getRoles().add(em.find(Role.class, listRole.getId()));
+        user.getLists().add(em.find(List.class, list.getId()));
+        em.persist(user);
+
+        Campaign campaign = new Campaign();
+        campaign.setName("Campagna " + n);
+        campaign.setList(em.find(List.class, list.getId()));
+        campaign.setStartDate(LocalDate.of(2026, 1, 1));
+        campaign.setEndDate(LocalDate.of(2026, 6, 1));
+        em.persist(campaign);
+
+        File photo = new File();
+        photo.setName("foto" + n + ".jpg");
+        photo.setOrg(em.find(Organization.class, org.getId()));
+        photo.setUser(user);
+        photo.setFileCategory(em.find(FileCategory.class, category.getId()));
+        photo.setFilePath("uploads/foto" + n + ".jpg");
+        photo.setMimeType("image/jpeg");
+        em.persist(photo);
+
+        Candidate candidate = new Candidate();
+        candidate.setList(em.find(List.class, list.getId()));
+        candidate.setUser(user);
+        candidate.setSchoolClass("5A");
+        candidate.setPhotoFileId(photo);
+        em.persist(candidate);
+    }
+
+    private Role role(String name, List roleList, Permission permission) {
+        Role role = new Role();
+        role.setName(name);
+        role.setColor("#000000");
+        role.setOrganization(org);
+        role.setList(roleList);
+        role.getPermissions().add(permission);
+        return em.persist(role);
+    }
+}
@@ -0,0 +1,135 @@
+package com.votopia.votopiabackendspringboot.services.impl;
+
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.repositories.organizations.OrganizationRepository;
+import com.votopia.votopiabackendspringboot.services.OrgDataChangedEvent;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionBits;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionSnapshot;
+import com.votopia.votopiabackendspringboot.services.impl.auth.PermissionSnapshotHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Le modifiche vengono confermate davvero (niente transazione del test): la versione segue il commit.
+ */
+@DataJpaTest
+@Import({OrgDataVersions.class, PermissionSnapshotHolder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class OrgDataVersionsTest {
+
+    @Autowired private OrgDataVersions versions;
+    @Autowired private PermissionSnapshotHolder snapshotHolder;
+    @Autowired private OrganizationRepository organizationRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Long orgId;
+    private Long otherOrgId;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        orgId = organization("TST0001").getId();
+        otherOrgId = organization("TST0002").getId();
+        newRequest(PermissionBits.of(1, 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void changeIsSharedByEveryNodeOnceCommitted() {
+        // Un altro nodo: nessuno stato in memoria, stesso database
+        OrgDataVersions otherNode = new OrgDataVersions(organizationRepository, snapshotHolder);
+        String before = otherNode.screenETag(7L, orgId);
+        assertTrue(before.startsWith("W/\""));
+        assertEquals(before, versions.screenETag(7L, orgId));
+
+        tx.executeWithoutResult(status -> eventPublisher.publishEvent(new OrgDataChangedEvent(orgId)));
+
+        assertEquals(1L, versions.current(orgId));
+        assertEquals(1L, otherNode.current(orgId));
+        assertEquals(0L, otherNode.current(otherOrgId));
+        assertNotEquals(before, otherNode.screenETag(7L, orgId));
+        // Stessa versione e stessi permessi: l'ETag emesso da un nodo vale anche sugli altri
+        assertEquals(versions.screenETag(7L, orgId), otherNode.screenETag(7L, orgId));
+    }
+
+    @Test
+    void rolledBackChangeKeepsTheVersion() {
+        tx.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new OrgDataChangedEvent(orgId));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0L, versions.current(orgId));
+    }
+
+    @Test
+    void permissionChangeInvalidatesWithoutDataChanges() {
+        String before = versions.screenETag(7L, orgId);
+        assertEquals(before, versions.screenETag(7L, orgId));
+
+        newRequest(PermissionBits.of(1));
+        assertNotEquals(before, versions.screenETag(7L, orgId));
+
+        // Permessi non caricati nella richiesta: nessuna GET condizionale
+        assertNull(versions.screenETag(8L, orgId));
+        assertNull(versions.screenETag(7L, null));
+    }
+
+    @Test
+    void currentClientGetsNotModified() {
+        String etag = versions.screenETag(7L, orgId);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/init-screen/");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(new ServletWebRequest(request, response).checkNotModified(etag));
+        assertEquals(304, response.getStatus());
+
+        tx.executeWithoutResult(status -> eventPublisher.publishEvent(new OrgDataChangedEvent(orgId)));
+        response = new MockHttpServletResponse();
+        assertFalse(new ServletWebRequest(request, response).checkNotModified(versions.screenETag(7L, orgId)));
+        assertEquals(200, response.getStatus());
+    }
+
+    private Organization organization(String code) {
+        Organization org = new Organization();
+        org.setCode(code);
+        org.setName("Scuola " + code);
+        return organizationRepository.save(org);
+    }
+
+    private void newRequest(PermissionBits permissions) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        snapshotHolder.set(new PermissionSnapshot(7L, permissions, permissions, Map.of()));
+    }
+}
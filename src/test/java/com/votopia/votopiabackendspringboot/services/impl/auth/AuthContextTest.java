@@ -0,0 +1,70 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class AuthContextTest {
+
+    private UserRepository userRepository;
+    private AuthServiceImpl authService;
+    private AuthContext authContext;
+
+    @BeforeEach
+    void setUp() {
+        Organization org = new Organization();
+        org.setId(1L);
+        User user = new User();
+        user.setId(7L);
+        user.setOrg(org);
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findWithContextById(7L)).thenReturn(Optional.of(user));
+
+        authContext = new AuthContext(userRepository);
+        authService = new AuthServiceImpl(userRepository, null, null, null, authContext);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void loadsTheUserOncePerRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        User first = authService.getAuthenticatedUser(7L);
+        assertSame(first, authService.getAuthenticatedUser(7L));
+        assertSame(first, authContext.cached(7L));
+        assertNull(authContext.cached(8L));
+        verify(userRepository, times(1)).findWithContextById(7L);
+        verify(userRepository, never()).findById(anyLong());
+
+        // Nuova richiesta: nuovo caricamento
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        authService.getAuthenticatedUser(7L);
+        verify(userRepository, times(2)).findWithContextById(7L);
+    }
+
+    @Test
+    void outsideARequestEveryCallGoesToTheDatabase() {
+        authService.getAuthenticatedUser(7L);
+        authService.getAuthenticatedUser(7L);
+
+        assertNull(authContext.cached(7L));
+        verify(userRepository, times(2)).findWithContextById(7L);
+    }
+}
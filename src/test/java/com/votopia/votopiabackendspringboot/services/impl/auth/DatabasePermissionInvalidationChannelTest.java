@@ -0,0 +1,105 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.services.auth.PermissionsChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Due "nodi", ognuno con la propria cache e il proprio canale, che condividono solo il database.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class DatabasePermissionInvalidationChannelTest {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private DatabasePermissionInvalidationChannel channelA;
+    private DatabasePermissionInvalidationChannel channelB;
+    private PermissionCache nodeA;
+    private PermissionCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        channelA = new DatabasePermissionInvalidationChannel(jdbcTemplate, Duration.ofMinutes(1), Duration.ofHours(1));
+        channelB = new DatabasePermissionInvalidationChannel(jdbcTemplate, Duration.ofMinutes(1), Duration.ofHours(1));
+        nodeA = new PermissionCache(channelA, 100, Duration.ofMinutes(10));
+        nodeB = new PermissionCache(channelB, 100, Duration.ofMinutes(10));
+        nodeA.subscribe();
+        nodeB.subscribe();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM permission_invalidations");
+    }
+
+    @Test
+    void invalidationReachesTheOtherNodeOnItsNextPoll() {
+        PermissionCache.Key user1 = new PermissionCache.Key(1L, null, "create_list");
+        PermissionCache.Key user2 = new PermissionCache.Key(2L, null, "create_list");
+        nodeA.isGranted(user1, () -> true);
+        nodeB.isGranted(user1, () -> true);
+        nodeB.isGranted(user2, () -> true);
+
+        nodeA.onPermissionsChanged(new PermissionsChangedEvent(Set.of(1L)));
+
+        // Il nodo che pubblica invalida subito, l'altro alla lettura successiva
+        AtomicInteger reloads = new AtomicInteger();
+        assertFalse(nodeA.isGranted(user1, () -> { reloads.incrementAndGet(); return false; }));
+        assertTrue(nodeB.isGranted(user1, () -> { reloads.incrementAndGet(); return false; }));
+        assertEquals(1, reloads.get());
+
+        channelB.poll();
+        assertFalse(nodeB.isGranted(user1, () -> { reloads.incrementAndGet(); return false; }));
+        assertTrue(nodeB.isGranted(user2, () -> { reloads.incrementAndGet(); return false; }));
+        assertEquals(2, reloads.get(), "solo l'utente 1 deve essere ricaricato sul nodo B");
+    }
+
+    @Test
+    void eachInvalidationIsDeliveredOnceAndNeverBackToItsPublisher() {
+        AtomicInteger deliveriesA = new AtomicInteger();
+        AtomicInteger deliveriesB = new AtomicInteger();
+        channelA.subscribe(userIds -> deliveriesA.incrementAndGet());
+        channelB.subscribe(userIds -> deliveriesB.incrementAndGet());
+
+        channelA.publish(Set.of(1L, 2L));
+        channelA.poll();
+        channelB.poll();
+        // Le righe restano nella finestra di sovrapposizione, ma sono già state consegnate
+        channelB.poll();
+
+        assertEquals(1, deliveriesA.get());
+        assertEquals(1, deliveriesB.get());
+    }
+
+    @Test
+    void rowsOlderThanTheRetentionAreDeleted() {
+        jdbcTemplate.update("INSERT INTO permission_invalidations (user_id, node_id, created_at) VALUES (?, ?, ?)",
+                1L, "altro", Timestamp.valueOf(LocalDateTime.now().minusHours(2)));
+        channelA.publish(Set.of(2L));
+
+        channelB.purge();
+
+        assertEquals(java.util.List.of(2L),
+                jdbcTemplate.queryForList("SELECT user_id FROM permission_invalidations", Long.class));
+    }
+}
@@ -0,0 +1,163 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.config.JwtAuthenticationFilter;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import com.votopia.votopiabackendspringboot.repositories.organizations.OrganizationRepository;
+import com.votopia.votopiabackendspringboot.services.auth.JwtService;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.auth.UsersDeletedEvent;
+import com.votopia.votopiabackendspringboot.services.auth.VerifiedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Le eliminazioni vengono confermate davvero (niente transazione del test): il registro reagisce al commit.
+ */
+@DataJpaTest
+@Import(DeletedUserRegistry.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class DeletedUserRegistryTest {
+
+    @Autowired private DeletedUserRegistry registry;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrganizationRepository organizationRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Organization org;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        org = new Organization();
+        org.setCode("TST0001");
+        org.setName("Scuola di prova");
+        organizationRepository.save(org);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.deleteAll();
+        organizationRepository.deleteAll();
+    }
+
+    @Test
+    void deletedUserTokenIsRejectedAsSoonAsTheDeletionCommits() throws Exception {
+        User user = user("mario@example.com");
+        registry.refresh();
+        JwtAuthenticationFilter filter = filterAccepting(new VerifiedToken(user.getEmail(), user.getId(), org.getId(),
+                Instant.now().plusSeconds(3600)));
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+
+        tx.executeWithoutResult(status -> {
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.setDeleted(true);
+            managed.setDeletedAt(LocalDateTime.now());
+            userRepository.save(managed);
+            eventPublisher.publishEvent(new UsersDeletedEvent(Set.of(user.getId())));
+            // Finché la transazione non è confermata l'eliminazione può ancora essere annullata
+            assertFalse(registry.isDeleted(user.getId()));
+        });
+
+        // Nessun aggiornamento periodico in mezzo: basta il commit
+        assertTrue(registry.isDeleted(user.getId()));
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void restartedNodeReloadsTheDeletedUsersFromTheDatabase() {
+        User deletedBeforeRestart = user("vecchio@example.com");
+        User active = user("attivo@example.com");
+        registry.onUsersDeleted(new UsersDeletedEvent(Set.of(deletedBeforeRestart.getId())));
+        markDeleted(deletedBeforeRestart);
+
+        // Nuova istanza, come dopo un riavvio: parte vuota e si ricarica al primo aggiornamento
+        DeletedUserRegistry restarted = newRegistry();
+        assertFalse(restarted.isDeleted(deletedBeforeRestart.getId()));
+        restarted.refresh();
+        assertTrue(restarted.isDeleted(deletedBeforeRestart.getId()));
+        assertFalse(restarted.isDeleted(active.getId()));
+
+        // Eliminazione fatta da un altro nodo (nessun evento qui): arriva con l'aggiornamento incrementale
+        markDeleted(active);
+        restarted.refresh();
+        assertTrue(restarted.isDeleted(active.getId()));
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setName("Mario");
+        user.setSurname("Rossi");
+        user.setEmail(email);
+        user.setOrg(org);
+        return userRepository.save(user);
+    }
+
+    private void markDeleted(User user) {
+        tx.executeWithoutResult(status -> {
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.setDeleted(true);
+            managed.setDeletedAt(LocalDateTime.now());
+        });
+    }
+
+    private DeletedUserRegistry newRegistry() {
+        DeletedUserRegistry restarted = new DeletedUserRegistry();
+        ReflectionTestUtils.setField(restarted, "userRepository", userRepository);
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "overlap", Duration.ofMinutes(1));
+        return restarted;
+    }
+
+    private JwtAuthenticationFilter filterAccepting(VerifiedToken token) {
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.verify("token")).thenReturn(Optional.of(token));
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, mock(UserDetailsService.class),
+                mock(PermissionService.class), registry);
+        ReflectionTestUtils.setField(filter, "principalSource", "claims");
+        return filter;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+}
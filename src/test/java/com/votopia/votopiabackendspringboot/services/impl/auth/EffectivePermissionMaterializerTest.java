@@ -0,0 +1,130 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.entities.auth.Permission;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserEffectivePermissionRepository;
+import com.votopia.votopiabackendspringboot.repositories.auth.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(EffectivePermissionMaterializer.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class EffectivePermissionMaterializerTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EffectivePermissionMaterializer materializer;
+    @Autowired private UserEffectivePermissionRepository effectivePermissions;
+    @Autowired private UserRepository userRepository;
+
+    private User user;
+    private List list;
+    private Role listRole;
+    private Permission viewUsers;
+
+    @BeforeEach
+    void setUp() {
+        Organization org = new Organization();
+        org.setCode("TST0001");
+        org.setName("Scuola di prova");
+        em.persist(org);
+
+        list = new List();
+        list.setOrg(org);
+        list.setName("Lista A");
+        em.persist(list);
+
+        viewUsers = permission("view_all_user_organization");
+        Permission createUser = permission("create_user_for_list");
+
+        Role orgRole = role(org, null, viewUsers);
+        listRole = role(org, list, createUser);
+
+        user = new User();
+        user.setName("Mario");
+        user.setSurname("Rossi");
+        user.setEmail("mario@example.com");
+        user.setOrg(org);
+        user.getRoles().add(orgRole);
+        em.persist(user);
+    }
+
+    @Test
+    void refreshMatchesTheLiveJoin() {
+        materializer.refreshUsers(Set.of(user.getId()));
+        assertEquals(userRepository.hasPermission(user.getId(), "view_all_user_organization"),
+                effectivePermissions.hasPermission(user.getId(), "view_all_user_organization"));
+        assertFalse(effectivePermissions.hasPermissionOnList(user.getId(), list.getId(), "create_user_for_list"));
+
+        // Modifica non ancora scritta a DB: il refresh deve vederla
+        user.getRoles().add(listRole);
+        materializer.refreshUsers(Set.of(user.getId()));
+
+        assertTrue(effectivePermissions.hasPermissionOnList(user.getId(), list.getId(), "create_user_for_list"));
+        assertEquals(2, effectivePermissions.findPermissionGrantsByUserId(user.getId()).size());
+        assertEquals(2, effectivePermissions.findAllPermissionsByUserId(user.getId()).size());
+    }
+
+    @Test
+    void deletedUsersLoseTheirRowsAndRebuildRepairsDrift() {
+        materializer.refreshUsers(Set.of(user.getId()));
+        effectivePermissions.deleteAll();
+        em.flush();
+        assertFalse(effectivePermissions.hasPermission(user.getId(), "view_all_user_organization"));
+
+        materializer.rebuildAll();
+        assertTrue(effectivePermissions.hasPermission(user.getId(), "view_all_user_organization"));
+
+        user.setDeleted(true);
+        materializer.refreshUsers(Set.of(user.getId()));
+        assertTrue(effectivePermissions.findPermissionGrantsByUserId(user.getId()).isEmpty());
+    }
+
+    @Test
+    void startupRebuildsAStaleTableBeforeBeingReady() {
+        user.getRoles().add(listRole);
+        materializer.refreshUsers(Set.of(user.getId()));
+
+        // Ruolo revocato senza aggiornare la tabella (es. mentre il nodo era fermo): righe non vuote ma vecchie
+        user.getRoles().remove(listRole);
+        em.flush();
+        assertTrue(effectivePermissions.hasPermissionOnList(user.getId(), list.getId(), "create_user_for_list"));
+
+        materializer.initialize();
+
+        assertTrue(materializer.isReady());
+        assertFalse(effectivePermissions.hasPermissionOnList(user.getId(), list.getId(), "create_user_for_list"));
+        assertTrue(effectivePermissions.hasPermission(user.getId(), "view_all_user_organization"));
+    }
+
+    private Permission permission(String name) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        return em.persist(permission);
+    }
+
+    private Role role(Organization org, List roleList, Permission permission) {
+        Role role = new Role();
+        role.setName(permission.getName());
+        role.setColor("#000000");
+        role.setOrganization(org);
+        role.setList(roleList);
+        role.getPermissions().add(permission);
+        return em.persist(role);
+    }
+}
@@ -0,0 +1,120 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.config.JwtAuthenticationFilter;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import com.votopia.votopiabackendspringboot.services.auth.PermissionService;
+import com.votopia.votopiabackendspringboot.services.auth.UsersDeletedEvent;
+import com.votopia.votopiabackendspringboot.services.auth.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JwtServiceImplTest {
+
+    private SimpleMeterRegistry registry;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Organization org = new Organization();
+        org.setId(1L);
+        user = new User();
+        user.setId(7L);
+        user.setEmail("mario.rossi@example.com");
+        user.setOrg(org);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void secondVerificationIsServedFromTheCache() {
+        JwtServiceImpl jwtService = jwtService(60_000);
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken first = jwtService.verify(token).orElseThrow();
+        assertSame(first, jwtService.verify(token).orElseThrow());
+        assertEquals(7L, jwtService.extractUserId(token));
+        assertEquals(1L, jwtService.extractOrgId(token));
+
+        // Una sola verifica HMAC, le altre tre letture sono hit
+        assertEquals(1, registry.get("votopia.jwt.parse").timer().count());
+        assertEquals(0.75, registry.get("votopia.jwt.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItExpires() throws InterruptedException {
+        JwtServiceImpl jwtService = jwtService(1_500);
+        String token = jwtService.generateToken(user);
+        assertTrue(jwtService.isTokenValid(token));
+
+        // La scadenza del JWT è in secondi: oltre due secondi il token è scaduto comunque
+        Thread.sleep(2_100);
+
+        assertEquals(Optional.empty(), jwtService.verify(token));
+        assertNull(jwtService.extractEmail(token));
+    }
+
+    @Test
+    void tokenRevokedAfterBeingCachedIsRejected() throws Exception {
+        JwtServiceImpl jwtService = jwtService(60_000);
+        DeletedUserRegistry deletedUsers = new DeletedUserRegistry();
+        ReflectionTestUtils.setField(deletedUsers, "enabled", true);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, mock(UserDetailsService.class),
+                mock(PermissionService.class), deletedUsers);
+        ReflectionTestUtils.setField(filter, "principalSource", "claims");
+        String token = jwtService.generateToken(user);
+
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+
+        deletedUsers.onUsersDeleted(new UsersDeletedEvent(Set.of(7L)));
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Il token è ancora in cache e valido, ma la richiesta non viene autenticata
+        assertTrue(jwtService.verify(token).isPresent());
+        assertEquals(1, registry.get("votopia.jwt.parse").timer().count());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @SuppressWarnings("unchecked")
+    private JwtServiceImpl jwtService(long expirationMillis) {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(registry);
+
+        JwtServiceImpl jwtService = new JwtServiceImpl();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "votopia-test-secret-key-of-at-least-32-bytes");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", expirationMillis);
+        ReflectionTestUtils.setField(jwtService, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(jwtService, "meterRegistry", provider);
+        jwtService.init();
+        return jwtService;
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.services.auth.PermissionsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionCacheTest {
+
+    private InProcessPermissionInvalidationChannel channel;
+    private PermissionCache nodeA;
+    private PermissionCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        // Due "nodi" che condividono lo stesso canale in-process
+        channel = new InProcessPermissionInvalidationChannel();
+        nodeA = new PermissionCache(channel, 100, Duration.ofMinutes(10));
+        nodeB = new PermissionCache(channel, 100, Duration.ofMinutes(10));
+        nodeA.subscribe();
+        nodeB.subscribe();
+    }
+
+    @Test
+    void cachesDecisionUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+        PermissionCache.Key key = new PermissionCache.Key(1L, 10L, "view_all_user_list");
+
+        assertTrue(nodeA.isGranted(key, () -> { loads.incrementAndGet(); return true; }));
+        assertTrue(nodeA.isGranted(key, () -> { loads.incrementAndGet(); return true; }));
+        assertEquals(1, loads.get());
+
+        nodeA.onPermissionsChanged(new PermissionsChangedEvent(Set.of(1L)));
+
+        assertFalse(nodeA.isGranted(key, () -> { loads.incrementAndGet(); return false; }));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidationReachesEveryNodeAndOnlyAffectedUsers() {
+        PermissionCache.Key user1 = new PermissionCache.Key(1L, null, "create_list");
+        PermissionCache.Key user2 = new PermissionCache.Key(2L, null, "create_list");
+        nodeA.isGranted(user1, () -> true);
+        nodeB.isGranted(user1, () -> true);
+        nodeB.isGranted(user2, () -> true);
+
+        nodeA.onPermissionsChanged(new PermissionsChangedEvent(Set.of(1L)));
+
+        AtomicInteger reloads = new AtomicInteger();
+        nodeB.isGranted(user1, () -> { reloads.incrementAndGet(); return false; });
+        nodeB.isGranted(user2, () -> { reloads.incrementAndGet(); return false; });
+        assertEquals(1, reloads.get(), "solo l'utente 1 deve essere ricaricato sul nodo B");
+    }
+
+    @Test
+    void loadRacingWithInvalidationIsNotCached() {
+        PermissionCache.Key key = new PermissionCache.Key(1L, null, "create_list");
+
+        nodeA.isGranted(key, () -> {
+            // L'invalidazione arriva mentre il valore vecchio è in caricamento
+            channel.publish(Set.of(1L));
+            return true;
+        });
+
+        AtomicInteger loads = new AtomicInteger();
+        assertFalse(nodeA.isGranted(key, () -> { loads.incrementAndGet(); return false; }));
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,102 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.dtos.user.UserCreateDto;
+import com.votopia.votopiabackendspringboot.entities.auth.Role;
+import com.votopia.votopiabackendspringboot.entities.auth.User;
+import com.votopia.votopiabackendspringboot.entities.lists.List;
+import com.votopia.votopiabackendspringboot.entities.organizations.Organization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({UserBulkImporter.class, UserBulkImporterTest.Config.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "votopia.import.batch-size=7"
+})
+class UserBulkImporterTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @Autowired private TestEntityManager em;
+    @Autowired private UserBulkImporter importer;
+    @Autowired private PasswordEncoder passwordEncoder;
+
+    private Organization org;
+    private List list;
+    private Role role;
+
+    @BeforeEach
+    void setUp() {
+        org = new Organization();
+        org.setCode("TST0001");
+        org.setName("Scuola di prova");
+        em.persist(org);
+
+        list = new List();
+        list.setOrg(org);
+        list.setName("Lista A");
+        em.persist(list);
+
+        role = new Role();
+        role.setName("Studente");
+        role.setColor("#000000");
+        role.setOrganization(org);
+        em.persist(role);
+    }
+
+    @Test
+    void insertsUsersAndJoinRowsAcrossSeveralBatches() {
+        java.util.List<UserCreateDto> rows = IntStream.range(0, 20)
+                .mapToObj(i -> new UserCreateDto("Nome" + i, "Cognome" + i, "studente" + i + "@example.com",
+                        "password" + i, Set.of(role.getId(), 999L), Set.of(list.getId(), 998L)))
+                .toList();
+
+        java.util.List<UserBulkImporter.ImportedUser> imported =
+                importer.insert(org.getId(), rows, Set.of(list.getId()), Map.of(role.getId(), role));
+        em.clear();
+
+        assertEquals(20, imported.size());
+        for (UserBulkImporter.ImportedUser u : imported) {
+            User saved = em.find(User.class, u.id());
+            assertEquals(u.source().email(), saved.getEmail());
+            assertTrue(passwordEncoder.matches(u.source().password(), saved.getPassword()));
+            assertEquals(Set.of(role.getId()), saved.getRoles().stream().map(Role::getId).collect(java.util.stream.Collectors.toSet()));
+            assertEquals(Set.of(list.getId()), saved.getLists().stream().map(List::getId).collect(java.util.stream.Collectors.toSet()));
+            assertFalse(saved.getDeleted());
+            assertTrue(saved.getMustChangePassword());
+        }
+    }
+
+    @Test
+    void findsExistingEmailsInOneLookup() {
+        importer.insert(org.getId(),
+                java.util.List.of(new UserCreateDto("Mario", "Rossi", "mario@example.com", "pw", null, null)),
+                Set.of(), Map.of());
+
+        assertEquals(Set.of("mario@example.com"),
+                importer.findExistingEmails(org.getId(), Set.of("mario@example.com", "luigi@example.com")));
+    }
+}
@@ -0,0 +1,105 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import com.votopia.votopiabackendspringboot.dtos.user.UserImportReportDto;
+import com.votopia.votopiabackendspringboot.dtos.user.UserImportRowErrorDto;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportSessionTest {
+
+    private static final jakarta.validation.ValidatorFactory VALIDATORS = Validation.buildDefaultValidatorFactory();
+    private static final Validator VALIDATOR = VALIDATORS.getValidator();
+
+    @AfterAll
+    static void close() {
+        VALIDATORS.close();
+    }
+
+    @Test
+    void rowsRejectedInsideAChunkDoNotAffectTheOthers() {
+        FakeUsers users = new FakeUsers();
+        users.registered.add("bianchi@example.com");
+        UserImportSession session = new UserImportSession(VALIDATOR, Set.of(), Set.of(), 3, 10, users::write);
+
+        feed(session, 2, 8);
+        session.row(9, java.util.List.of("Senza", "Email", "", "pw"));
+        session.row(10, java.util.List.of("Mario", "Bianchi", "BIANCHI@example.com", "pw"));
+        session.row(11, java.util.List.of("Doppio", "Utente", "utente2@example.com", "pw"));
+        UserImportReportDto report = session.finish();
+
+        // Righe 2..8 più tre scartate: email vuota (validazione), già registrata (dal blocco), ripetuta nel file
+        assertEquals(10, report.totalRows());
+        assertEquals(7, report.importedRows());
+        assertEquals(3, report.rejectedRows());
+        assertEquals(java.util.List.of(9, 10, 11), report.errors().stream().map(UserImportRowErrorDto::row).sorted().toList());
+        assertEquals("Email già registrata nell'organizzazione",
+                report.errors().stream().filter(e -> e.row() == 10).findFirst().orElseThrow().message());
+        // Blocchi da 3: il terzo contiene l'ultima riga valida e la riga già registrata
+        assertEquals(java.util.List.of(3, 3, 2), users.chunkSizes);
+        assertEquals(8, users.registered.size());
+    }
+
+    @Test
+    void failedChunkKeepsTheCommittedOnesAndTheImportCanBeResumed() {
+        FakeUsers users = new FakeUsers();
+        users.failOnChunk = 2;
+        UserImportSession first = new UserImportSession(VALIDATOR, Set.of(), Set.of(), 3, 10, users::write);
+
+        // Il secondo blocco (righe 5-7) fallisce a metà file: il primo resta confermato, il resto non viene letto
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> feed(first, 2, 9));
+        assertEquals("Connessione persa", failure.getMessage());
+        assertEquals(Set.of("utente2@example.com", "utente3@example.com", "utente4@example.com"), users.registered);
+
+        // Nuovo caricamento dello stesso file: le righe già inserite risultano già registrate, le altre vengono importate
+        users.failOnChunk = -1;
+        UserImportSession resumed = new UserImportSession(VALIDATOR, Set.of(), Set.of(), 3, 10, users::write);
+        feed(resumed, 2, 9);
+        UserImportReportDto report = resumed.finish();
+
+        assertEquals(8, report.totalRows());
+        assertEquals(5, report.importedRows());
+        assertEquals(3, report.rejectedRows());
+        assertEquals(java.util.List.of(2, 3, 4), report.errors().stream().map(UserImportRowErrorDto::row).toList());
+        assertEquals(8, users.registered.size());
+    }
+
+    /**
+     * Intestazione e righe {@code from..to} con email {@code utente<riga>@example.com}.
+     */
+    private static void feed(UserImportSession session, int from, int to) {
+        session.row(1, java.util.List.of("NOME", "COGNOME", "EMAIL", "PASSWORD"));
+        for (int row = from; row <= to; row++) {
+            session.row(row, java.util.List.of("Nome" + row, "Cognome" + row, "utente" + row + "@example.com", "pw"));
+        }
+    }
+
+    /**
+     * Utenti già registrati nell'organizzazione; ogni blocco è una transazione: se fallisce non scrive nulla.
+     */
+    private static final class FakeUsers {
+        final Set<String> registered = new LinkedHashSet<>();
+        final java.util.List<Integer> chunkSizes = new java.util.ArrayList<>();
+        int failOnChunk = -1;
+
+        Set<String> write(java.util.List<UserImportSession.PendingRow> chunk) {
+            chunkSizes.add(chunk.size());
+            if (chunkSizes.size() == failOnChunk) throw new IllegalStateException("Connessione persa");
+            Set<String> existing = new HashSet<>();
+            for (UserImportSession.PendingRow pending : chunk) {
+                String email = pending.user().email();
+                if (registered.contains(email.toLowerCase())) existing.add(email);
+            }
+            registered.addAll(chunk.stream().map(p -> p.user().email().toLowerCase()).collect(Collectors.toSet()));
+            return existing;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.votopia.votopiabackendspringboot.services.impl.auth;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSheetReaderTest {
+
+    @Test
+    void readsCsvWithQuotesAndSemicolons() throws Exception {
+        String csv = "\uFEFFNOME;COGNOME;EMAIL;PASSWORD\r\n" +
+                "Mario;\"Rossi; jr\";mario@example.com;\"pa\"\"ss\"\r\n" +
+                "\n" +
+                "Luigi;Verdi;luigi@example.com;pw";
+        java.util.List<java.util.List<String>> rows = new ArrayList<>();
+
+        UserSheetReader.readCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), (n, cells) -> rows.add(cells));
+
+        assertEquals(java.util.List.of("NOME", "COGNOME", "EMAIL", "PASSWORD"), rows.get(0));
+        assertEquals(java.util.List.of("Mario", "Rossi; jr", "mario@example.com", "pa\"ss"), rows.get(1));
+        assertEquals(java.util.List.of("Luigi", "Verdi", "luigi@example.com", "pw"), rows.get(3));
+    }
+
+    @Test
+    void readsXlsxRowsFillingSkippedCells() throws Exception {
+        Path file = Files.createTempFile("import-test-", ".xlsx");
+        try {
+            try (SXSSFWorkbook workbook = new SXSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+                var sheet = workbook.createSheet();
+                Row header = sheet.createRow(0);
+                String[] columns = {"NOME", "COGNOME", "EMAIL", "PASSWORD"};
+                for (int i = 0; i < columns.length; i++) header.createCell(i).setCellValue(columns[i]);
+                Row row = sheet.createRow(1);
+                row.createCell(0).setCellValue("Mario");
+                row.createCell(2).setCellValue("mario@example.com");
+                workbook.write(out);
+                workbook.dispose();
+            }
+
+            java.util.List<java.util.List<String>> rows = new ArrayList<>();
+            java.util.List<Integer> numbers = new ArrayList<>();
+            UserSheetReader.readXlsx(file, (n, cells) -> {
+                numbers.add(n);
+                rows.add(cells);
+            });
+
+            assertEquals(java.util.List.of(1, 2), numbers);
+            assertEquals(java.util.List.of("Mario", "", "mario@example.com"), rows.get(1));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void readsXlsxSharedStringsFromTheTemporaryTable() throws Exception {
+        Path file = Files.createTempFile("import-test-", ".xlsx");
+        try {
+            // XSSFWorkbook scrive il testo nella tabella delle stringhe condivise (SXSSF usa stringhe inline)
+            try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+                var sheet = workbook.createSheet();
+                String[][] values = {
+                        {"NOME", "COGNOME", "EMAIL", "PASSWORD"},
+                        {"Niccolò", "Rossi", "niccolo@example.com", "segreta"},
+                        {"Anna", "Rossi", "anna@example.com", "segreta"}
+                };
+                for (int r = 0; r < values.length; r++) {
+                    Row row = sheet.createRow(r);
+                    for (int c = 0; c < values[r].length; c++) row.createCell(c).setCellValue(values[r][c]);
+                }
+                workbook.write(out);
+            }
+
+            java.util.List<java.util.List<String>> rows = new ArrayList<>();
+            UserSheetReader.readXlsx(file, (n, cells) -> rows.add(cells));
+
+            assertEquals(3, rows.size());
+            assertEquals(java.util.List.of("Niccolò", "Rossi", "niccolo@example.com", "segreta"), rows.get(1));
+            assertEquals(java.util.List.of("Anna", "Rossi", "anna@example.com", "segreta"), rows.get(2));
+            try (var temp = Files.list(file.getParent())) {
+                assertTrue(temp.noneMatch(p -> p.getFileName().toString().startsWith("votopia-import-strings-")));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.entities.files.FileBlob;
+import com.votopia.votopiabackendspringboot.repositories.files.FileBlobRepository;
+import com.votopia.votopiabackendspringboot.services.files.FileBlobReleasedEvent;
+import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transazioni reali (niente rollback del test): lock sulle righe e rimozione dopo il commit vanno eseguiti davvero.
+ * Ogni test usa un contenuto diverso, le righe restano tra un test e l'altro.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({FileBlobStore.class, StorageServiceImpl.class, LocalObjectStore.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class FileBlobStoreTest {
+
+    private static final Path ROOT = createRoot();
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("storage.location", ROOT::toString);
+    }
+
+    @Autowired private FileBlobStore blobStore;
+    @Autowired private StorageService storageService;
+    @Autowired private FileBlobRepository blobRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void duplicatesShareOneBlobUntilTheLastReference() throws Exception {
+        StoredObject first = acquire("logo");
+        StoredObject second = acquire("logo");
+
+        assertEquals(first, second);
+        assertTrue(Files.exists(ROOT.resolve(first.path())));
+        assertEquals(2, refCount(first.sha256()));
+        try (var staging = Files.list(ROOT.resolve(".staging"))) {
+            assertEquals(0, staging.count());
+        }
+
+        assertTrue(release(first.sha256()));
+        assertEquals(1, refCount(first.sha256()));
+        assertTrue(Files.exists(ROOT.resolve(first.path())));
+
+        // Ultimo riferimento: dopo il commit il contenuto fisico viene eliminato, la riga resta a zero
+        assertTrue(release(first.sha256()));
+        assertEquals(0, refCount(first.sha256()));
+        assertFalse(Files.exists(ROOT.resolve(first.path())));
+        assertFalse(release(first.sha256()));
+
+        // Nuovo caricamento dopo la rimozione: il contenuto viene riscritto
+        StoredObject again = acquire("logo");
+        assertEquals(1, refCount(again.sha256()));
+        assertTrue(Files.exists(ROOT.resolve(again.path())));
+
+        assertFalse(release("0".repeat(64)));
+    }
+
+    @Test
+    void concurrentFirstUploadsOfTheSameContentAllSucceed() throws Exception {
+        int uploads = 6;
+        CyclicBarrier start = new CyclicBarrier(uploads);
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        try {
+            java.util.List<Future<StoredObject>> results = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                results.add(executor.submit(() -> {
+                    var staged = storageService.stage(content("volantino"));
+                    start.await(5, TimeUnit.SECONDS);
+                    return inTransaction(() -> blobStore.acquire(staged));
+                }));
+            }
+            StoredObject expected = null;
+            for (Future<StoredObject> result : results) {
+                StoredObject stored = result.get(30, TimeUnit.SECONDS);
+                if (expected == null) expected = stored;
+                assertEquals(expected, stored);
+            }
+            assertEquals(uploads, refCount(expected.sha256()));
+            assertTrue(Files.exists(ROOT.resolve(expected.path())));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void releaseWaitsForAnUncommittedReupload() throws Exception {
+        StoredObject stored = acquire("manifesto");
+        String sha256 = stored.sha256();
+        assertTrue(release(sha256));
+        assertFalse(Files.exists(ROOT.resolve(stored.path())));
+
+        // Un nuovo caricamento prende il lock e riscrive il contenuto, ma non ha ancora fatto commit
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            var staged = storageService.stage(content("manifesto"));
+            Future<StoredObject> upload = executor.submit(() -> inTransaction(() -> {
+                StoredObject result = blobStore.acquire(staged);
+                acquired.countDown();
+                assertTrue(commit.await(10, TimeUnit.SECONDS));
+                return result;
+            }));
+            assertTrue(acquired.await(10, TimeUnit.SECONDS));
+
+            // Rimozione in ritardo di un rilascio precedente: deve attendere il lock, non decidere da sola
+            Future<?> cleanup = executor.submit(() -> blobStore.onBlobReleased(new FileBlobReleasedEvent(sha256, stored.path())));
+            Thread.sleep(200);
+            assertFalse(cleanup.isDone());
+
+            commit.countDown();
+            upload.get(10, TimeUnit.SECONDS);
+            cleanup.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, refCount(sha256));
+        assertTrue(Files.exists(ROOT.resolve(stored.path())));
+    }
+
+    private StoredObject acquire(String text) throws Exception {
+        var staged = storageService.stage(content(text));
+        return inTransaction(() -> blobStore.acquire(staged));
+    }
+
+    private boolean release(String sha256) throws Exception {
+        return inTransaction(() -> blobStore.release(sha256));
+    }
+
+    private int refCount(String sha256) {
+        return blobRepository.findById(sha256).map(FileBlob::getRefCount).orElseThrow();
+    }
+
+    private <T> T inTransaction(java.util.concurrent.Callable<T> work) throws Exception {
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                try {
+                    return work.call();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("votopia-blobs");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
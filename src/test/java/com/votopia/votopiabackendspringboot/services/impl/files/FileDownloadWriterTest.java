@@ -0,0 +1,99 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.services.files.FileDownload;
+import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FileDownloadWriterTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    @TempDir
+    Path root;
+
+    private StorageService storageService;
+    private FileDownloadWriter writer;
+    private FileDownload download;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(root.resolve("blob"), "0123456789", StandardCharsets.UTF_8);
+        storageService = mock(StorageService.class);
+        when(storageService.localPath("blobs/blob")).thenReturn(Optional.of(root.resolve("blob")));
+
+        writer = new FileDownloadWriter();
+        ReflectionTestUtils.setField(writer, "storageService", storageService);
+        download = new FileDownload("doc.txt", "text/plain", "blobs/blob", ETAG, true);
+    }
+
+    @Test
+    void notModifiedWithoutTouchingStorage() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/download/");
+        request.addHeader("If-None-Match", "\"other\", W/" + ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(download, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+        verify(storageService, never()).localPath(anyString());
+    }
+
+    @Test
+    void servesFullContentAndSingleRanges() throws Exception {
+        MockHttpServletResponse full = new MockHttpServletResponse();
+        writer.write(download, new MockHttpServletRequest("GET", "/api/files/download/"), full);
+        assertEquals(200, full.getStatus());
+        assertEquals("0123456789", full.getContentAsString());
+        assertEquals(10, full.getContentLengthLong());
+        // text/plain non è nella lista inline: allegato binario
+        assertEquals("application/octet-stream", full.getContentType());
+        assertTrue(full.getHeader("Content-Disposition").startsWith("attachment"));
+        assertEquals("nosniff", full.getHeader("X-Content-Type-Options"));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/download/");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse partial = new MockHttpServletResponse();
+        writer.write(download, request, partial);
+        assertEquals(206, partial.getStatus());
+        assertEquals("bytes 2-5/10", partial.getHeader("Content-Range"));
+        assertEquals("2345", partial.getContentAsString());
+
+        MockHttpServletRequest outside = new MockHttpServletRequest("GET", "/api/files/download/");
+        outside.addHeader("Range", "bytes=50-");
+        MockHttpServletResponse unsatisfiable = new MockHttpServletResponse();
+        writer.write(download, outside, unsatisfiable);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */10", unsatisfiable.getHeader("Content-Range"));
+    }
+
+    @Test
+    void onlyRasterImagesAndPdfAreServedInline() throws Exception {
+        for (String active : new String[]{"text/html", "image/svg+xml", "application/xhtml+xml", "text/xml; charset=utf-8"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            writer.write(new FileDownload("x", active, "blobs/blob", ETAG, true), new MockHttpServletRequest("GET", "/"), response);
+            assertEquals("application/octet-stream", response.getContentType(), active);
+            assertTrue(response.getHeader("Content-Disposition").startsWith("attachment"), active);
+            assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+        }
+
+        MockHttpServletResponse image = new MockHttpServletResponse();
+        writer.write(new FileDownload("logo.png", "IMAGE/PNG", "blobs/blob", ETAG, true), new MockHttpServletRequest("GET", "/"), image);
+        assertEquals("image/png", image.getContentType());
+        assertTrue(image.getHeader("Content-Disposition").startsWith("inline"));
+    }
+}
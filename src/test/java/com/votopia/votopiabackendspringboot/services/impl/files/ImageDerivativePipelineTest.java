@@ -0,0 +1,131 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.entities.files.FileDerivative;
+import com.votopia.votopiabackendspringboot.repositories.files.FileDerivativeRepository;
+import com.votopia.votopiabackendspringboot.services.files.StorageService;
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ImageDerivativePipeline.class, FileBlobStore.class, StorageServiceImpl.class, LocalObjectStore.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class ImageDerivativePipelineTest {
+
+    private static final Path ROOT = createRoot();
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("storage.location", ROOT::toString);
+    }
+
+    @Autowired private ImageDerivativePipeline pipeline;
+    @Autowired private FileBlobStore blobStore;
+    @Autowired private StorageService storageService;
+    @Autowired private FileDerivativeRepository derivativeRepository;
+
+    @Test
+    void generatesBoundedDerivativesWithoutUpscaling() throws Exception {
+        StoredObject original = blobStore.acquire(storageService.stage(new ByteArrayInputStream(jpeg(2000, 1000))));
+
+        pipeline.generate(original.sha256(), original.path());
+
+        List<FileDerivative> derivatives = derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(original.sha256());
+        assertEquals(List.of(64, 256, 1024), derivatives.stream().map(FileDerivative::getMaxSize).toList());
+        for (FileDerivative derivative : derivatives) {
+            assertEquals(derivative.getMaxSize(), derivative.getWidth());
+            assertEquals(derivative.getMaxSize() / 2, derivative.getHeight());
+            BufferedImage stored = ImageIO.read(storageService.open(derivative.getStoragePath(), 0, -1));
+            assertEquals(derivative.getWidth(), stored.getWidth());
+        }
+
+        // Un'immagine più piccola della derivata più grande non viene ingrandita
+        StoredObject small = blobStore.acquire(storageService.stage(new ByteArrayInputStream(jpeg(300, 300))));
+        pipeline.generate(small.sha256(), small.path());
+        assertEquals(List.of(64, 256), derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(small.sha256())
+                .stream().map(FileDerivative::getMaxSize).toList());
+    }
+
+    @Test
+    void originalsWithoutDerivativesGetAPlaceholderOnce() throws Exception {
+        // Più piccola di tutte le dimensioni: nessuna miniatura, solo il segnaposto
+        StoredObject icon = blobStore.acquire(storageService.stage(new ByteArrayInputStream(jpeg(40, 30))));
+        pipeline.generate(icon.sha256(), icon.path());
+
+        List<FileDerivative> rows = derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(icon.sha256());
+        assertEquals(1, rows.size());
+        assertTrue(ImageDerivativePipeline.isOriginalOnly(rows.get(0)));
+        assertEquals(40, rows.get(0).getWidth());
+
+        // Le richieste successive trovano il segnaposto e non rileggono l'originale
+        Files.delete(ROOT.resolve(icon.path()));
+        pipeline.generate(icon.sha256(), icon.path());
+        assertEquals(1, derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(icon.sha256()).size());
+
+        // Contenuto non decodificabile: stesso segnaposto, senza dimensioni
+        StoredObject broken = blobStore.acquire(storageService.stage(new ByteArrayInputStream("non è un'immagine".getBytes(StandardCharsets.UTF_8))));
+        pipeline.generate(broken.sha256(), broken.path());
+        rows = derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(broken.sha256());
+        assertEquals(1, rows.size());
+        assertTrue(ImageDerivativePipeline.isOriginalOnly(rows.get(0)));
+    }
+
+    @Test
+    void requestsLargerThanEveryDerivativeGetTheOriginal() throws Exception {
+        // 1000px: la derivata da 1024 non viene generata, restano 64 e 256
+        StoredObject original = blobStore.acquire(storageService.stage(new ByteArrayInputStream(jpeg(1000, 800))));
+        pipeline.generate(original.sha256(), original.path());
+        List<FileDerivative> rows = derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(original.sha256());
+
+        assertEquals(64, ImageDerivativePipeline.forSize(rows, 10).getMaxSize());
+        assertEquals(256, ImageDerivativePipeline.forSize(rows, 100).getMaxSize());
+        assertEquals(256, ImageDerivativePipeline.forSize(rows, 256).getMaxSize());
+        // Nessuna miniatura basta: si serve l'originale da 1000px, non quella da 256
+        assertNull(ImageDerivativePipeline.forSize(rows, 1024));
+
+        // Il segnaposto non è mai una derivata da servire
+        StoredObject icon = blobStore.acquire(storageService.stage(new ByteArrayInputStream(jpeg(40, 30))));
+        pipeline.generate(icon.sha256(), icon.path());
+        assertNull(ImageDerivativePipeline.forSize(derivativeRepository.findAllBySourceSha256OrderByMaxSizeAsc(icon.sha256()), 0));
+    }
+
+    private static byte[] jpeg(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width / 2, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("votopia-images");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
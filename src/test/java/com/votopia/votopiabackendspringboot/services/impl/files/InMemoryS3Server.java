@@ -0,0 +1,261 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server S3 minimo in memoria per i test (path-style): PUT/GET con Range/HEAD/DELETE degli oggetti,
+ * ListObjectsV2 con prefisso, delimitatore e paginazione, upload multipart. La firma SigV4 di ogni richiesta
+ * viene ricalcolata da metodo, host, percorso, query e header ricevuti: se non coincide la risposta è 403.
+ * La correttezza del calcolo stesso è verificata sugli esempi AWS in {@link S3RequestSignerTest}.
+ */
+class InMemoryS3Server implements AutoCloseable {
+
+    record StoredBlob(byte[] content, Instant lastModified) {}
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final HttpServer server;
+    private final String bucket;
+    private final NavigableMap<String, StoredBlob> objects = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadedParts = new AtomicInteger();
+    private final int pageSize;
+    private final S3RequestSigner signer;
+
+    InMemoryS3Server(String bucket, int pageSize, String accessKey, String secretKey, String region) throws IOException {
+        this.bucket = bucket;
+        this.pageSize = pageSize;
+        this.signer = new S3RequestSigner(accessKey, secretKey, region);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    NavigableMap<String, StoredBlob> objects() {
+        return objects;
+    }
+
+    int uploadedParts() {
+        return uploadedParts.get();
+    }
+
+    int pendingUploads() {
+        return uploads.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            if (!signatureMatches(exchange, query)) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String bucketPrefix = "/" + bucket;
+            if (!path.startsWith(bucketPrefix)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String key = path.length() > bucketPrefix.length() + 1 ? path.substring(bucketPrefix.length() + 1) : "";
+
+            switch (exchange.getRequestMethod()) {
+                case "GET" -> {
+                    if (key.isEmpty()) list(exchange, query);
+                    else get(exchange, key);
+                }
+                case "HEAD" -> head(exchange, key);
+                case "PUT" -> put(exchange, key, query);
+                case "POST" -> post(exchange, key, query);
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) uploads.remove(query.get("uploadId"));
+                    else objects.remove(key);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (query.containsKey("uploadId")) {
+            Map<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+            if (parts == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            int partNumber = Integer.parseInt(query.get("partNumber"));
+            parts.put(partNumber, body);
+            uploadedParts.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", "\"part-" + partNumber + "-" + Arrays.hashCode(body) + "\"");
+        } else {
+            objects.put(key, new StoredBlob(body, Instant.now()));
+        }
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void post(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        if (query.containsKey("uploads")) {
+            String uploadId = UUID.randomUUID().toString();
+            uploads.put(uploadId, new ConcurrentSkipListMap<>());
+            xml(exchange, "<InitiateMultipartUploadResult><Key>" + key + "</Key><UploadId>" + uploadId
+                    + "</UploadId></InitiateMultipartUploadResult>");
+            return;
+        }
+        Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+        if (parts == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        int size = parts.values().stream().mapToInt(part -> part.length).sum();
+        byte[] content = new byte[size];
+        int offset = 0;
+        for (byte[] part : parts.values()) {
+            System.arraycopy(part, 0, content, offset, part.length);
+            offset += part.length;
+        }
+        objects.put(key, new StoredBlob(content, Instant.now()));
+        xml(exchange, "<CompleteMultipartUploadResult><Key>" + key + "</Key></CompleteMultipartUploadResult>");
+    }
+
+    private void get(HttpExchange exchange, String key) throws IOException {
+        StoredBlob blob = objects.get(key);
+        if (blob == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        byte[] content = blob.content();
+        int start = 0;
+        int end = content.length - 1;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null) {
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            start = Integer.parseInt(bounds[0]);
+            if (!bounds[1].isEmpty()) end = Math.min(end, Integer.parseInt(bounds[1]));
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+        }
+        int length = end - start + 1;
+        exchange.sendResponseHeaders(range != null ? 206 : 200, length == 0 ? -1 : length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content, start, length);
+        }
+    }
+
+    private void head(HttpExchange exchange, String key) throws IOException {
+        StoredBlob blob = objects.get(key);
+        if (blob == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Length", String.valueOf(blob.content().length));
+        exchange.getResponseHeaders().set("Last-Modified",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(blob.lastModified().atZone(ZoneOffset.UTC)));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    /**
+     * ListObjectsV2: chiavi e prefissi comuni in un'unica sequenza ordinata, paginata con il token
+     * di continuazione (l'ultima voce restituita).
+     */
+    private void list(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.get("delimiter");
+        String after = query.get("continuation-token");
+
+        TreeSet<String> entries = new TreeSet<>();
+        for (String key : objects.tailMap(prefix, true).keySet()) {
+            if (!key.startsWith(prefix)) break;
+            int cut = delimiter == null ? -1 : key.indexOf(delimiter, prefix.length());
+            entries.add(cut < 0 ? key : key.substring(0, cut + delimiter.length()));
+        }
+
+        List<String> page = new ArrayList<>();
+        for (String entry : after == null ? entries : entries.tailSet(after, false)) {
+            if (page.size() == pageSize) break;
+            page.add(entry);
+        }
+        boolean truncated = !page.isEmpty() && entries.higher(page.get(page.size() - 1)) != null;
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult><Prefix>").append(prefix).append("</Prefix>")
+                .append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) xml.append("<NextContinuationToken>").append(page.get(page.size() - 1)).append("</NextContinuationToken>");
+        for (String entry : page) {
+            StoredBlob blob = objects.get(entry);
+            if (blob != null) {
+                xml.append("<Contents><Key>").append(entry).append("</Key><Size>").append(blob.content().length)
+                        .append("</Size><LastModified>").append(blob.lastModified()).append("</LastModified></Contents>");
+            } else {
+                xml.append("<CommonPrefixes><Prefix>").append(entry).append("</Prefix></CommonPrefixes>");
+            }
+        }
+        xml(exchange, xml.append("</ListBucketResult>").toString());
+    }
+
+    private boolean signatureMatches(HttpExchange exchange, Map<String, String> query) {
+        var headers = exchange.getRequestHeaders();
+        String authorization = headers.getFirst("Authorization");
+        String amzDate = headers.getFirst("x-amz-date");
+        String payloadHash = headers.getFirst("x-amz-content-sha256");
+        if (authorization == null || amzDate == null || payloadHash == null) return false;
+
+        ZonedDateTime date = LocalDateTime.parse(amzDate, AMZ_DATE).atZone(ZoneOffset.UTC);
+        URI uri = URI.create("http://" + headers.getFirst("Host") + exchange.getRequestURI().getRawPath());
+        String expected = signer.sign(exchange.getRequestMethod(), uri, query, date, payloadHash).get("Authorization");
+        return expected.equals(authorization);
+    }
+
+    private static void xml(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return query;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+}
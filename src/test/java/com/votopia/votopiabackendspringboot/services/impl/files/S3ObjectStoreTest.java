@@ -0,0 +1,111 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.services.files.ObjectStore;
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class S3ObjectStoreTest {
+
+    @TempDir
+    Path staging;
+
+    private InMemoryS3Server server;
+    private S3ObjectStore objectStore;
+    private StorageServiceImpl storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Pagine da 2 voci per esercitare i token di continuazione
+        server = new InMemoryS3Server("votopia", 2, "access", "secret", "eu-south-1");
+        objectStore = new S3ObjectStore(server.endpoint(), "eu-south-1", "votopia", "access", "secret",
+                true, S3ObjectStore.MIN_PART_SIZE, 2, false);
+        storage = new StorageServiceImpl(objectStore, staging.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        objectStore.shutdown();
+        server.close();
+    }
+
+    @Test
+    void smallAndMultipartUploadsAreReadableByRange() throws Exception {
+        byte[] small = "votopia".getBytes(StandardCharsets.UTF_8);
+        int partSize = (int) S3ObjectStore.MIN_PART_SIZE.toBytes();
+        byte[] large = new byte[2 * partSize + 5000];
+        for (int i = 0; i < large.length; i++) large[i] = (byte) (i * 31);
+
+        StoredObject first = storage.save(new ByteArrayInputStream(small), "uploads/1/org/0/a.txt");
+        assertEquals(0, server.uploadedParts());
+        StoredObject second = storage.publishBlob(storage.stage(new ByteArrayInputStream(large)));
+
+        // Due parti da 5MB e una finale più piccola, caricate in parallelo e ricomposte in ordine
+        assertEquals(3, server.uploadedParts());
+        assertEquals(0, server.pendingUploads());
+        assertArrayEquals(small, server.objects().get(first.path()).content());
+        assertArrayEquals(large, server.objects().get(second.path()).content());
+
+        // Intervallo a cavallo tra la prima e la seconda parte
+        try (InputStream in = storage.open(second.path(), partSize - 500, partSize + 499)) {
+            byte[] range = in.readAllBytes();
+            assertEquals(1000, range.length);
+            assertEquals(large[partSize - 500], range[0]);
+            assertEquals(large[partSize + 499], range[999]);
+        }
+        assertEquals(large.length, storage.stat(second.path()).orElseThrow().size());
+        assertTrue(storage.stat("blobs/00/00/missing").isEmpty());
+        assertTrue(storage.localPath(second.path()).isEmpty());
+        try (var files = java.nio.file.Files.list(staging)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void requestsSignedWithTheWrongSecretAreRejected() {
+        S3ObjectStore wrongSecret = new S3ObjectStore(server.endpoint(), "eu-south-1", "votopia", "access", "other",
+                true, S3ObjectStore.MIN_PART_SIZE, 2, false);
+        try {
+            IOException error = assertThrows(IOException.class, () -> wrongSecret.head("blobs/00/00/x"));
+            assertTrue(error.getMessage().contains("403"), error.getMessage());
+        } finally {
+            wrongSecret.shutdown();
+        }
+    }
+
+    @Test
+    void partsSmallerThanTheS3MinimumAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new S3ObjectStore(server.endpoint(), "eu-south-1", "votopia",
+                "access", "secret", true, DataSize.ofBytes(1024), 2, false));
+    }
+
+    @Test
+    void listsKeysAndPrefixesAcrossPages() throws Exception {
+        for (String key : List.of("blobs/aa/01/x", "blobs/aa/02/y", "blobs/bb/01/z", "blobs/cc/01/w", "uploads/1/a.txt", ".staging/p")) {
+            storage.save(new ByteArrayInputStream(key.getBytes(StandardCharsets.UTF_8)), key);
+        }
+
+        assertEquals(List.of("blobs/", "uploads/"), objectStore.listPrefixes(""));
+        assertEquals(List.of("blobs/aa/", "blobs/bb/", "blobs/cc/"), objectStore.listPrefixes("blobs/"));
+        assertEquals(List.of("blobs/aa/01/x", "blobs/aa/02/y"),
+                objectStore.list("blobs/aa/").stream().map(ObjectStore.ObjectInfo::key).toList());
+        assertEquals(5, objectStore.list("").size());
+
+        objectStore.delete("blobs/aa/01/x");
+        objectStore.delete("blobs/aa/01/x");
+        assertEquals(List.of("blobs/aa/02/y"),
+                objectStore.list("blobs/aa/").stream().map(ObjectStore.ObjectInfo::key).toList());
+    }
+}
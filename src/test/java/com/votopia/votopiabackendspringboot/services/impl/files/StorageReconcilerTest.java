@@ -0,0 +1,99 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({StorageReconciler.class, LocalObjectStore.class})
+// I thread della riconciliazione usano connessioni proprie: i dati del test devono essere committati
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "votopia.storage.reconcile.grace-period=1m",
+        "votopia.storage.reconcile.max-deletes-per-second=0"
+})
+class StorageReconcilerTest {
+
+    private static final Path ROOT = createRoot();
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("storage.location", ROOT::toString);
+    }
+
+    @Autowired private StorageReconciler reconciler;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM file_derivatives");
+        jdbcTemplate.update("DELETE FROM file_blobs");
+    }
+
+    @Test
+    void removesOldOrphansAndReportsDanglingRows() throws Exception {
+        String kept = "blobs/aa/bb/aabb01";
+        String orphan = "blobs/aa/bb/aabb02";
+        String recentOrphan = "blobs/aa/cc/aacc01";
+        String legacyOrphan = "uploads/1/org/0/old.pdf";
+        write(kept, true);
+        write(orphan, true);
+        write(recentOrphan, false);
+        write(legacyOrphan, true);
+        write(".staging/abandoned.part", true);
+
+        jdbcTemplate.update("INSERT INTO file_blobs (sha256, size_bytes, storage_path, ref_count) VALUES (?, 1, ?, 1)",
+                "aabb01", kept);
+        jdbcTemplate.update("INSERT INTO file_blobs (sha256, size_bytes, storage_path, ref_count) VALUES (?, 1, ?, 1)",
+                "aadd01", "blobs/aa/dd/aadd01");
+        jdbcTemplate.update("INSERT INTO file_derivatives (source_sha256, max_size, width, height, storage_path, mime_type, size_bytes) " +
+                "VALUES ('aabb01', 64, 64, 64, 'derivatives/aa/aabb01/64.jpg', 'image/jpeg', 1)");
+        Files.createDirectories(ROOT.resolve("derivatives/aa"));
+
+        StorageReconciler.Report report = reconciler.reconcile();
+
+        assertTrue(Files.exists(ROOT.resolve(kept)));
+        assertTrue(Files.exists(ROOT.resolve(recentOrphan)));
+        assertFalse(Files.exists(ROOT.resolve(orphan)));
+        assertFalse(Files.exists(ROOT.resolve(legacyOrphan)));
+        assertFalse(Files.exists(ROOT.resolve(".staging/abandoned.part")));
+        assertEquals(2, report.deletedFiles());
+        assertEquals(1, report.staleStagingFiles());
+        assertEquals(2, report.danglingRows());
+        // Le miniature senza contenuto sono rigenerabili: la riga viene eliminata; i blob restano solo segnalati
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM file_derivatives", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM file_blobs", Integer.class));
+    }
+
+    private static void write(String path, boolean old) throws Exception {
+        Path file = ROOT.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "x");
+        if (old) Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(3600)));
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("votopia-reconcile");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.votopia.votopiabackendspringboot.services.impl.files;
+
+import com.votopia.votopiabackendspringboot.services.files.StoredObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageServiceImplTest {
+
+    @TempDir
+    Path root;
+
+    private StorageServiceImpl storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new StorageServiceImpl(new LocalObjectStore(root.toString()), root.resolve(".staging").toString());
+    }
+
+    @Test
+    void streamedSaveComputesSizeAndDigest() throws Exception {
+        byte[] content = "votopia".getBytes(StandardCharsets.UTF_8);
+
+        StoredObject stored = storage.save(new ByteArrayInputStream(content), "uploads/1/org/0/a.txt");
+
+        assertEquals(content.length, stored.size());
+        assertEquals(sha256Hex(content), stored.sha256());
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("uploads/1/org/0/a.txt")));
+        assertStagingEmpty();
+    }
+
+    @Test
+    void multipartSaveMovesTheUploadedFile() throws Exception {
+        byte[] content = new byte[300_000];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+
+        StoredObject stored = storage.save(new MockMultipartFile("file", "big.bin", "application/octet-stream", content),
+                "uploads/1/2/0/big.bin");
+
+        assertEquals(content.length, stored.size());
+        assertEquals(sha256Hex(content), stored.sha256());
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("uploads/1/2/0/big.bin")));
+        assertStagingEmpty();
+    }
+
+    private void assertStagingEmpty() throws Exception {
+        try (var files = Files.list(root.resolve(".staging"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static String sha256Hex(byte[] content) throws Exception {
+        return java.util.HexFormat.of().formatHex(java.security.MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
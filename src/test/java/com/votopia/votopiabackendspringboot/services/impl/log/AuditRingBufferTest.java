@@ -0,0 +1,68 @@
+package com.votopia.votopiabackendspringboot.services.impl.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTest {
+
+    @Test
+    void rejectsWhenFullAndAcceptsAfterDrain() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) assertTrue(buffer.offer(i));
+        assertFalse(buffer.offer(99));
+
+        java.util.List<Integer> out = new ArrayList<>();
+        assertEquals(2, buffer.drain(out::add, 2));
+        assertEquals(java.util.List.of(0, 1), out);
+
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertFalse(buffer.offer(6));
+
+        out.clear();
+        buffer.drain(out::add, Integer.MAX_VALUE);
+        assertEquals(java.util.List.of(2, 3, 4, 5), out);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) Thread.onSpinWait();
+                }
+                return null;
+            });
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+            buffer.drain(seen::add, 256);
+        }
+        pool.shutdown();
+
+        assertEquals(producers * perProducer, seen.size());
+        assertEquals(0, buffer.size());
+    }
+}